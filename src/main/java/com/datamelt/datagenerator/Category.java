@@ -19,6 +19,8 @@
 package com.datamelt.datagenerator;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Random;
 
 /**
@@ -29,6 +31,11 @@ import java.util.Random;
  * of all fruits. or a category of [names] could contain
  * a list of valid first names.<br />
  * <br />
+ * the lines of a category may start with one or more keys, separated
+ * from each other and from the word by a vertical bar: [key]|[word].
+ * fields with a condition pick a word among the lines having the keys
+ * given by the values of other fields.<br />
+ * <br />
  * @author uwe geercken - uwe.geercken@web.de
  *
  */
@@ -38,6 +45,13 @@ public class Category
 	private ArrayList <String> words;
 	private int numberOfUsage; 
 	
+	// the words grouped by their keys. the words of a key follow each other
+	private String[] groupedWords;
+	// the offset of the first word of each key and the number of its words
+	private HashMap <String,int[]> groups;
+	
+	public static final String KEY_SEPARATOR = "|";
+	
 	/** constructor to instantiate a category. pass the name of the
 	 *  category, so it can be identified by its name. 
 	 */
@@ -67,6 +81,80 @@ public class Category
 		return words.get(index);
 	}
 	
+	/**
+	 * method returns the number of words in this category
+	 */
+	public int getNumberOfWords()
+	{
+		return words!=null ? words.size() : 0;
+	}
+	
+	/**
+	 * groups the words by their keys, which are the part of each line before the last
+	 * vertical bar. the words of each key are stored one after the other, so that a word
+	 * of a key is picked with one lookup of the key and an offset.
+	 * 
+	 * the grouping is done once. the category may be shared by multiple layouts that
+	 * are generated at the same time.
+	 */
+	public synchronized void groupByKey() throws Exception
+	{
+		if(groups!=null)
+		{
+			return;
+		}
+		LinkedHashMap <String,ArrayList<String>> keyWords = new LinkedHashMap<String,ArrayList<String>>();
+		for(int i=0;i<getNumberOfWords();i++)
+		{
+			String line = words.get(i);
+			int posSeparator = line.lastIndexOf(KEY_SEPARATOR);
+			if(posSeparator<0)
+			{
+				throw new Exception("line without key in category: " + type + " - " + line);
+			}
+			String key = line.substring(0,posSeparator);
+			ArrayList <String> list = keyWords.get(key);
+			if(list==null)
+			{
+				list = new ArrayList<String>();
+				keyWords.put(key, list);
+			}
+			list.add(line.substring(posSeparator + KEY_SEPARATOR.length()));
+		}
+		String[] allWords = new String[getNumberOfWords()];
+		HashMap <String,int[]> keyGroups = new HashMap<String,int[]>();
+		int offset = 0;
+		for(String key : keyWords.keySet())
+		{
+			ArrayList <String> list = keyWords.get(key);
+			keyGroups.put(key, new int[] {offset, list.size()});
+			for(int i=0;i<list.size();i++)
+			{
+				allWords[offset++] = list.get(i);
+			}
+		}
+		groupedWords = allWords;
+		groups = keyGroups;
+	}
+	
+	/**
+	 * returns the offset of the first word of the given key and the number of its
+	 * words or null if there are no words for the key. the words must have been
+	 * grouped by their keys.
+	 */
+	public int[] getGroup(String key)
+	{
+		return groups.get(key);
+	}
+	
+	/**
+	 * returns the word at the given offset of the words grouped by their keys
+	 */
+	public String getGroupedWord(int index)
+	{
+		return groupedWords[index];
+	}
+	
 	/**
 	 * method retrieves a random word from this category.
 	 * a random number is generated between zero and the 
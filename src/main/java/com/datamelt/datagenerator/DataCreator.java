@@ -18,22 +18,55 @@
  */ 
 package com.datamelt.datagenerator;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.xml.sax.SAXException;
 
 import com.datamelt.datagenerator.output.Field;
+import com.datamelt.datagenerator.output.JdbcOutput;
+import com.datamelt.datagenerator.output.PostgresCopyEncoder;
+import com.datamelt.datagenerator.output.RowEncoder;
+import com.datamelt.datagenerator.output.SqlInsertEncoder;
 import com.datamelt.datagenerator.output.Row;
+import com.datamelt.datagenerator.parser.xml.JobParser;
 import com.datamelt.datagenerator.parser.xml.Parser;
+import com.datamelt.datagenerator.util.Checkpoint;
+import com.datamelt.datagenerator.util.CompiledDateFormat;
+import com.datamelt.datagenerator.util.Distribution;
+import com.datamelt.datagenerator.util.FeistelPermutation;
+import com.datamelt.datagenerator.util.KeyReservoir;
+import com.datamelt.datagenerator.util.LatencyHistogram;
+import com.datamelt.datagenerator.util.RandomSource;
+import com.datamelt.datagenerator.util.RateLimiter;
+import com.datamelt.datagenerator.util.SequenceAllocator;
+import com.datamelt.datagenerator.util.ShardManifest;
+import com.datamelt.datagenerator.util.UniqueValueSet;
 import com.datamelt.datagenerator.util.Utility;
 
 /**
@@ -89,6 +122,32 @@ import com.datamelt.datagenerator.util.Utility;
  *  use of the "reference" keyword. the fields will be based on the same exact datetime but with a different
  *  format/pattern.<br />
  * <br />
+ *  field type="sequence" start="1000" step="10" digits="8"<br />
+ *  <br />
+ *  ...indicating that the value is a number, starting at 1000 and increased by 10 for every row. values with
+ *  less than 8 digits are filled with leading zeros.<br />
+ * <br />
+ *  field type="permutation" pattern="[A-Z0-9]{8}" key="4711"<br />
+ *  field type="permutation" domain="10000000000" digits="10"<br />
+ *  <br />
+ *  ...indicating that the number of the row is mapped to a unique value that looks random, either built
+ *  from the characters of the pattern with the given length or as a number below the given domain. the
+ *  same key always produces the same values. no memory is needed to keep the values unique.<br />
+ * <br />
+ *  row name="order"<br />
+ *  field type="foreignkey" parent="customer.customerid"<br />
+ *  <br />
+ *  ...indicating that the value is a key of the layout named "customer", which is generated in the same run
+ *  before this layout. the key field is the field with the id "customerid" in the references of the parent
+ *  layout. keys of sequence and permutation fields are calculated for a random row of the parent, for other
+ *  fields a random sample of the generated keys is kept.<br />
+ * <br />
+ *  field type="regex" pattern="[A-Z]{3}[0-9]{6}" length="9" unique="true"<br />
+ *  <br />
+ *  ...indicating that each generated value of the field must be unique. if a value was already generated,
+ *  a new one is generated instead. if the pattern can not produce enough different values for the requested
+ *  number of rows an error is reported before any row is generated.<br />
+ * <br />
  * the maximum length of the field is interesting in this case, when the value  - generated
  * or picked from a category file - is longer than the maximum length specified in the xml file.
  * in this case the value will be shortened.<br />
@@ -96,6 +155,30 @@ import com.datamelt.datagenerator.util.Utility;
  * if the field is shorter than the length specified - only in cases of fixed length output files - 
  * it will be filled with spaces up to the specified length.<br />
  * <br />
+ * a job file lists multiple row layout files - tables - that are generated in one run. the number of rows
+ * of a table is given as a number or as a multiple of the scale factor:<br />
+ * <br />
+ *  job<br />
+ *  &nbsp;&nbsp;table layout="customer.xml" rows="150000*sf" outputfile="customer.tbl"<br />
+ *  &nbsp;&nbsp;table layout="orders.xml" rows="1500000*sf" outputfile="orders.tbl"<br />
+ * <br />
+ * the tables are generated in parallel and share the loaded categories. a table referencing the keys of
+ * another table is started when the other table is complete.<br />
+ * <br />
+ * for load tests, rows can be streamed at a fixed number of rows per second, optionally increasing the rate
+ * from zero over a ramp duration, to system.out, a file, a named pipe or a tcp socket. the number of rows may
+ * be unlimited. the achieved rate and the percentiles of the write latency are reported.<br />
+ * <br />
+ * rows can be inserted into a database table using jdbc, by specifying the jdbc url of the database as
+ * output file. the fields are inserted into the columns given by their column attribute or into the columns
+ * of the table in their order. the rows are inserted in batches over multiple connections in parallel.<br />
+ * <br />
+ * instead of text, the rows can be written in the binary format of the postgresql copy command or as a sql
+ * script of insert statements, each inserting a batch of rows. the values are written directly as bytes.<br />
+ * <br />
+ * if a seed is specified, the same seed always produces the same rows. the program can also run as an http
+ * server, which generates the rows of the layouts in a folder on request - see DataServer.<br />
+ * <br />
  * all arguments can be directly passed to the program or specified in the properties file<br />
  * <br />
  * last update: 2017-03-01, copyright: uwe geercken<br />
@@ -110,8 +193,13 @@ public class DataCreator
 	public static final String CATEGORY_FILE_EXTENSION = ".category";
 	
 	private CategoryCollection collection = new CategoryCollection();
+	// the categories used by this layout. they are taken from the collection, which may be shared by multiple layouts
+	private HashMap <String,Category> categories = new HashMap<String,Category>();
 
 	private PrintStream out 				    = System.out;
+	// streams for the messages of the verbose mode and for the statistics. null to suppress them
+	private PrintStream messages				= System.out;
+	private PrintStream statistics				= System.err;
 	private String outputfile;
 	private long numberOfOutputLines 	     	= 10; //default=10
 	private String fieldSeparator				= ";"; //default=;
@@ -120,10 +208,75 @@ public class DataCreator
 	private long processedLinesOutputInterval;
 	private int maximumYear				     	= Utility.DEFAULT_MAXDATE_YEAR;
 	private int minimumYear				     	= Utility.DEFAULT_MINDATE_YEAR;
+	private int uniqueValuesInMemory			= UniqueValueSet.DEFAULT_MAXIMUM_ENTRIES;
+	private int keyReservoirSize				= KeyReservoir.DEFAULT_SIZE;
+	// characters used for randomly generated values or null for the default characters
+	private String possibleCharacters;
+	
+	// number of rows per layout, when multiple layouts are generated
+	private String[] layoutNumberOfOutputLines;
+	// names of the layouts that this layout references
+	private HashSet <String> parentLayoutNames = new HashSet<String>();
+	
+	private String jobFile;
+	private double scaleFactor					= 1;
+	private int numberOfThreads					= Runtime.getRuntime().availableProcessors();
+	
+	// number of rows per second when streaming. zero means as fast as possible
+	private double rowsPerSecond;
+	// duration over which the rate is increased from zero to the number of rows per second
+	private String rampDuration;
+	
+	// seed of the generators of random numbers of the fields or null for different rows on every run
+	private Long seed;
+	
+	// port of the http server serving rows on request. zero means that no server is started
+	private int port;
+	// folder containing the row layout files served by the http server
+	private String layoutFolder;
+	
+	// settings for inserting the rows into a database, if the output file is a jdbc url
+	private String table;
+	private String jdbcUser;
+	private String jdbcPassword;
+	private int batchSize						= JdbcOutput.DEFAULT_BATCH_SIZE;
+	private int commitInterval					= JdbcOutput.DEFAULT_COMMIT_INTERVAL;
+	private int numberOfConnections				= 1;
+	
+	// format of the output: text, postgresql copy binary or sql insert statements
+	private String outputFormat					= OUTPUT_FORMAT_TEXT;
+	
+	// number of rows after which a checkpoint is written. zero for no checkpoints
+	private long checkpointInterval;
+	// continue the run from the last checkpoint
+	private boolean resume;
+	
+	// the shard generated - starting at one - and the number of shards. zero if the rows are not sharded
+	private int shard;
+	private int numberOfShards;
+	// number of the single row that is output, starting at one. zero to output all rows
+	private long singleRow;
+	// the range of rows generated: from the first row to the row before the last row
+	private long firstRow;
+	private long lastRow;
 	
 	long maxMilliSeconds;
 	long minMilliSeconds;
 	
+	// the number of the row that is generated next, starting at zero
+	private long rowNumber;
+	
+	// the referenced fields and the fields of the row that affect the output, in the order
+	// they are generated, and the keys of parent layouts. null until the first row is generated
+	private Field[] liveReferencedFields;
+	private Field[] liveRowFields;
+	private Field[] keyFields;
+	
+	// in the compiled mode, the fields of the row are generated by a method handle composed
+	// for the layout. null until the first row is generated or if the mode is off
+	private boolean compiled;
+	private MethodHandle compiledRowFields;
+	
 	private String categoryFilesFolder;
 	private String rowlayoutFile;
 	
@@ -138,6 +291,60 @@ public class DataCreator
 	public static final String PROPERTY_DATAFORMAT				        = "format";
 	public static final String PROPERTY_POSSIBLE_CHARACTERS		        = "possiblecharacters";
 	public static final String PROPERTY_OUTPUT_FIELD_SEPARATOR	        = "fieldseparator";
+	public static final String PROPERTY_UNIQUE_VALUES_IN_MEMORY	        = "uniquevaluesinmemory";
+	public static final String PROPERTY_KEY_RESERVOIR_SIZE		        = "keyreservoirsize";
+	public static final String PROPERTY_JOB_FILE				        = "jobfile";
+	public static final String PROPERTY_SCALE_FACTOR			        = "scalefactor";
+	public static final String PROPERTY_NUMBER_OF_THREADS		        = "threads";
+	public static final String PROPERTY_RATE					        = "rate";
+	public static final String PROPERTY_RAMP					        = "ramp";
+	public static final String PROPERTY_SEED					        = "seed";
+	public static final String PROPERTY_PORT					        = "port";
+	public static final String PROPERTY_LAYOUT_FOLDER			        = "layoutfolder";
+	public static final String PROPERTY_TABLE					        = "table";
+	public static final String PROPERTY_JDBC_USER				        = "jdbcuser";
+	public static final String PROPERTY_JDBC_PASSWORD			        = "jdbcpassword";
+	public static final String PROPERTY_BATCH_SIZE				        = "batchsize";
+	public static final String PROPERTY_COMMIT_INTERVAL			        = "commitinterval";
+	public static final String PROPERTY_NUMBER_OF_CONNECTIONS	        = "connections";
+	public static final String PROPERTY_OUTPUT_FORMAT			        = "outputformat";
+	public static final String PROPERTY_CHECKPOINT_INTERVAL		        = "checkpointinterval";
+	public static final String PROPERTY_SHARD					        = "shard";
+	public static final String PROPERTY_COMPILED				        = "compiled";
+	
+	public static final String OUTPUT_FORMAT_TEXT						= "text";
+	public static final String OUTPUT_FORMAT_POSTGRES_COPY				= "pgcopy";
+	public static final String OUTPUT_FORMAT_SQL						= "sql";
+	
+	// number of rows meaning that rows are generated until the program is stopped
+	public static final long UNLIMITED_NUMBER_OF_ROWS					= -1;
+	public static final String UNLIMITED							    = "unlimited";
+	
+	// prefix of an output file specifying a tcp socket to send the rows to: tcp://host:port
+	public static final String TCP_OUTPUT_PREFIX				        = "tcp://";
+	
+	// interval in nanoseconds at which the rate is reported in verbose mode when streaming
+	private static final long RATE_REPORT_INTERVAL						= 10000000000L;
+	
+	// number of times a value for a unique field is generated before giving up
+	private static final int MAXIMUM_UNIQUE_VALUE_ATTEMPTS				= 100000;
+	// average number of attempts the last unique value may need. far below the maximum, so that a run does not fail by chance
+	private static final int MAXIMUM_EXPECTED_UNIQUE_VALUE_ATTEMPTS		= MAXIMUM_UNIQUE_VALUE_ATTEMPTS / 20;
+	
+	// how the value of a field is generated, determined once when the layout is prepared
+	private static final int GENERATOR_CONSTANT							= 0;
+	private static final int GENERATOR_CATEGORY							= 1;
+	private static final int GENERATOR_REGEX							= 2;
+	private static final int GENERATOR_RANDOM							= 3;
+	private static final int GENERATOR_SEQUENCE							= 4;
+	private static final int GENERATOR_PERMUTATION						= 5;
+	private static final int GENERATOR_FOREIGNKEY						= 6;
+	private static final int GENERATOR_NUMBER							= 7;
+	private static final int GENERATOR_REFERENCE						= 8;
+	private static final int GENERATOR_DATETIME							= 9;
+	private static final int GENERATOR_CATEGORY_PERMUTATION				= 10;
+	private static final int GENERATOR_CATEGORY_CONDITIONAL				= 11;
+	private static final int GENERATOR_POOL								= 12;
 	
 	public static final String PROPERTIES_FILE					        = "datagenerator.properties";
 
@@ -169,8 +376,7 @@ public class DataCreator
 				//parse any arguments passed to the program
 				creator.parseArguments(args);
 		        
-				creator.parseRowLayoutFile();				
-		        creator.generateRows();
+				creator.generate();
 			}
 		}
 		else
@@ -178,8 +384,7 @@ public class DataCreator
 			// load properties from file if there is such a file
 			creator.loadProperties(PROPERTIES_FILE);
 			
-			creator.parseRowLayoutFile();				
-	        creator.generateRows();
+			creator.generate();
 
 		}
 	}
@@ -192,40 +397,406 @@ public class DataCreator
 		return APPLICATION_VERSION_NUMBER;
 	}
 	
+	/**
+	 * returns the row with the given number - starting at zero. the row is the same as the one
+	 * generated at this position by a run generating all rows with the same seed, but the rows
+	 * before it are not generated. with each call for the same number, the same row is returned.
+	 * 
+	 * the rows following it can be generated by calling generateRow() afterwards.
+	 */
+	public String generateRow(long index) throws Exception
+	{
+		checkIndependentRows("by row number");
+		moveToRow(index);
+		return generateRow();
+	}
+	
 	public String generateRow() throws Exception
 	{
 		// get the row object that has been constructed during parsing
 		Row row = parser.getRow();
 		row.setSeparator(fieldSeparator); 
 		
+		generateFieldValues();
+		
+		return format(row.getValue());
+	}
+	
+	/**
+	 * generates the values of all fields of the next row
+	 */
+	private void generateFieldValues() throws Exception
+	{
+		if(liveRowFields==null)
+		{
+			prepareLiveFields();
+		}
+		Field[] referenced = liveReferencedFields;
+		Field[] fields = liveRowFields;
+		
+		// with a seed, the random numbers of the row are derived from the seed and the number of the row
+		for(int j=0;j<referenced.length;j++)
+		{
+			referenced[j].startRow(rowNumber);
+		}
+		
 		// loop over all fields of the row that do not have an id
-		for(int j=0;j<row.getFields().size();j++)
+		if(compiledRowFields!=null)
+		{
+			generateCompiledRowFields();
+		}
+		else
+		{
+			for(int j=0;j<fields.length;j++)
+			{
+				Field field = fields[j];
+				field.startRow(rowNumber);
+				generateFieldValue(field);
+			}
+		}
+		
+		// the keys of the layout are collected for the layouts referencing them, even if
+		// no field of the row uses them
+		for(int j=0;j<keyFields.length;j++)
 		{
-			// get the field
-			Field field = (Field)row.getFields().get(j);
-			generateFieldValue(field);
+			if(keyFields[j].getValueGenerated()==false)
+			{
+				generateFieldValue(keyFields[j]);
+				keyFields[j].setValueGenerated(true);
+			}
 		}
 
-		// we loop over the map of reference fields and set valuegenerated to false
+		// we loop over the reference fields and set valuegenerated to false
 		// so that for the next row that will be generated, the values of the reference fields will be 
 		// newly calculated
+		for(int j=0;j<referenced.length;j++)
+		{
+			referenced[j].setValueGenerated(false);
+		}
+
+		rowNumber++;
+	}
+
+	/**
+	 * generates the rows for the row layout file. multiple row layout files may be
+	 * specified, separated by commas. fields of a layout can reference the keys of a layout
+	 * listed before it.
+	 * 
+	 * if a job file is specified, the tables defined in the job are generated instead. if
+	 * a port is specified, an http server is started that generates rows on request.
+	 */
+	public void generate() throws Exception
+	{
+		if((checkpointInterval>0 || resume) && (port>0 || jobFile!=null || (rowlayoutFile!=null && rowlayoutFile.contains(","))))
+		{
+			throw new Exception("checkpoints can only be used when generating the rows of a single row layout file");
+		}
+		if(numberOfShards>0 && (port>0 || jobFile!=null || (rowlayoutFile!=null && rowlayoutFile.contains(","))))
+		{
+			throw new Exception("shards can only be used when generating the rows of a single row layout file");
+		}
+		if(singleRow>0 && (port>0 || jobFile!=null || (rowlayoutFile!=null && rowlayoutFile.contains(","))))
+		{
+			throw new Exception("a single row can only be output for a single row layout file");
+		}
+		if(port>0)
+		{
+			startServer();
+			return;
+		}
+		if(jobFile!=null)
+		{
+			generateJob();
+			return;
+		}
+		if(rowlayoutFile==null)
+		{
+			throw new Exception("no row layout file or job file specified");
+		}
+		String[] layoutFiles = rowlayoutFile.split(",");
+		if(layoutFiles.length==1)
+		{
+			parseRowLayoutFile();
+			linkParentKeys(new HashMap<String,DataCreator>());
+			if(singleRow>0)
+			{
+				generateSingleRow();
+			}
+			else
+			{
+				generateRows();
+			}
+		}
+		else
+		{
+			// the number of rows and the output file may be specified per layout
+			long[] numberOfRows = new long[layoutFiles.length];
+			String[] outputfiles = new String[layoutFiles.length];
+			String[] outputfileList = null;
+			if(outputfile!=null && !outputfile.trim().equals(""))
+			{
+				outputfileList = outputfile.split(",");
+			}
+			for(int i=0;i<layoutFiles.length;i++)
+			{
+				numberOfRows[i] = numberOfOutputLines;
+				if(layoutNumberOfOutputLines!=null && layoutNumberOfOutputLines.length>i)
+				{
+					numberOfRows[i] = parseNumberOfRows(layoutNumberOfOutputLines[i]);
+				}
+				if(outputfileList!=null && outputfileList.length>i)
+				{
+					outputfiles[i] = outputfileList[i].trim();
+				}
+			}
+			generateLayouts(layoutFiles, numberOfRows, outputfiles);
+		}
+	}
+	
+	/**
+	 * generates the tables of the job file. the number of rows of each table is
+	 * calculated from the scale factor.
+	 */
+	private void generateJob() throws Exception
+	{
+		JobParser jobParser = new JobParser();
+		try
+		{
+			jobParser.parse(jobFile);
+		}
+		catch(Exception e)
+		{
+			throw new Exception("error parsing job file: " + jobFile + " - " + e.getMessage());
+		}
+		ArrayList <JobTable> tables = jobParser.getTables();
+		String[] layoutFiles = new String[tables.size()];
+		long[] numberOfRows = new long[tables.size()];
+		String[] outputfiles = new String[tables.size()];
+		for(int i=0;i<tables.size();i++)
+		{
+			layoutFiles[i] = tables.get(i).getRowlayoutFile();
+			numberOfRows[i] = tables.get(i).getNumberOfRows(scaleFactor);
+			outputfiles[i] = tables.get(i).getOutputfile();
+		}
+		generateLayouts(layoutFiles, numberOfRows, outputfiles);
+	}
+	
+	/**
+	 * starts the http server, which generates the rows of the layouts in the layout folder
+	 * on request. if no layout folder is specified, the folder of the row layout file is
+	 * used. the server runs until the program is stopped.
+	 */
+	private void startServer() throws Exception
+	{
+		String folder = layoutFolder;
+		if(folder==null && rowlayoutFile!=null)
+		{
+			folder = new File(rowlayoutFile.split(",")[0].trim()).getAbsoluteFile().getParent();
+		}
+		if(folder==null)
+		{
+			throw new Exception("the layout folder must be specified when running as server");
+		}
+		DataServer server = new DataServer(this, new File(folder), port, numberOfThreads);
+		server.start();
+		printMessage("serving rows of the row layout files in folder: " + folder + " on port: " + port);
+	}
+	
+	/**
+	 * generates the rows for multiple row layout files.
+	 * 
+	 * all layouts are parsed first, so that the key fields of parent layouts know that they
+	 * are referenced before their rows are generated. the layouts are then generated in parallel
+	 * by the given number of threads. a layout is generated as soon as the layouts it references
+	 * are complete. layouts without an output file write to the same stream, so they are generated
+	 * one after the other in the given order. all layouts share the categories, so each category
+	 * file is loaded only once.
+	 */
+	private void generateLayouts(String[] layoutFiles, long[] numberOfRows, String[] outputfiles) throws Exception
+	{
+		HashMap <String,DataCreator> layouts = new HashMap<String,DataCreator>();
+		DataCreator[] creators = new DataCreator[layoutFiles.length];
+		for(int i=0;i<layoutFiles.length;i++)
+		{
+			creators[i] = createLayoutCreator();
+			creators[i].rowlayoutFile = layoutFiles[i].trim();
+			creators[i].numberOfOutputLines = numberOfRows[i];
+			creators[i].outputfile = outputfiles[i];
+			// the layouts get different random numbers from the same seed
+			creators[i].seed = seed!=null ? RandomSource.mix(seed + i) : null;
+			creators[i].parseRowLayoutFile();
+			creators[i].linkParentKeys(layouts);
+			if(creators[i].getLayoutName()!=null)
+			{
+				layouts.put(creators[i].getLayoutName(), creators[i]);
+			}
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numberOfThreads, creators.length)));
+		try
+		{
+			HashMap <DataCreator,CompletableFuture<Void>> futures = new HashMap<DataCreator,CompletableFuture<Void>>();
+			// the last layout writing to the shared output stream
+			CompletableFuture<Void> sharedOutputFuture = null;
+			for(int i=0;i<creators.length;i++)
+			{
+				// wait for the parent layouts to complete
+				ArrayList <CompletableFuture<Void>> parentFutures = new ArrayList<CompletableFuture<Void>>();
+				Iterator <String>iter = creators[i].parentLayoutNames.iterator();
+				while(iter.hasNext())
+				{
+					parentFutures.add(futures.get(layouts.get(iter.next())));
+				}
+				// layouts without an output file write to the same stream. they are generated one after the other in the given order
+				boolean sharedOutput = outputfiles[i]==null || outputfiles[i].trim().equals("");
+				if(sharedOutput && sharedOutputFuture!=null)
+				{
+					parentFutures.add(sharedOutputFuture);
+				}
+				final DataCreator creator = creators[i];
+				CompletableFuture<Void> future = allOf(parentFutures).thenRunAsync(new Runnable()
+				{
+					public void run()
+					{
+						try
+						{
+							if(verbose)
+							{
+								printMessage("generating " + creator.numberOfOutputLines + " rows for layout: " + creator.rowlayoutFile);
+							}
+							creator.generateRows();
+						}
+						catch(Exception e)
+						{
+							throw new CompletionException(e);
+						}
+					}
+				}, executor);
+				futures.put(creator, future);
+				if(sharedOutput)
+				{
+					sharedOutputFuture = future;
+				}
+			}
+			allOf(futures.values()).join();
+		}
+		catch(CompletionException e)
+		{
+			if(e.getCause() instanceof Exception)
+			{
+				throw (Exception)e.getCause();
+			}
+			throw e;
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * returns a future that completes when all of the given futures have completed
+	 */
+	private static CompletableFuture<Void> allOf(Collection<CompletableFuture<Void>> futures)
+	{
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+	}
+	
+	/**
+	 * creates a data creator for one of multiple layouts. it uses the same settings
+	 * and shares the categories that have been loaded already.
+	 */
+	DataCreator createLayoutCreator()
+	{
+		DataCreator creator = new DataCreator();
+		creator.collection = collection;
+		creator.categoryFilesFolder = categoryFilesFolder;
+		creator.numberOfOutputLines = numberOfOutputLines;
+		creator.fieldSeparator = fieldSeparator;
+		creator.verbose = verbose;
+		creator.dataFormat = dataFormat;
+		creator.processedLinesOutputInterval = processedLinesOutputInterval;
+		creator.maximumYear = maximumYear;
+		creator.minimumYear = minimumYear;
+		creator.uniqueValuesInMemory = uniqueValuesInMemory;
+		creator.keyReservoirSize = keyReservoirSize;
+		creator.rowsPerSecond = rowsPerSecond;
+		creator.rampDuration = rampDuration;
+		creator.seed = seed;
+		creator.jdbcUser = jdbcUser;
+		creator.jdbcPassword = jdbcPassword;
+		creator.batchSize = batchSize;
+		creator.commitInterval = commitInterval;
+		creator.numberOfConnections = numberOfConnections;
+		creator.outputFormat = outputFormat;
+		creator.possibleCharacters = possibleCharacters;
+		creator.messages = messages;
+		creator.statistics = statistics;
+		creator.compiled = compiled;
+		return creator;
+	}
+	
+	/**
+	 * links the foreign key fields of this layout to the key fields of their parent
+	 * layouts. the parent key is specified as: [name of the parent layout].[id of the key field].
+	 * 
+	 * keys of sequence and permutation fields can be calculated for any row of the parent
+	 * layout. for other key fields, a sample of the generated keys is collected while the
+	 * rows of the parent layout are generated.
+	 */
+	void linkParentKeys(HashMap <String,DataCreator> layouts) throws Exception
+	{
 		Iterator <String>iter = referencedFields.keySet().iterator();
 		while(iter.hasNext())
 		{
-			// get the field key				
-			
-			String key = (String)iter.next();
-			// get the field
-			Field field = referencedFields.get(key);
-			if(field!=null)
+			Field field = referencedFields.get(iter.next());
+			if(field.getType()==Field.TYPE_FOREIGNKEY)
 			{
-				field.setValueGenerated(false);
+				linkParentKey(field, layouts);
+			}
+		}
+		for(int j=0;j<parser.getRow().getFields().size();j++)
+		{
+			Field field = (Field)parser.getRow().getFields().get(j);
+			if(field.getType()==Field.TYPE_FOREIGNKEY)
+			{
+				linkParentKey(field, layouts);
 			}
 		}
-
-		return format(row.getValue());
 	}
-
+	
+	private void linkParentKey(Field field, HashMap <String,DataCreator> layouts) throws Exception
+	{
+		int posSeparator = field.getParent().lastIndexOf(".");
+		String layoutName = field.getParent().substring(0,posSeparator);
+		String keyId = field.getParent().substring(posSeparator+1);
+		DataCreator parentCreator = layouts.get(layoutName);
+		if(parentCreator==null)
+		{
+			throw new Exception("parent layout [" + layoutName + "] of foreign key field " + getFieldDescription(field) + " not found. the parent layout must be listed before the layout referencing it");
+		}
+		parentLayoutNames.add(layoutName);
+		Field parentField = parentCreator.referencedFields.get(keyId);
+		if(parentField==null)
+		{
+			throw new Exception("key field [" + keyId + "] not found in the references of parent layout [" + layoutName + "]");
+		}
+		if(parentField.getType()!=Field.TYPE_SEQUENCE && parentField.getType()!=Field.TYPE_PERMUTATION && parentField.getKeyReservoir()==null)
+		{
+			parentField.setKeyReservoir(new KeyReservoir(keyReservoirSize));
+		}
+		field.setParentField(parentField, parentCreator.getNumberOfOutputLines());
+	}
+	
+	/**
+	 * returns the name of the layout as specified in the row layout file
+	 * or null if no name was specified
+	 */
+	public String getLayoutName()
+	{
+		return parser.getRow().getName();
+	}
+	
 	public void parseRowLayoutFile(String rowlayoutFile) throws Exception
 	{
 		this.rowlayoutFile = rowlayoutFile;
@@ -267,6 +838,18 @@ public class DataCreator
             	{
             		throw new Exception("missing pattern attribute for reference field: " + field.getId());
             	}
+            	if(field.getType()==Field.TYPE_PERMUTATION && field.getPattern()==null && field.getDomain()<=0)
+            	{
+            		throw new Exception("missing pattern or domain attribute for reference field: " + field.getId());
+            	}
+            	if(field.getType()==Field.TYPE_FOREIGNKEY && (field.getParent()==null || field.getParent().indexOf(".")<1))
+            	{
+            		throw new Exception("missing or invalid parent attribute for reference field: " + field.getId() + ". use: [layout name].[key field id]");
+            	}
+            	if(field.isUnique() && field.getReference()!=null)
+            	{
+            		throw new Exception("unique attribute can not be used for reference field referencing other fields: " + field.getId());
+            	}
 
 			}
 			
@@ -293,6 +876,18 @@ public class DataCreator
 	        	{
 	        		throw new Exception("missing reference attribute for field: " + field.getId());
 	        	}
+	        	if(field.getType()==Field.TYPE_PERMUTATION && field.getPattern()==null && field.getDomain()<=0)
+	        	{
+	        		throw new Exception("missing pattern or domain attribute for field: " + field.getId());
+	        	}
+	        	if(field.getType()==Field.TYPE_FOREIGNKEY && (field.getParent()==null || field.getParent().indexOf(".")<1))
+	        	{
+	        		throw new Exception("missing or invalid parent attribute for field: " + field.getId() + ". use: [layout name].[key field id]");
+	        	}
+	        	if(field.isUnique() && field.getReference()!=null)
+	        	{
+	        		throw new Exception("unique attribute can not be used for field referencing other fields: " + field.getId());
+	        	}
 			
 			}
 
@@ -314,16 +909,13 @@ public class DataCreator
 			
 			if(processedLinesOutputInterval<=0)
 			{
-				processedLinesOutputInterval = numberOfOutputLines / 100;
+				processedLinesOutputInterval = numberOfOutputLines!=UNLIMITED_NUMBER_OF_ROWS ? numberOfOutputLines / 100 : 1000000;
 			}
+			
+			prepareFields();
 
 		}
-		// if there is a parsing exception from the sax parser
-		catch(SAXException se)
-		{
-			System.out.println("error parsing rowlayout file: " + rowlayoutFile + " - " + se.getMessage());
-		}
-		// any other exception
+		// parsing exceptions from the sax parser and any other exception
 		catch(Exception e)
 		{
 			throw new Exception("error parsing rowlayout file: " + rowlayoutFile + " - " + e.getMessage());
@@ -332,48 +924,1494 @@ public class DataCreator
 	
 	public void generateRows() throws Exception
 	{
+		// the rows are inserted into a database if the output file is a jdbc url
+		boolean database = outputfile!=null && outputfile.trim().toLowerCase().startsWith(JdbcOutput.JDBC_URL_PREFIX);
+		
+		firstRow = 0;
+		lastRow = numberOfOutputLines;
+		if(numberOfShards>0)
+		{
+			prepareShard();
+		}
+		
+		// a checkpointed run writes to a file, which is truncated to the last checkpoint when the run is resumed
+		Checkpoint checkpoint = null;
+		FileOutputStream checkpointedOutput = null;
+		if(checkpointInterval>0 || resume)
+		{
+			checkpoint = openCheckpoint(database);
+			checkpointedOutput = openCheckpointedOutput(checkpoint);
+			out = new PrintStream(new BufferedOutputStream(checkpointedOutput, 65536));
+			if(checkpoint.getRows()>firstRow)
+			{
+				firstRow = checkpoint.getRows();
+			}
+		}
 		// set the output destination if one was specified
-		if(outputfile!=null && !outputfile.trim().equals(""))
+		else if(!database && outputfile!=null && !outputfile.trim().equals(""))
 		{
-			out = new PrintStream(new FileOutputStream(new File(outputfile)));
+			out = openOutput(outputfile.trim());
 		}
 
-		long counter=0;
-		
-		// generate the specified number of rows
-		for (long i=0;i<numberOfOutputLines;i++)
+		try
 		{
-			out.println(generateRow());
-			
-			// advance the counter by one
-			counter++;
-			
-			if(verbose)
+			if(database)
+			{
+				generateRowsToDatabase();
+			}
+			else if(!outputFormat.equals(OUTPUT_FORMAT_TEXT))
+			{
+				generateRowsEncoded(checkpoint, checkpointedOutput);
+			}
+			else if(rowsPerSecond>0)
+			{
+				generateRowsAtRate();
+			}
+			else
 			{
-				if(counter==processedLinesOutputInterval)
+				long counter=0;
+				
+				// generate the specified number of rows
+				for (long i=firstRow;lastRow==UNLIMITED_NUMBER_OF_ROWS || i<lastRow;i++)
 				{
-					System.out.println("generated lines: " + (i+1));
-					counter=0;
+					out.println(generateRow());
+					
+					// advance the counter by one
+					counter++;
+					
+					if(verbose)
+					{
+						if(counter==processedLinesOutputInterval)
+						{
+							printMessage("generated lines: " + (i+1));
+							counter=0;
+						}
+					}
+					if(checkpointInterval>0 && (i+1) % checkpointInterval==0)
+					{
+						saveCheckpoint(checkpoint, checkpointedOutput, null, i+1);
+					}
+					if((i & 0x3ff)==0x3ff && out.checkError())
+					{
+						if(numberOfOutputLines!=UNLIMITED_NUMBER_OF_ROWS)
+						{
+							throw new Exception("error writing to the output after " + (i+1) + " rows");
+						}
+						// the reader of an unlimited number of rows has gone away
+						break;
+					}
 				}
 			}
 		}
-		// close the output stream
-		out.close();
-	}
-	
-	/**
-	 * sets the field value to the value of the field it references. the reference to another field is
-	 * specified in the relevant row layout file. see the documentation for further details
-	 * 
-	 * if it references multiple fields the values of the fields are concatenated. multiple
-	 * referenced fields have to be seperated using a slash character (/).
-	 * if a reference specified is not existing, it will be treated as a fixed string and
-	 * concatenated to the rest of the values.
-	 * 
-	 * for datetime fields the original datetime value of the reference field will be used. this
-	 * means that seperate fields/columns can be based on the same date, which will result in consistent
-	 * datetime values across the columns.
-	 * 
+		finally
+		{
+			// close the output stream
+			if(out!=System.out)
+			{
+				out.close();
+			}
+			else
+			{
+				out.flush();
+			}
+			
+			closeUniqueValueSets();
+		}
+		
+		// the run is complete, so there is nothing to resume
+		if(checkpoint!=null)
+		{
+			if(out.checkError())
+			{
+				throw new Exception("error writing to the output file: " + outputfile);
+			}
+			checkpoint.delete();
+		}
+		
+		if(numberOfShards>0 && !database && outputfile!=null && !outputfile.trim().equals("") && !outputfile.trim().toLowerCase().startsWith(TCP_OUTPUT_PREFIX))
+		{
+			writeShardManifest();
+		}
+		
+		if(verbose)
+		{
+			printDateCacheStatistics();
+		}
+	}
+	
+	/**
+	 * checks that the rows can be checkpointed and returns the checkpoint of the output
+	 * file, which is stored next to it with the extension .checkpoint. when the run is
+	 * resumed, the checkpoint is read and the fields are set to the state stored in it.
+	 * 
+	 * a resumed run continues with the row after the checkpoint, so that the output is
+	 * the same as that of a run that was not interrupted. this requires a seed.
+	 */
+	private Checkpoint openCheckpoint(boolean database) throws Exception
+	{
+		if(database || outputfile==null || outputfile.trim().equals("") || outputfile.trim().toLowerCase().startsWith(TCP_OUTPUT_PREFIX))
+		{
+			throw new Exception("checkpoints require an output file");
+		}
+		if(seed==null)
+		{
+			throw new Exception("checkpoints require a seed, so that a resumed run generates the same rows");
+		}
+		if(rowsPerSecond>0)
+		{
+			throw new Exception("checkpoints can not be used together with a rate");
+		}
+		ArrayList <Field> fields = getAllFields();
+		for(int j=0;j<fields.size();j++)
+		{
+			// the values generated for unique fields are not part of the checkpoint. sequences and permutations are unique anyway
+			if(fields.get(j).isUnique() && fields.get(j).getType()!=Field.TYPE_SEQUENCE && fields.get(j).getType()!=Field.TYPE_PERMUTATION)
+			{
+				throw new Exception("checkpoints can not be used for layouts with unique fields: " + getFieldDescription(fields.get(j)));
+			}
+		}
+		
+		// settings that must not change between the checkpoint and the resumed run
+		String[] keys = {"seed", "layout", "format", "fields", "shard"};
+		String[] values = {String.valueOf(seed), new File(rowlayoutFile).getAbsolutePath(), outputFormat, String.valueOf(fields.size()), shard + "/" + numberOfShards};
+		
+		Checkpoint checkpoint = new Checkpoint(new File(outputfile.trim() + Checkpoint.FILE_EXTENSION));
+		if(resume && checkpoint.exists())
+		{
+			checkpoint.load();
+			for(int i=0;i<keys.length;i++)
+			{
+				if(!values[i].equals(checkpoint.get(keys[i])))
+				{
+					throw new Exception("the checkpoint file: " + checkpoint.getFile() + " belongs to a different run. " + keys[i] + " differs: " + checkpoint.get(keys[i]));
+				}
+			}
+			for(int j=0;j<fields.size();j++)
+			{
+				fields.get(j).restoreState(checkpoint, "field." + j + ".");
+			}
+			rowNumber = checkpoint.getRows();
+			if(verbose)
+			{
+				printMessage("resuming after row: " + checkpoint.getRows());
+			}
+		}
+		else
+		{
+			for(int i=0;i<keys.length;i++)
+			{
+				checkpoint.set(keys[i], values[i]);
+			}
+		}
+		return checkpoint;
+	}
+	
+	/**
+	 * opens the output file of a checkpointed run. everything written after the checkpoint
+	 * is removed, so that the rows following the checkpoint are appended to the rows written
+	 * before it.
+	 */
+	private FileOutputStream openCheckpointedOutput(Checkpoint checkpoint) throws Exception
+	{
+		File file = new File(outputfile.trim());
+		long offset = checkpoint.getOffset();
+		if(offset>0 && file.length()<offset)
+		{
+			throw new Exception("the output file: " + file + " is shorter than the length stored in the checkpoint: " + offset);
+		}
+		FileOutputStream output = new FileOutputStream(file, offset>0);
+		output.getChannel().truncate(offset);
+		return output;
+	}
+	
+	/**
+	 * forces the rows written so far to disk and stores the number of rows, the length of
+	 * the output and the state of the fields in the checkpoint
+	 */
+	private void saveCheckpoint(Checkpoint checkpoint, FileOutputStream output, RowEncoder encoder, long numberOfRows) throws Exception
+	{
+		if(encoder!=null)
+		{
+			encoder.flush();
+		}
+		else
+		{
+			out.flush();
+		}
+		if(out.checkError())
+		{
+			throw new Exception("error writing to the output after " + numberOfRows + " rows");
+		}
+		output.getFD().sync();
+		checkpoint.setRows(numberOfRows);
+		checkpoint.setOffset(output.getChannel().position());
+		ArrayList <Field> fields = getAllFields();
+		for(int j=0;j<fields.size();j++)
+		{
+			fields.get(j).saveState(checkpoint, "field." + j + ".");
+		}
+		checkpoint.save();
+	}
+	
+	/**
+	 * checks that the rows can be generated in shards and positions the fields at the first
+	 * row of the shard. the rows are divided into shards of equal size.
+	 * 
+	 * with a seed, the random numbers of a row only depend on the seed and the number of the
+	 * row. sequences and permutations are calculated from the number of the row as well, so a
+	 * shard generates the same rows a single run generates for the same range, and the output
+	 * files of the shards can be concatenated.
+	 */
+	private void prepareShard() throws Exception
+	{
+		if(numberOfOutputLines==UNLIMITED_NUMBER_OF_ROWS)
+		{
+			throw new Exception("shards require a limited number of rows");
+		}
+		if(shard<1 || shard>numberOfShards)
+		{
+			throw new Exception("invalid shard: " + shard + "/" + numberOfShards + ". the shard must be between 1 and the number of shards");
+		}
+		checkIndependentRows("in shards");
+		
+		firstRow = getFirstRowOfShard(numberOfOutputLines, shard, numberOfShards);
+		lastRow = getFirstRowOfShard(numberOfOutputLines, shard + 1, numberOfShards);
+		moveToRow(firstRow);
+		if(verbose)
+		{
+			printMessage("generating shard " + shard + " of " + numberOfShards + ": rows " + (firstRow + 1) + " to " + lastRow);
+		}
+	}
+	
+	/**
+	 * checks that the values of a row only depend on the seed and the number of the row, so
+	 * that rows can be generated without generating the rows before them. the given text
+	 * tells how the rows are generated, for the messages of the errors.
+	 */
+	private void checkIndependentRows(String generatedHow) throws Exception
+	{
+		if(seed==null)
+		{
+			throw new Exception("rows can only be generated " + generatedHow + " with a seed");
+		}
+		ArrayList <Field> fields = getAllFields();
+		for(int j=0;j<fields.size();j++)
+		{
+			Field field = fields.get(j);
+			// sequences and permutations are unique for all rows, other unique fields only know the values generated before
+			if(field.isUnique() && field.getType()!=Field.TYPE_SEQUENCE && field.getType()!=Field.TYPE_PERMUTATION)
+			{
+				throw new Exception("unique field " + getFieldDescription(field) + " can not be generated " + generatedHow + ", because its values depend on the rows before");
+			}
+			// keys of the parent that are neither sequences nor permutations are only known from the sample of the rows generated
+			if(field.getParentField()!=null && field.getParentField().getType()!=Field.TYPE_SEQUENCE && field.getParentField().getType()!=Field.TYPE_PERMUTATION)
+			{
+				throw new Exception("foreign key field " + getFieldDescription(field) + " can not be generated " + generatedHow + ", because the keys of its parent field are sampled from the rows generated");
+			}
+			if(field.dependsOnPreviousRows())
+			{
+				throw new Exception("time series field " + getFieldDescription(field) + " can not be generated " + generatedHow + ", because its values depend on the rows before. use a fixed arrival without seasonality and a jitter of less than half the interval");
+			}
+		}
+	}
+	
+	/**
+	 * sets the number of the next row generated. sequences and time series continue at this row.
+	 */
+	private void moveToRow(long index)
+	{
+		rowNumber = index;
+		ArrayList <Field> fields = getAllFields();
+		for(int j=0;j<fields.size();j++)
+		{
+			fields.get(j).moveToRow(index);
+		}
+	}
+	
+	/**
+	 * returns the number of the first row - starting at zero - of the given shard. if the
+	 * rows can not be divided evenly, the first shards get one row more than the others.
+	 */
+	static long getFirstRowOfShard(long numberOfRows, int shard, int numberOfShards)
+	{
+		long rowsPerShard = numberOfRows / numberOfShards;
+		long remainingRows = numberOfRows % numberOfShards;
+		return (shard - 1) * rowsPerShard + Math.min(shard - 1, remainingRows);
+	}
+	
+	/**
+	 * writes the manifest of the shard next to its output file. the manifests are used to
+	 * check that the shards belong to the same dataset and are complete before they are
+	 * merged.
+	 */
+	private void writeShardManifest() throws Exception
+	{
+		File file = new File(outputfile.trim());
+		File layoutFile = new File(rowlayoutFile);
+		long shardFirstRow = getFirstRowOfShard(numberOfOutputLines, shard, numberOfShards);
+		
+		ShardManifest manifest = new ShardManifest();
+		manifest.setSeed(seed);
+		manifest.setLayout(layoutFile.getName());
+		manifest.setLayoutChecksum(ShardManifest.getChecksum(layoutFile));
+		manifest.setFormat(outputFormat);
+		manifest.setTotalRows(numberOfOutputLines);
+		manifest.setShard(shard);
+		manifest.setNumberOfShards(numberOfShards);
+		manifest.setFirstRow(shardFirstRow);
+		manifest.setNumberOfRows(getFirstRowOfShard(numberOfOutputLines, shard + 1, numberOfShards) - shardFirstRow);
+		manifest.setFile(file.getName());
+		manifest.setLength(file.length());
+		manifest.setChecksum(ShardManifest.getChecksum(file));
+		manifest.save(new File(file.getPath() + ShardManifest.FILE_EXTENSION));
+	}
+	
+	/**
+	 * returns all fields: the referenced fields, ordered by their id, followed by the
+	 * fields of the row
+	 */
+	private ArrayList <Field> getAllFields()
+	{
+		ArrayList <Field> fields = new ArrayList<Field>();
+		ArrayList <String> ids = new ArrayList<String>(referencedFields.keySet());
+		Collections.sort(ids);
+		for(int j=0;j<ids.size();j++)
+		{
+			fields.add(referencedFields.get(ids.get(j)));
+		}
+		for(int j=0;j<parser.getRow().getFields().size();j++)
+		{
+			fields.add((Field)parser.getRow().getFields().get(j));
+		}
+		return fields;
+	}
+	
+	/**
+	 * outputs only the row with the given number, the same row a run generating all rows
+	 * with the same seed outputs at this position
+	 */
+	private void generateSingleRow() throws Exception
+	{
+		if(!outputFormat.equals(OUTPUT_FORMAT_TEXT) || (outputfile!=null && outputfile.trim().toLowerCase().startsWith(JdbcOutput.JDBC_URL_PREFIX)))
+		{
+			throw new Exception("a single row can only be output as text");
+		}
+		if(outputfile!=null && !outputfile.trim().equals(""))
+		{
+			out = openOutput(outputfile.trim());
+		}
+		try
+		{
+			out.println(generateRow(singleRow - 1));
+		}
+		finally
+		{
+			if(out!=System.out)
+			{
+				out.close();
+			}
+			else
+			{
+				out.flush();
+			}
+			closeUniqueValueSets();
+		}
+	}
+	
+	/**
+	 * sets the stream to which the rows are written, if no output file is specified.
+	 * the stream is closed when the rows have been generated, unless it is System.out.
+	 */
+	public void setOutput(PrintStream out)
+	{
+		this.out = out;
+	}
+	
+	/**
+	 * sets the stream to which the rows are written, if no output file is specified.
+	 * the stream is closed when the rows have been generated.
+	 */
+	public void setOutput(OutputStream out) throws Exception
+	{
+		this.out = new PrintStream(new BufferedOutputStream(out, 65536), false, "UTF-8");
+	}
+	
+	/**
+	 * outputs a message of the verbose mode, if there is a stream for the messages
+	 */
+	private void printMessage(String message)
+	{
+		if(messages!=null)
+		{
+			messages.println(message);
+		}
+	}
+	
+	/**
+	 * outputs the statistics of the run, if there is a stream for the statistics
+	 */
+	private void printStatistics(String text)
+	{
+		if(statistics!=null)
+		{
+			statistics.println(text);
+		}
+	}
+	
+	/**
+	 * outputs an error that is not thrown, such as the error of a single request of the
+	 * server. it goes to the stream of the statistics, which is the standard error stream
+	 * by default.
+	 */
+	void printError(String message)
+	{
+		if(statistics!=null)
+		{
+			statistics.println(message);
+		}
+	}
+	
+	/**
+	 * opens the output file. a named pipe is opened like a regular file. an output file
+	 * of the form tcp://host:port opens a connection to the given socket.
+	 */
+	private PrintStream openOutput(String outputfile) throws Exception
+	{
+		if(outputfile.toLowerCase().startsWith(TCP_OUTPUT_PREFIX))
+		{
+			String address = outputfile.substring(TCP_OUTPUT_PREFIX.length());
+			int posSeparator = address.lastIndexOf(":");
+			if(posSeparator<1)
+			{
+				throw new Exception("invalid tcp output: " + outputfile + ". use tcp://host:port");
+			}
+			String host = address.substring(0,posSeparator);
+			int port;
+			try
+			{
+				port = Integer.parseInt(address.substring(posSeparator+1));
+			}
+			catch(NumberFormatException nfe)
+			{
+				throw new Exception("invalid port of tcp output: " + outputfile);
+			}
+			Socket socket = new Socket(host, port);
+			socket.setTcpNoDelay(true);
+			return new PrintStream(new BufferedOutputStream(socket.getOutputStream(), 65536));
+		}
+		return new PrintStream(new FileOutputStream(new File(outputfile)));
+	}
+	
+	/**
+	 * generates the rows and inserts them into the table of the database given by the
+	 * jdbc url of the output file. the output fields of the row are inserted into the
+	 * columns given by their column attribute. if no field has a column attribute, the
+	 * fields are inserted into the columns of the table in their order.
+	 * 
+	 * the table is the one specified or - if none is specified - the name of the layout.
+	 * the number of rows inserted per second and the percentiles of the time needed to
+	 * insert a batch are reported to system.err.
+	 */
+	private void generateRowsToDatabase() throws Exception
+	{
+		ArrayList <Field> columns = getOutputFields();
+		String tableName = getTableName();
+		
+		JdbcOutput output = new JdbcOutput(outputfile.trim(), jdbcUser, jdbcPassword, batchSize, commitInterval, numberOfConnections);
+		output.open(tableName, getColumnNames(columns), columns.size());
+		try
+		{
+			long counter=0;
+			for(long i=firstRow;lastRow==UNLIMITED_NUMBER_OF_ROWS || i<lastRow;i++)
+			{
+				generateFieldValues();
+				Object[] values = new Object[columns.size()];
+				for(int j=0;j<values.length;j++)
+				{
+					values[j] = getColumnValue(columns.get(j));
+				}
+				output.write(values);
+				
+				counter++;
+				if(verbose && counter==processedLinesOutputInterval)
+				{
+					printMessage("generated lines: " + (i+1));
+					counter=0;
+				}
+			}
+		}
+		catch(Exception e)
+		{
+			// the error of generating the rows is reported, not a following error of the database
+			try
+			{
+				output.close();
+			}
+			catch(Exception ce)
+			{
+			}
+			throw e;
+		}
+		output.close();
+		printDatabaseStatistics(tableName, output);
+	}
+	
+	/**
+	 * returns the fields of the row that are output
+	 */
+	private ArrayList <Field> getOutputFields()
+	{
+		ArrayList <Field> columns = new ArrayList<Field>();
+		for(int j=0;j<parser.getRow().getFields().size();j++)
+		{
+			Field field = (Field)parser.getRow().getFields().get(j);
+			if(field.getOutput())
+			{
+				columns.add(field);
+			}
+		}
+		return columns;
+	}
+	
+	/**
+	 * returns the table the rows are inserted into: the one specified or - if none is
+	 * specified - the name of the layout
+	 */
+	private String getTableName() throws Exception
+	{
+		String tableName = table!=null ? table : getLayoutName();
+		if(tableName==null)
+		{
+			throw new Exception("no table specified for the output of layout: " + rowlayoutFile + ". use argument [-table] or the name attribute of the row");
+		}
+		return tableName;
+	}
+	
+	/**
+	 * generates the rows and writes them in the binary format of the postgresql copy
+	 * command or as sql insert statements. the values of the fields are written directly
+	 * as bytes to the output, without building a string for the row.
+	 */
+	private void generateRowsEncoded(Checkpoint checkpoint, FileOutputStream checkpointedOutput) throws Exception
+	{
+		ArrayList <Field> columns = getOutputFields();
+		RowEncoder encoder;
+		if(outputFormat.equals(OUTPUT_FORMAT_POSTGRES_COPY))
+		{
+			encoder = new PostgresCopyEncoder(out);
+		}
+		else if(outputFormat.equals(OUTPUT_FORMAT_SQL))
+		{
+			encoder = new SqlInsertEncoder(out, getTableName(), getColumnNames(columns), batchSize);
+		}
+		else
+		{
+			throw new Exception("unknown output format: " + outputFormat + ". use: " + OUTPUT_FORMAT_TEXT + ", " + OUTPUT_FORMAT_POSTGRES_COPY + " or " + OUTPUT_FORMAT_SQL);
+		}
+		
+		// a resumed run or a shard continues the output written before
+		if(firstRow>0)
+		{
+			encoder.resume(firstRow);
+		}
+		else
+		{
+			encoder.writeStart();
+		}
+		long counter=0;
+		for(long i=firstRow;lastRow==UNLIMITED_NUMBER_OF_ROWS || i<lastRow;i++)
+		{
+			generateFieldValues();
+			if(dataFormat!=0)
+			{
+				// the text values are converted to lowercase or uppercase
+				for(int j=0;j<columns.size();j++)
+				{
+					if(!columns.get(j).getNumericValueGenerated())
+					{
+						columns.get(j).setValue(format(columns.get(j).getValue()));
+					}
+				}
+			}
+			encoder.writeRow(columns);
+			
+			counter++;
+			if(verbose && counter==processedLinesOutputInterval)
+			{
+				printMessage("generated lines: " + (i+1));
+				counter=0;
+			}
+			if(checkpointInterval>0 && (i+1) % checkpointInterval==0)
+			{
+				saveCheckpoint(checkpoint, checkpointedOutput, encoder, i+1);
+			}
+			if((i & 0x3ff)==0x3ff && out.checkError())
+			{
+				if(numberOfOutputLines!=UNLIMITED_NUMBER_OF_ROWS)
+				{
+					throw new Exception("error writing to the output after " + (i+1) + " rows");
+				}
+				// the reader of an unlimited number of rows has gone away
+				return;
+			}
+		}
+		if(lastRow==numberOfOutputLines)
+		{
+			encoder.writeEnd();
+		}
+		else
+		{
+			// the output is continued by the next shard
+			encoder.flush();
+		}
+	}
+	
+	/**
+	 * returns the names of the columns of the given fields or null if no field has a
+	 * column attribute
+	 */
+	private static String[] getColumnNames(ArrayList <Field> columns) throws Exception
+	{
+		String[] columnNames = new String[columns.size()];
+		int numberOfColumnNames = 0;
+		for(int j=0;j<columns.size();j++)
+		{
+			columnNames[j] = columns.get(j).getColumn();
+			if(columnNames[j]!=null)
+			{
+				numberOfColumnNames++;
+			}
+		}
+		if(numberOfColumnNames==0)
+		{
+			return null;
+		}
+		for(int j=0;j<columns.size();j++)
+		{
+			if(columnNames[j]==null)
+			{
+				throw new Exception("missing column attribute for field " + getFieldDescription(columns.get(j)) + ". specify the column of all fields that are output or of none");
+			}
+		}
+		return columnNames;
+	}
+	
+	/**
+	 * returns the value of the field that is inserted into the database. numbers are
+	 * returned as long values or - for decimal fields - as big decimal values.
+	 */
+	private Object getColumnValue(Field field)
+	{
+		if(field.getNumericValueGenerated())
+		{
+			if(field.getType()==Field.TYPE_DECIMAL)
+			{
+				return BigDecimal.valueOf(field.getNumericValue(), field.getScale());
+			}
+			return Long.valueOf(field.getNumericValue());
+		}
+		return format(field.getValue());
+	}
+	
+	/**
+	 * outputs the number of rows inserted into the database, the number of rows per second
+	 * and the percentiles of the time needed to insert a batch of rows
+	 */
+	private void printDatabaseStatistics(String tableName, JdbcOutput output)
+	{
+		LatencyHistogram latencies = output.getLatencies();
+		StringBuilder buffer = new StringBuilder();
+		buffer.append("table: ").append(tableName);
+		buffer.append(" - rows: ").append(output.getNumberOfRows());
+		buffer.append(", connections: ").append(numberOfConnections);
+		buffer.append(", rate: ").append(String.format("%.1f", output.getRowsPerSecond())).append(" rows/s");
+		buffer.append(", batch insert latency in microseconds - batches: ").append(latencies.getCount());
+		buffer.append(", mean: ").append(String.format("%.1f", latencies.getMean() / 1000));
+		buffer.append(", p50: ").append(latencies.getPercentile(50) / 1000);
+		buffer.append(", p90: ").append(latencies.getPercentile(90) / 1000);
+		buffer.append(", p99: ").append(latencies.getPercentile(99) / 1000);
+		buffer.append(", max: ").append(latencies.getMaximum() / 1000);
+		printStatistics(buffer.toString());
+	}
+	
+	/**
+	 * generates the rows at the given number of rows per second.
+	 * 
+	 * the rows are generated and written in batches. each batch is generated before the
+	 * rate limiter is asked for permission to write it, so only the writing happens at
+	 * the scheduled time. the time needed to write and flush each batch is recorded.
+	 * 
+	 * the achieved and the target rate and the percentiles of the write latency are reported
+	 * to system.err at the end, when the program is stopped and - in verbose mode - every
+	 * ten seconds. if the number of rows is unlimited, the rows are generated until the
+	 * program is stopped or the reader of the output goes away.
+	 */
+	private void generateRowsAtRate() throws Exception
+	{
+		final RateLimiter rateLimiter = new RateLimiter(rowsPerSecond, rampDuration!=null ? Utility.parseDuration(rampDuration) : 0);
+		final LatencyHistogram latencies = new LatencyHistogram();
+		
+		// report the rate if the program is stopped
+		Thread shutdownHook = new Thread()
+		{
+			public void run()
+			{
+				printRateStatistics(rateLimiter, latencies);
+			}
+		};
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+		
+		StringBuilder batch = new StringBuilder();
+		String lineSeparator = System.lineSeparator();
+		long nextReportTime = System.nanoTime() + RATE_REPORT_INTERVAL;
+		long i=firstRow;
+		while(lastRow==UNLIMITED_NUMBER_OF_ROWS || i<lastRow)
+		{
+			int batchSize = rateLimiter.getBatchSize();
+			if(lastRow!=UNLIMITED_NUMBER_OF_ROWS && lastRow - i<batchSize)
+			{
+				batchSize = (int)(lastRow - i);
+			}
+			batch.setLength(0);
+			for(int j=0;j<batchSize;j++)
+			{
+				batch.append(generateRow()).append(lineSeparator);
+			}
+			
+			rateLimiter.acquire(batchSize);
+			long start = System.nanoTime();
+			out.print(batch);
+			out.flush();
+			latencies.record(System.nanoTime() - start);
+			i+= batchSize;
+			
+			if(out.checkError())
+			{
+				if(numberOfOutputLines!=UNLIMITED_NUMBER_OF_ROWS)
+				{
+					Runtime.getRuntime().removeShutdownHook(shutdownHook);
+					throw new Exception("error writing to the output after " + i + " rows");
+				}
+				// the reader of an unlimited number of rows has gone away
+				break;
+			}
+			if(verbose && System.nanoTime() - nextReportTime>=0)
+			{
+				printRateStatistics(rateLimiter, latencies);
+				nextReportTime += RATE_REPORT_INTERVAL;
+			}
+		}
+		Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		printRateStatistics(rateLimiter, latencies);
+	}
+	
+	/**
+	 * outputs the number of rows written, the achieved and target rate and the percentiles
+	 * of the time needed to write a batch of rows. the output goes to system.err, because
+	 * the rows may be written to system.out.
+	 */
+	private void printRateStatistics(RateLimiter rateLimiter, LatencyHistogram latencies)
+	{
+		double seconds = rateLimiter.getElapsedNanoseconds() / 1e9;
+		double achievedRate = seconds>0 ? rateLimiter.getNumberOfRows() / seconds : 0;
+		StringBuilder buffer = new StringBuilder();
+		if(rowlayoutFile!=null)
+		{
+			buffer.append("layout: ").append(rowlayoutFile).append(" - ");
+		}
+		buffer.append("rows: ").append(rateLimiter.getNumberOfRows());
+		buffer.append(", seconds: ").append(String.format("%.1f", seconds));
+		buffer.append(", target rate: ").append(String.format("%.1f", rateLimiter.getRowsPerSecond())).append(" rows/s");
+		if(rateLimiter.getScheduledRate()<rateLimiter.getRowsPerSecond())
+		{
+			buffer.append(" (").append(String.format("%.1f", rateLimiter.getScheduledRate())).append(" rows/s on average including the ramp)");
+		}
+		buffer.append(", achieved rate: ").append(String.format("%.1f", achievedRate)).append(" rows/s");
+		buffer.append(", write latency in microseconds - batches: ").append(latencies.getCount());
+		buffer.append(", mean: ").append(String.format("%.1f", latencies.getMean() / 1000));
+		buffer.append(", p50: ").append(latencies.getPercentile(50) / 1000);
+		buffer.append(", p90: ").append(latencies.getPercentile(90) / 1000);
+		buffer.append(", p99: ").append(latencies.getPercentile(99) / 1000);
+		buffer.append(", p99.9: ").append(latencies.getPercentile(99.9) / 1000);
+		buffer.append(", max: ").append(latencies.getMaximum() / 1000);
+		printStatistics(buffer.toString());
+	}
+	
+	/**
+	 * outputs how often the formatted day of the datetime fields was found in the cache
+	 */
+	private void printDateCacheStatistics()
+	{
+		ArrayList <Field> fields = new ArrayList<Field>(referencedFields.values());
+		fields.addAll(parser.getRow().getFields());
+		for(int i=0;i<fields.size();i++)
+		{
+			Field field = fields.get(i);
+			if(field.getDateFormat()!=null && field.getDateFormat().getCacheHitRate()>=0)
+			{
+				CompiledDateFormat dateFormat = field.getDateFormat();
+				printMessage("date cache of datetime field " + getFieldDescription(field) + " - hits: " + dateFormat.getCacheHits() + ", misses: " + dateFormat.getCacheMisses() + ", hit rate: " + String.format("%.1f", dateFormat.getCacheHitRate()) + "%");
+			}
+		}
+	}
+	
+	/**
+	 * prepares all fields of the layout for generating rows. if a seed is set, each field
+	 * gets its own generator of random numbers, derived from the seed and the position or
+	 * id of the field, so that the same seed produces the same rows.
+	 * 
+	 * when a parsed layout is used again, this method is called again. it restarts the
+	 * sequences and time series and clears the values generated for unique fields.
+	 */
+	void prepareFields() throws Exception
+	{
+		rowNumber = 0;
+		Iterator <String>iter = referencedFields.keySet().iterator();
+		while(iter.hasNext())
+		{
+			Field field = referencedFields.get(iter.next());
+			if(seed!=null)
+			{
+				field.setRandom(new RandomSource(RandomSource.mix(seed ^ UniqueValueSet.hash(field.getId()))));
+				field.setRowSeed(RandomSource.mix(seed ^ UniqueValueSet.hash(field.getId())));
+			}
+			else
+			{
+				// a layout prepared again without a seed must not repeat the rows of a seeded run
+				field.setRandom(new RandomSource());
+				field.setRowSeed(null);
+			}
+			prepareField(field);
+		}
+		for(int j=0;j<parser.getRow().getFields().size();j++)
+		{
+			Field field = (Field)parser.getRow().getFields().get(j);
+			if(seed!=null)
+			{
+				field.setRandom(new RandomSource(RandomSource.mix(seed + j)));
+				field.setRowSeed(RandomSource.mix(seed + j));
+			}
+			else
+			{
+				field.setRandom(new RandomSource());
+				field.setRowSeed(null);
+			}
+			prepareField(field);
+		}
+		liveRowFields = null;
+		// the constant parts of fixed length rows are prepared once
+		parser.getRow().compileTemplate();
+	}
+	
+	/**
+	 * determines the fields that are generated for each row. fields of the row that are not
+	 * output are not generated, as no other field can reference them. referenced fields are
+	 * only prepared for a row if a field that is generated or a key of the layout - used by
+	 * other layouts - references them, directly or through other referenced fields. they are
+	 * generated once per row, when they are first used.
+	 */
+	private void prepareLiveFields() throws Exception
+	{
+		ArrayList <Field> rowFields = new ArrayList<Field>();
+		ArrayList <Field> keys = new ArrayList<Field>();
+		HashSet <String> usedIds = new HashSet<String>();
+		for(int j=0;j<parser.getRow().getFields().size();j++)
+		{
+			Field field = (Field)parser.getRow().getFields().get(j);
+			if(field.getOutput())
+			{
+				rowFields.add(field);
+				markReferencedFields(field, usedIds);
+			}
+		}
+		for(Field field : referencedFields.values())
+		{
+			if(field.getKeyReservoir()!=null)
+			{
+				keys.add(field);
+				usedIds.add(field.getId());
+				markReferencedFields(field, usedIds);
+			}
+		}
+		ArrayList <Field> referenced = new ArrayList<Field>();
+		for(Field field : referencedFields.values())
+		{
+			if(usedIds.contains(field.getId()))
+			{
+				referenced.add(field);
+			}
+		}
+		liveRowFields = rowFields.toArray(new Field[rowFields.size()]);
+		liveReferencedFields = referenced.toArray(new Field[referenced.size()]);
+		keyFields = keys.toArray(new Field[keys.size()]);
+		compiledRowFields = compiled ? compileRowFields(liveRowFields) : null;
+		
+		int numberOfRowFields = parser.getRow().getFields().size();
+		if(verbose && (liveRowFields.length<numberOfRowFields || liveReferencedFields.length<referencedFields.size()))
+		{
+			printMessage("fields not generated because they do not affect the output: " + (numberOfRowFields - liveRowFields.length) + " of " + numberOfRowFields + " fields of the row, " + (referencedFields.size() - liveReferencedFields.length) + " of " + referencedFields.size() + " referenced fields");
+		}
+	}
+	
+	/**
+	 * adds the ids of the fields the given field references or has as condition to the
+	 * set, including the fields these reference in turn
+	 */
+	private void markReferencedFields(Field field, HashSet <String> usedIds)
+	{
+		markReferencedFields(field.getReferenceSegmentFields(), usedIds);
+		markReferencedFields(field.getConditionFields(), usedIds);
+	}
+	
+	private void markReferencedFields(Field[] fields, HashSet <String> usedIds)
+	{
+		if(fields==null)
+		{
+			return;
+		}
+		for(Field referencedField : fields)
+		{
+			if(referencedField!=null && usedIds.add(referencedField.getId()))
+			{
+				markReferencedFields(referencedField, usedIds);
+			}
+		}
+	}
+	
+	/**
+	 * composes a method handle that starts the given fields and generates their values, one
+	 * field after the other in the given order.<br />
+	 * <br />
+	 * each field is bound to the method generating its value - determined by its generator -
+	 * together with the category or the range of dates it uses, so that no switch over the
+	 * generator is needed per field. the handle is the same for every row, so the jvm compiles
+	 * it into straight-line code for the layout. fields that are unique, are keys of other
+	 * layouts, reference other fields or have a condition are generated as in the interpreted
+	 * mode.
+	 */
+	private MethodHandle compileRowFields(Field[] fields) throws Exception
+	{
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		MethodHandle startRow = lookup.findVirtual(Field.class, "startRow", MethodType.methodType(void.class, long.class));
+		MethodHandle rowFields = lookup.findStatic(DataCreator.class, "generateNoField", MethodType.methodType(void.class, long.class));
+		for(int j=fields.length-1;j>=0;j--)
+		{
+			// start the field, generate its value, then the following fields
+			rowFields = MethodHandles.foldArguments(rowFields, compileField(lookup, fields[j]));
+			rowFields = MethodHandles.foldArguments(rowFields, startRow.bindTo(fields[j]));
+		}
+		return rowFields;
+	}
+	
+	/**
+	 * returns a method handle generating the value of the field. it takes the number of the row.
+	 */
+	private MethodHandle compileField(MethodHandles.Lookup lookup, Field field) throws Exception
+	{
+		MethodType noArguments = MethodType.methodType(void.class);
+		if(field.getUniqueValues()!=null || field.getKeyReservoir()!=null)
+		{
+			MethodHandle fieldValue = lookup.findVirtual(DataCreator.class, "generateFieldValue", MethodType.methodType(void.class, Field.class));
+			return MethodHandles.dropArguments(MethodHandles.insertArguments(fieldValue, 0, this, field), 0, long.class);
+		}
+		switch(field.getGenerator())
+		{
+			case GENERATOR_CONSTANT:
+				return lookup.findStatic(DataCreator.class, "generateNoField", MethodType.methodType(void.class, long.class));
+			case GENERATOR_CATEGORY:
+				MethodHandle categoryValue = lookup.findVirtual(Field.class, "generateCategoryValue", MethodType.methodType(void.class, Category.class));
+				return MethodHandles.dropArguments(MethodHandles.insertArguments(categoryValue, 0, field, getCategoryWords(field)), 0, long.class);
+			case GENERATOR_CATEGORY_PERMUTATION:
+				MethodHandle permutationValue = lookup.findVirtual(Field.class, "generateCategoryPermutationValue", MethodType.methodType(void.class, Category.class, long.class));
+				return MethodHandles.insertArguments(permutationValue, 0, field, getCategoryWords(field));
+			case GENERATOR_POOL:
+				return MethodHandles.dropArguments(lookup.findVirtual(Field.class, "generatePoolValue", noArguments).bindTo(field), 0, long.class);
+			case GENERATOR_REGEX:
+				return MethodHandles.dropArguments(lookup.findVirtual(Field.class, "generateRegularExpressionValue", noArguments).bindTo(field), 0, long.class);
+			case GENERATOR_RANDOM:
+				return MethodHandles.dropArguments(lookup.findVirtual(Field.class, "generateRandomValue", noArguments).bindTo(field), 0, long.class);
+			case GENERATOR_SEQUENCE:
+				return MethodHandles.dropArguments(lookup.findVirtual(Field.class, "generateSequenceValue", noArguments).bindTo(field), 0, long.class);
+			case GENERATOR_PERMUTATION:
+				return lookup.findVirtual(Field.class, "generatePermutationValue", MethodType.methodType(void.class, long.class)).bindTo(field);
+			case GENERATOR_FOREIGNKEY:
+				return MethodHandles.dropArguments(lookup.findVirtual(Field.class, "generateForeignKeyValue", noArguments).bindTo(field), 0, long.class);
+			case GENERATOR_NUMBER:
+				return MethodHandles.dropArguments(lookup.findVirtual(Field.class, "generateNumberValue", noArguments).bindTo(field), 0, long.class);
+			case GENERATOR_DATETIME:
+				// generate the date, then set the value to the formatted date
+				MethodHandle dateTimeValue = lookup.findVirtual(Field.class, "generateDateTimeValue", MethodType.methodType(void.class, long.class, long.class));
+				MethodHandle formatValue = lookup.findVirtual(Field.class, "formatDateTimeValue", MethodType.methodType(String.class)).bindTo(field);
+				MethodHandle setValue = lookup.findVirtual(Field.class, "setValue", MethodType.methodType(void.class, String.class)).bindTo(field);
+				MethodHandle dateTime = MethodHandles.foldArguments(MethodHandles.filterReturnValue(formatValue, setValue), MethodHandles.insertArguments(dateTimeValue, 0, field, minMilliSeconds, maxMilliSeconds));
+				return MethodHandles.dropArguments(dateTime, 0, long.class);
+			default:
+				// references and conditions
+				MethodHandle value = lookup.findVirtual(DataCreator.class, "generateValue", MethodType.methodType(void.class, Field.class));
+				return MethodHandles.dropArguments(MethodHandles.insertArguments(value, 0, this, field), 0, long.class);
+		}
+	}
+	
+	/**
+	 * does nothing. ends the method handle generating the fields of a row in the compiled mode.
+	 */
+	private static void generateNoField(long rowNumber)
+	{
+	}
+	
+	/**
+	 * generates the fields of the row using the method handle composed for the layout
+	 */
+	private void generateCompiledRowFields() throws Exception
+	{
+		try
+		{
+			compiledRowFields.invokeExact(rowNumber);
+		}
+		catch(Exception e)
+		{
+			throw e;
+		}
+		catch(Error e)
+		{
+			throw e;
+		}
+		catch(Throwable t)
+		{
+			throw new Exception(t);
+		}
+	}
+	
+	/**
+	 * sequence fields get the allocator for their positions and unique fields
+	 * get the set of values generated so far
+	 */
+	private void prepareField(Field field) throws Exception
+	{
+		field.setPossibleCharacters(possibleCharacters);
+		if(field.getReference()!=null)
+		{
+			prepareReference(field);
+		}
+		if(field.getDistribution()!=null)
+		{
+			checkDistribution(field);
+		}
+		if(field.getSampling()!=null)
+		{
+			prepareSampling(field);
+		}
+		if(field.getCondition()!=null)
+		{
+			prepareCondition(field);
+		}
+		if(field.getType()==Field.TYPE_SEQUENCE)
+		{
+			field.setSequenceAllocator(new SequenceAllocator());
+		}
+		else if(field.getType()==Field.TYPE_PERMUTATION)
+		{
+			preparePermutationField(field);
+		}
+		else if(field.getType()==Field.TYPE_INTEGER || field.getType()==Field.TYPE_LONG || field.getType()==Field.TYPE_DECIMAL)
+		{
+			prepareNumberField(field);
+		}
+		else if(field.getType()==Field.TYPE_DATETIME && field.getInterval()!=null)
+		{
+			prepareTimeSeriesField(field);
+		}
+		else if(field.getType()==Field.TYPE_REGEX && field.getRegularExpression()==null)
+		{
+			try
+			{
+				field.setRegularExpression(new RegularExpressionAutomaton(field.getPattern(), field.getLength()));
+			}
+			catch(Exception ex)
+			{
+				throw new Exception("field " + getFieldDescription(field) + ": " + ex.getMessage());
+			}
+		}
+		prepareUniqueField(field);
+		prepareGenerator(field);
+	}
+	
+	/**
+	 * checks that the distribution of the field is known and that it can be used
+	 * for the type of the field
+	 */
+	private void checkDistribution(Field field) throws Exception
+	{
+		if(!Distribution.isValid(field.getDistribution()))
+		{
+			throw new Exception("unknown distribution of field " + getFieldDescription(field) + ": " + field.getDistribution() + ". use: " + Distribution.UNIFORM + ", " + Distribution.ZIPF + ", " + Distribution.NORMAL + " or " + Distribution.EXPONENTIAL);
+		}
+		int type = field.getType();
+		if(type!=Field.TYPE_CATEGORY && type!=Field.TYPE_INTEGER && type!=Field.TYPE_LONG && type!=Field.TYPE_DECIMAL && type!=Field.TYPE_DATETIME)
+		{
+			throw new Exception("the distribution attribute can only be used for category, numeric and datetime fields: " + getFieldDescription(field));
+		}
+		if(field.getDistributionParameter()!=null && !(field.getDistributionParameter()>0))
+		{
+			throw new Exception("the parameter of the distribution of field " + getFieldDescription(field) + " must be greater than zero");
+		}
+	}
+	
+	/**
+	 * converts the attributes of a datetime field with an interval into the values of
+	 * the time series. the series starts at the minimum date if no start is specified.
+	 */
+	private void prepareTimeSeriesField(Field field) throws Exception
+	{
+		if(field.getReference()!=null)
+		{
+			throw new Exception("the interval attribute can not be used for datetime field referencing other fields: " + getFieldDescription(field));
+		}
+		try
+		{
+			long start = field.getTimeSeriesStart()!=null ? Utility.parseDateTime(field.getTimeSeriesStart()) : minMilliSeconds;
+			double interval = Utility.parseDuration(field.getInterval());
+			long jitter = field.getJitter()!=null ? (long)Utility.parseDuration(field.getJitter()) : 0;
+			if(field.getArrival()!=null && !field.getArrival().equals(Field.ARRIVAL_FIXED) && !field.getArrival().equals(Field.ARRIVAL_RANDOM))
+			{
+				throw new Exception("invalid arrival: " + field.getArrival() + ". use: " + Field.ARRIVAL_FIXED + " or " + Field.ARRIVAL_RANDOM);
+			}
+			if(field.getSeasonality()<0 || field.getSeasonality()>=1)
+			{
+				throw new Exception("the seasonality must be at least 0 and less than 1");
+			}
+			field.setTimeSeries(start, interval, Field.ARRIVAL_RANDOM.equals(field.getArrival()), jitter);
+		}
+		catch(Exception ex)
+		{
+			throw new Exception("time series field " + getFieldDescription(field) + ": " + ex.getMessage());
+		}
+	}
+	
+	/**
+	 * converts the minimum and maximum of a numeric field into the range of the generated
+	 * numbers. values of decimal fields are multiplied by ten to the power of the scale, so
+	 * that they can be generated and formatted as long values.
+	 */
+	private void prepareNumberField(Field field) throws Exception
+	{
+		long upperLimit = field.getType()==Field.TYPE_INTEGER ? Integer.MAX_VALUE : Long.MAX_VALUE;
+		long lowerLimit = field.getType()==Field.TYPE_INTEGER ? Integer.MIN_VALUE : Long.MIN_VALUE;
+		int scale = 0;
+		if(field.getType()==Field.TYPE_DECIMAL)
+		{
+			if(field.getScale()==-1)
+			{
+				field.setScale(Field.DEFAULT_DECIMAL_SCALE);
+			}
+			scale = field.getScale();
+			if(scale<0 || scale>18)
+			{
+				throw new Exception("the scale of decimal field " + getFieldDescription(field) + " must be between 0 and 18");
+			}
+		}
+		long minimum;
+		long maximum;
+		try
+		{
+			minimum = field.getMinimum()!=null ? new BigDecimal(field.getMinimum().trim()).setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0;
+			maximum = field.getMaximum()!=null ? new BigDecimal(field.getMaximum().trim()).setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact() : upperLimit;
+		}
+		catch(NumberFormatException nfe)
+		{
+			throw new Exception("invalid min or max attribute for numeric field " + getFieldDescription(field) + ": " + nfe.getMessage());
+		}
+		catch(ArithmeticException ae)
+		{
+			throw new Exception("the min or max attribute of numeric field " + getFieldDescription(field) + " is too large");
+		}
+		if(minimum<lowerLimit || maximum>upperLimit)
+		{
+			throw new Exception("the min or max attribute of numeric field " + getFieldDescription(field) + " is outside the range of the type");
+		}
+		if(maximum<minimum)
+		{
+			throw new Exception("the max attribute of numeric field " + getFieldDescription(field) + " is smaller than the min attribute");
+		}
+		field.setNumericRange(minimum, maximum);
+	}
+	
+	/**
+	 * determines the domain of a permutation field - either from its domain attribute
+	 * or from the characters and length of its pattern - and creates the permutation.
+	 * an error is reported if the domain has less values than the number of rows.
+	 */
+	private void preparePermutationField(Field field) throws Exception
+	{
+		long domain = field.getDomain();
+		String characters = null;
+		int valueLength = 0;
+		if(field.getPattern()!=null)
+		{
+			RegularExpressionDataGenerator generator = new RegularExpressionDataGenerator();
+			characters = generator.getSingleGroupCharacters(field.getPattern());
+			valueLength = generator.getSingleGroupLength(field.getPattern());
+			if(characters==null || characters.length()==0 || valueLength<1)
+			{
+				throw new Exception("the pattern of permutation field " + getFieldDescription(field) + " must consist of one group with a fixed multiplier, such as [A-Z0-9]{8}");
+			}
+			domain = RegularExpressionDataGenerator.powerSaturated(characters.length(), valueLength);
+			if(domain==Long.MAX_VALUE)
+			{
+				throw new Exception("the pattern of permutation field " + getFieldDescription(field) + " allows too many different values. use less characters or a shorter length");
+			}
+		}
+		if(domain<getMaximumNumberOfRows())
+		{
+			throw new Exception("permutation field " + getFieldDescription(field) + " has only " + domain + " different values for " + getNumberOfRowsDescription() + " rows");
+		}
+		// without a key, the key is taken from the generator of the field, so it follows the seed
+		long key = field.getKey()!=null ? field.getKey() : field.getRandom().nextLong();
+		field.setPermutation(new FeistelPermutation(domain, key), characters, valueLength);
+	}
+	
+	/**
+	 * checks the sampling of a category field. with permutation sampling, the permutations
+	 * of the words are derived from the key of the field or - without a key - from the
+	 * generator of the field, so they follow the seed.
+	 */
+	private void prepareSampling(Field field) throws Exception
+	{
+		if(!field.getSampling().equals(Field.SAMPLING_RANDOM) && !field.getSampling().equals(Field.SAMPLING_PERMUTATION))
+		{
+			throw new Exception("unknown sampling of field " + getFieldDescription(field) + ": " + field.getSampling() + ". use: " + Field.SAMPLING_RANDOM + " or " + Field.SAMPLING_PERMUTATION);
+		}
+		if(field.getType()!=Field.TYPE_CATEGORY)
+		{
+			throw new Exception("the sampling attribute can only be used for category fields: " + getFieldDescription(field));
+		}
+		if(field.getSampling().equals(Field.SAMPLING_PERMUTATION))
+		{
+			if(field.getDistribution()!=null)
+			{
+				throw new Exception("the attributes sampling=\"" + Field.SAMPLING_PERMUTATION + "\" and distribution can not be used together: " + getFieldDescription(field));
+			}
+			field.setSamplingKey(field.getKey()!=null ? field.getKey() : field.getRandom().nextLong());
+		}
+	}
+	
+	/**
+	 * looks up the referenced fields of the condition of a category field. their values
+	 * are the keys of the words the field picks from.
+	 */
+	private void prepareCondition(Field field) throws Exception
+	{
+		if(field.getType()!=Field.TYPE_CATEGORY)
+		{
+			throw new Exception("the condition attribute can only be used for category fields: " + getFieldDescription(field));
+		}
+		if(Field.SAMPLING_PERMUTATION.equals(field.getSampling()))
+		{
+			throw new Exception("the attributes sampling=\"" + Field.SAMPLING_PERMUTATION + "\" and condition can not be used together: " + getFieldDescription(field));
+		}
+		String [] ids = field.getCondition().split("/");
+		Field [] conditionFields = new Field[ids.length];
+		for(int i=0;i<ids.length;i++)
+		{
+			conditionFields[i] = referencedFields.get(ids[i]);
+			if(conditionFields[i]==null)
+			{
+				throw new Exception("the condition of field " + getFieldDescription(field) + " references the field [" + ids[i] + "], which is not defined in the references");
+			}
+		}
+		field.setConditionFields(conditionFields);
+	}
+	
+	/**
+	 * returns the key of the words a category field with a condition picks from: the
+	 * value of the field of the condition or - for multiple fields - their values
+	 * separated by vertical bars
+	 */
+	private String getConditionValue(Field field) throws Exception
+	{
+		Field [] conditionFields = field.getConditionFields();
+		for(int i=0;i<conditionFields.length;i++)
+		{
+			if(conditionFields[i].getValueGenerated()==false)
+			{
+				generateFieldValue(conditionFields[i]);
+				conditionFields[i].setValueGenerated(true);
+			}
+		}
+		if(conditionFields.length==1)
+		{
+			return conditionFields[0].getValue();
+		}
+		StringBuilder key = new StringBuilder();
+		for(int i=0;i<conditionFields.length;i++)
+		{
+			if(i>0)
+			{
+				key.append(Category.KEY_SEPARATOR);
+			}
+			key.append(conditionFields[i].getValue());
+		}
+		return key.toString();
+	}
+	
+	/**
+	 * if the field is unique, checks that enough different values can be generated
+	 * for the requested number of rows and creates the set that is used to keep track
+	 * of the values generated so far.<br />
+	 * <br />
+	 * a value that was generated before is generated again. when most of the possible values
+	 * have been used, the last rows need many attempts. the number of rows is therefore also
+	 * rejected if the last row needs more than MAXIMUM_EXPECTED_UNIQUE_VALUE_ATTEMPTS attempts
+	 * on average.
+	 */
+	private void prepareUniqueField(Field field) throws Exception
+	{
+		if(field.isUnique())
+		{
+			long numberOfPossibleValues = getNumberOfPossibleValues(field);
+			long maximumNumberOfRows = getMaximumNumberOfRows();
+			if(numberOfPossibleValues<maximumNumberOfRows)
+			{
+				throw new Exception("field " + getFieldDescription(field) + " is defined as unique, but only " + numberOfPossibleValues + " different values can be generated for " + getNumberOfRowsDescription() + " rows");
+			}
+			// the maximum value of a long stands for more values than can be counted, which are not used up
+			double expectedAttempts = (double)numberOfPossibleValues / ((double)numberOfPossibleValues - maximumNumberOfRows + 1);
+			if(numberOfPossibleValues!=Long.MAX_VALUE && expectedAttempts>MAXIMUM_EXPECTED_UNIQUE_VALUE_ATTEMPTS)
+			{
+				throw new Exception("field " + getFieldDescription(field) + " is defined as unique, but " + getNumberOfRowsDescription() + " rows would use up nearly all of the " + numberOfPossibleValues + " different values that can be generated. generate fewer rows or use a field of type permutation, which generates unique values without repeating any");
+			}
+			field.setUniqueValues(new UniqueValueSet(uniqueValuesInMemory, null));
+		}
+	}
+	
+	/**
+	 * returns the number of rows to generate, for checking whether a field has enough
+	 * different values. an unlimited number of rows is returned as the maximum value of a long.
+	 */
+	private long getMaximumNumberOfRows()
+	{
+		return numberOfOutputLines==UNLIMITED_NUMBER_OF_ROWS ? Long.MAX_VALUE : numberOfOutputLines;
+	}
+	
+	/**
+	 * returns the number of rows to generate for the messages of errors
+	 */
+	private String getNumberOfRowsDescription()
+	{
+		return numberOfOutputLines==UNLIMITED_NUMBER_OF_ROWS ? "an unlimited number of" : String.valueOf(numberOfOutputLines);
+	}
+	
+	/**
+	 * returns the number of different values that can be generated for the field or
+	 * the maximum value of a long if it can not be determined.
+	 */
+	private long getNumberOfPossibleValues(Field field) throws Exception
+	{
+		if(field.getType()==Field.TYPE_REGEX)
+		{
+			return field.getRegularExpression().getNumberOfValues();
+		}
+		else if(field.getType()==Field.TYPE_RANDOM)
+		{
+			HashSet <Character>characters = new HashSet<Character>();
+			for(int i=0;i<field.getPossibleCharacters().length();i++)
+			{
+				characters.add(field.getPossibleCharacters().charAt(i));
+			}
+			return RegularExpressionDataGenerator.powerSaturated(characters.size(), field.getLength());
+		}
+		else if(field.getType()==Field.TYPE_INTEGER || field.getType()==Field.TYPE_LONG || field.getType()==Field.TYPE_DECIMAL)
+		{
+			long numberOfValues = field.getNumericMaximum() - field.getNumericMinimum() + 1;
+			return numberOfValues>0 ? numberOfValues : Long.MAX_VALUE;
+		}
+		else if(field.getType()==Field.TYPE_CATEGORY)
+		{
+			// values longer than the length of the field are shortened
+			Category category = getCategory(field.getCategory());
+			HashSet <String>words = new HashSet<String>();
+			for(int i=0;i<category.getNumberOfWords();i++)
+			{
+				String word = category.getWord(i);
+				if(field.getLength()!=-1 && word.length()>field.getLength())
+				{
+					word = word.substring(0,field.getLength());
+				}
+				words.add(word);
+			}
+			return words.size();
+		}
+		else
+		{
+			return Long.MAX_VALUE;
+		}
+	}
+	
+	/**
+	 * removes the temporary files of the unique fields
+	 */
+	private void closeUniqueValueSets()
+	{
+		Iterator <String>iter = referencedFields.keySet().iterator();
+		while(iter.hasNext())
+		{
+			Field field = referencedFields.get(iter.next());
+			if(field.getUniqueValues()!=null)
+			{
+				field.getUniqueValues().close();
+			}
+		}
+		for(int j=0;j<parser.getRow().getFields().size();j++)
+		{
+			Field field = (Field)parser.getRow().getFields().get(j);
+			if(field.getUniqueValues()!=null)
+			{
+				field.getUniqueValues().close();
+			}
+		}
+	}
+	
+	/**
+	 * returns the id of the field or - if it has none - its pattern or category
+	 * to identify the field in messages
+	 */
+	private static String getFieldDescription(Field field)
+	{
+		if(field.getId()!=null)
+		{
+			return "[" + field.getId() + "]";
+		}
+		else if(field.getPattern()!=null)
+		{
+			return "with pattern [" + field.getPattern() + "]";
+		}
+		else if(field.getCategory()!=null)
+		{
+			return "with category [" + field.getCategory() + "]";
+		}
+		else if(field.getParent()!=null)
+		{
+			return "with parent [" + field.getParent() + "]";
+		}
+		else
+		{
+			return "of type [" + field.getType() + "]";
+		}
+	}
+	
+	/**
+	 * sets the field value to the value of the field it references. the reference to another field is
+	 * specified in the relevant row layout file. see the documentation for further details
+	 * 
+	 * if it references multiple fields the values of the fields are concatenated. multiple
+	 * referenced fields have to be seperated using a slash character (/).
+	 * if a reference specified is not existing, it will be treated as a fixed string and
+	 * concatenated to the rest of the values.
+	 * 
+	 * for datetime fields the original datetime value of the reference field will be used. this
+	 * means that seperate fields/columns can be based on the same date, which will result in consistent
+	 * datetime values across the columns.
+	 * 
 	 * e.g. reference to one field:
 	 * 
 	 * 		reference="date1"
@@ -392,15 +2430,16 @@ public class DataCreator
 	 */
 	private String getReferencedFieldValue(Field field) throws Exception
 	{
-		// the reference can be made to multiple fields. to achieve this,
-		// devide the references by a slash character (/).
-		String [] references = field.getReference().split("/");
-		StringBuffer referenceValueBuffer= new StringBuffer();
+		// the reference was divided into its parts - separated by a slash character (/) - and
+		// the referenced fields were looked up when the layout was prepared
+		String [] references = field.getReferenceSegments();
+		Field [] referenceFields = field.getReferenceSegmentFields();
+		StringBuilder referenceValueBuffer= new StringBuilder();
 		// for each of the references, we try to get the value of the referenced
 		// field
 		for(int f=0;f<references.length;f++)
 		{
-			Field referencedField = referencedFields.get(references[f]);
+			Field referencedField = referenceFields[f];
 			// if the reference does not exist, we take the name (value) of the reference
 			// as the value for the field referencing the other field. this allows to define
 			// a constant value that is in turn used as a devider.
@@ -441,79 +2480,302 @@ public class DataCreator
 	}
 	
 	/**
-	 * the field passed to this method is a regular field not referencing
-	 * another field.
-	 * based on the type of field the value is generated
-	 * 
+	 * divides the reference of the field into its parts and looks up the referenced
+	 * fields. a reference field of which all parts are fixed strings has the same value
+	 * in every row: the value is set here and the field is not generated again.
+	 */
+	private void prepareReference(Field field)
+	{
+		String [] references = field.getReference().split("/");
+		Field [] referenceFields = new Field[references.length];
+		StringBuilder constantValue = new StringBuilder();
+		boolean constant = true;
+		for(int f=0;f<references.length;f++)
+		{
+			referenceFields[f] = referencedFields.get(references[f]);
+			if(referenceFields[f]!=null)
+			{
+				constant = false;
+			}
+			else
+			{
+				constantValue.append(references[f]);
+			}
+		}
+		field.setReferenceSegments(references, referenceFields);
+		field.setConstant(constant && field.getType()==Field.TYPE_REFERENCE);
+		if(field.isConstant())
+		{
+			field.setValue(constantValue.toString());
+		}
+	}
+	
+	/**
+	 * generates the value of the field. if the field is unique, the value is
+	 * generated again until it differs from all values generated before.
 	 */
 	private void generateFieldValue(Field field) throws Exception
 	{
-		// if the category is not null, meaning it was specified in the xml file,
-		// we get a random word from that category file that is specified in the
-		// field tag
-		if(field.getType()== Field.TYPE_CATEGORY)
+		generateValue(field);
+		if(field.getUniqueValues()!=null)
 		{
-			// get the applicable category
-			Category category = (Category)collection.get(field.getCategory());
-			// if the category does not exist, try to load it
-			if(category==null)
+			int attempts=1;
+			while(!field.getUniqueValues().add(field.getValue()))
 			{
-				String path = checkTrailingSlash(categoryFilesFolder);
-				String filename = field.getCategory() + CATEGORY_FILE_EXTENSION; 
-				try
-				{
-					File file = new File(path + filename);
-					// load category data
-					loadCategoryFile(file);
-					category = (Category)collection.get(field.getCategory());
-					// generate how often the category will be used
-					//generateCategoryUsage(row, category);
-				}
-				catch(FileNotFoundException ex)
+				if(attempts>=MAXIMUM_UNIQUE_VALUE_ATTEMPTS)
 				{
-					throw new Exception ("category file not found: " + path + filename);
+					throw new Exception("unable to generate a unique value for field " + getFieldDescription(field) + " after " + attempts + " attempts. the number of possible values is too small for the number of rows");
 				}
-				catch (Exception ex)
+				generateValue(field);
+				attempts++;
+			}
+		}
+		// the field is the key of a parent layout
+		if(field.getKeyReservoir()!=null)
+		{
+			field.getKeyReservoir().offer(field.getValue(), field.getRandom());
+		}
+	}
+	
+	/**
+	 * the field passed to this method is a regular field not referencing
+	 * another field.
+	 * based on the type of field the value is generated
+	 * 
+	 */
+	private void generateValue(Field field) throws Exception
+	{
+		switch(field.getGenerator())
+		{
+			case GENERATOR_CONSTANT:
+				// the value of a constant field has been set when the layout was prepared
+				break;
+			case GENERATOR_CATEGORY:
+				// get a random word from the category file that is specified in the field tag
+				field.generateCategoryValue(getCategoryWords(field));
+				break;
+			case GENERATOR_CATEGORY_PERMUTATION:
+				// take the word for the number of the row from a permutation of the words of the category
+				field.generateCategoryPermutationValue(getCategoryWords(field), rowNumber);
+				break;
+			case GENERATOR_CATEGORY_CONDITIONAL:
+				// pick a word among the words having the values of the fields of the condition as keys
+				Category groupedCategory = field.getCategoryWords();
+				if(groupedCategory==null)
 				{
-					throw new Exception ("error loading file: " + path + filename);
+					groupedCategory = getCategory(field.getCategory());
+					groupedCategory.groupByKey();
+					field.setCategoryWords(groupedCategory);
 				}
+				field.generateConditionalCategoryValue(groupedCategory, getConditionValue(field));
+				break;
+			case GENERATOR_POOL:
+				// pick one of the values generated when the layout was prepared
+				field.generatePoolValue();
+				break;
+			case GENERATOR_REGEX:
+				field.generateRegularExpressionValue();
+				break;
+			case GENERATOR_RANDOM:
+				// generate random value
+				field.generateRandomValue();
+				break;
+			case GENERATOR_SEQUENCE:
+				// generate the next value of the sequence
+				field.generateSequenceValue();
+				break;
+			case GENERATOR_PERMUTATION:
+				// map the number of the row to a unique value
+				field.generatePermutationValue(rowNumber);
+				break;
+			case GENERATOR_FOREIGNKEY:
+				// pick a key of the parent layout
+				field.generateForeignKeyValue();
+				break;
+			case GENERATOR_NUMBER:
+				// generate a number between the minimum and the maximum
+				field.generateNumberValue();
+				break;
+			case GENERATOR_REFERENCE:
+				// the value of the referenced fields or - for a datetime field - the date of the
+				// referenced field formatted with the pattern of this field
+				field.setValue(getReferencedFieldValue(field));
+				break;
+			case GENERATOR_DATETIME:
+				// generate random value
+				field.generateDateTimeValue(minMilliSeconds,maxMilliSeconds);
+				field.setValue(field.formatDateTimeValue());
+				break;
+			default:
+				throw new Exception("undefined type of field: " + field.getType());
+		}
+	}
+	
+	/**
+	 * returns the category of the field. it is loaded when it is first used and then kept
+	 * in the field.
+	 */
+	private Category getCategoryWords(Field field) throws Exception
+	{
+		Category category = field.getCategoryWords();
+		if(category==null)
+		{
+			category = getCategory(field.getCategory());
+			field.setCategoryWords(category);
+		}
+		return category;
+	}
+	
+	/**
+	 * determines how the value of the field is generated, so that the type of the field
+	 * and its reference do not have to be checked again for every row
+	 */
+	private void prepareGenerator(Field field) throws Exception
+	{
+		int type = field.getType();
+		if(field.isConstant())
+		{
+			field.setGenerator(GENERATOR_CONSTANT);
+		}
+		else if(type==Field.TYPE_CATEGORY)
+		{
+			if(field.getCondition()!=null)
+			{
+				field.setGenerator(GENERATOR_CATEGORY_CONDITIONAL);
 			}
-			
-			// get a random word from that category
-			field.setValue(category.getRandomWord());
+			else
+			{
+				field.setGenerator(Field.SAMPLING_PERMUTATION.equals(field.getSampling()) ? GENERATOR_CATEGORY_PERMUTATION : GENERATOR_CATEGORY);
+			}
+		}
+		else if(type==Field.TYPE_REGEX)
+		{
+			field.setGenerator(GENERATOR_REGEX);
+		}
+		else if(type==Field.TYPE_RANDOM)
+		{
+			field.setGenerator(GENERATOR_RANDOM);
+		}
+		else if(type==Field.TYPE_SEQUENCE)
+		{
+			field.setGenerator(GENERATOR_SEQUENCE);
+		}
+		else if(type==Field.TYPE_PERMUTATION)
+		{
+			field.setGenerator(GENERATOR_PERMUTATION);
+		}
+		else if(type==Field.TYPE_FOREIGNKEY)
+		{
+			field.setGenerator(GENERATOR_FOREIGNKEY);
+		}
+		else if(type==Field.TYPE_INTEGER || type==Field.TYPE_LONG || type==Field.TYPE_DECIMAL)
+		{
+			field.setGenerator(GENERATOR_NUMBER);
+		}
+		else if(type==Field.TYPE_REFERENCE || (field.getReferenceField()==true && field.getReference()!=null))
+		{
+			field.setGenerator(GENERATOR_REFERENCE);
+		}
+		else if(type==Field.TYPE_DATETIME)
+		{
+			field.setGenerator(field.getReference()==null ? GENERATOR_DATETIME : GENERATOR_REFERENCE);
+		}
+		else
+		{
+			throw new Exception("undefined type of field: " + type);
+		}
+		if(field.getCardinality()!=0)
+		{
+			prepareValuePool(field);
+			field.setGenerator(GENERATOR_POOL);
 		}
-		else if(field.getType()== Field.TYPE_REGEX)
+	}
+	
+	/**
+	 * generates the given number of different values for a field with a cardinality. the
+	 * values are formatted - shortened or filled up to the length of the field - once, so
+	 * that each row only picks one of them.
+	 */
+	private void prepareValuePool(Field field) throws Exception
+	{
+		int generator = field.getGenerator();
+		if((generator!=GENERATOR_CATEGORY && generator!=GENERATOR_REGEX && generator!=GENERATOR_RANDOM && generator!=GENERATOR_NUMBER && generator!=GENERATOR_DATETIME) || field.getInterval()!=null)
 		{
-			field.generateRegularExpressionValue();
+			throw new Exception("the cardinality attribute can only be used for category, regex, random, numeric and datetime fields without reference, condition, sampling or interval: " + getFieldDescription(field));
 		}
-		else if(field.getType()== Field.TYPE_RANDOM) 
+		if(field.getCardinality()<0)
 		{
-			// generate random value
-			field.generateRandomValue();
+			throw new Exception("the cardinality of field " + getFieldDescription(field) + " must be greater than zero: " + field.getCardinality());
 		}
-		else if(field.getType() == Field.TYPE_REFERENCE || (field.getReferenceField()==true && field.getReference()!=null)) 
+		if(field.isUnique())
 		{
-			// generate random value
-			field.setValue(getReferencedFieldValue(field));
+			throw new Exception("the attributes cardinality and unique can not be used together: " + getFieldDescription(field));
 		}
-		else if(field.getType()== Field.TYPE_DATETIME )
+		int cardinality = field.getCardinality();
+		String[] values = new String[cardinality];
+		long[] numbers = new long[cardinality];
+		HashSet <String> generatedValues = new HashSet<String>();
+		int attempts = 0;
+		for(int i=0;i<cardinality;)
 		{
-			if(field.getReference()==null)
+			generateValue(field);
+			if(generatedValues.add(field.getValue()))
 			{
-				// generate random value
-				field.generateDateTimeValue(minMilliSeconds,maxMilliSeconds);
-				
+				values[i] = field.getValue();
+				numbers[i] = generator==GENERATOR_DATETIME ? field.getDateTimeMilliseconds() : field.getNumericValue();
+				i++;
+				attempts = 0;
+			}
+			else if(++attempts>=MAXIMUM_UNIQUE_VALUE_ATTEMPTS)
+			{
+				throw new Exception("unable to generate " + cardinality + " different values for field " + getFieldDescription(field) + ". only " + i + " different values were found");
 			}
-			field.setValue(field.formatDateTimeValue());
 		}
-		
-		else // if no type was specified for the field in the xml file we genrate a exception
+		field.setPool(values, numbers, generator==GENERATOR_NUMBER);
+	}
+	
+	/**
+	 * returns the category with the given name. if the category has not been
+	 * used before, it is loaded from the category files folder.
+	 */
+	private Category getCategory(String name) throws Exception
+	{
+		Category category = categories.get(name);
+		if(category==null)
 		{
-			throw new Exception("undefined type of field: " + field.getType());
+			// the collection may be shared with other layouts generated at the same time
+			synchronized(collection)
+			{
+				// get the applicable category
+				category = (Category)collection.get(name);
+				// if the category does not exist, try to load it
+				if(category==null)
+				{
+					String path = checkTrailingSlash(categoryFilesFolder);
+					String filename = name + CATEGORY_FILE_EXTENSION; 
+					try
+					{
+						File file = new File(path + filename);
+						// load category data
+						loadCategoryFile(file);
+						category = (Category)collection.get(name);
+						// generate how often the category will be used
+						//generateCategoryUsage(row, category);
+					}
+					catch(FileNotFoundException ex)
+					{
+						throw new Exception ("category file not found: " + path + filename);
+					}
+					catch (Exception ex)
+					{
+						throw new Exception ("error loading file: " + path + filename);
+					}
+				}
+			}
+			categories.put(name, category);
 		}
-	}		
-		
-	
+		return category;
+	}
 	
 	/**
 	 * output can be in mixed, lowercase only or uppercase only format
@@ -591,9 +2853,89 @@ public class DataCreator
 		
 		for(int i=0;i<args.length;i++)
 		{
-			if (args[i].startsWith("-n"))
+			if (args[i].startsWith("-row="))
+			{
+				singleRow = Long.parseLong(args[i].substring(5));
+			}
+			else if (args[i].startsWith("-shard="))
+			{
+				parseShard(args[i].substring(7));
+			}
+			else if (args[i].startsWith("-checkpoint="))
+			{
+				checkpointInterval = Long.parseLong(args[i].substring(12));
+			}
+			else if (args[i].equals("-resume"))
+			{
+				resume = true;
+			}
+			else if (args[i].equals("-compiled"))
+			{
+				compiled = true;
+			}
+			else if (args[i].startsWith("-outputformat="))
+			{
+				outputFormat = args[i].substring(14).toLowerCase();
+			}
+			else if (args[i].startsWith("-table="))
+			{
+				table = args[i].substring(7);
+			}
+			else if (args[i].startsWith("-jdbcuser="))
+			{
+				jdbcUser = args[i].substring(10);
+			}
+			else if (args[i].startsWith("-jdbcpassword="))
+			{
+				jdbcPassword = args[i].substring(14);
+			}
+			else if (args[i].startsWith("-batchsize="))
+			{
+				batchSize = Integer.parseInt(args[i].substring(11));
+			}
+			else if (args[i].startsWith("-commitinterval="))
+			{
+				commitInterval = Integer.parseInt(args[i].substring(16));
+			}
+			else if (args[i].startsWith("-connections="))
+			{
+				numberOfConnections = Integer.parseInt(args[i].substring(13));
+			}
+			else if (args[i].startsWith("-seed="))
+			{
+				seed = Long.parseLong(args[i].substring(6));
+			}
+			else if (args[i].startsWith("-port="))
+			{
+				port = Integer.parseInt(args[i].substring(6));
+			}
+			else if (args[i].startsWith("-layoutfolder="))
+			{
+				layoutFolder = args[i].substring(14);
+			}
+			else if (args[i].startsWith("-rate="))
+			{
+				rowsPerSecond = Double.parseDouble(args[i].substring(6));
+			}
+			else if (args[i].startsWith("-ramp="))
+			{
+				rampDuration = args[i].substring(6);
+			}
+			else if (args[i].startsWith("-sf="))
+			{
+				scaleFactor = Double.parseDouble(args[i].substring(4));
+			}
+			else if (args[i].startsWith("-j="))
+			{
+				jobFile = args[i].substring(3);
+			}
+			else if (args[i].startsWith("-t="))
+			{
+				numberOfThreads = Integer.parseInt(args[i].substring(3));
+			}
+			else if (args[i].startsWith("-n"))
 			{
-				numberOfOutputLines = Long.parseLong(args[i].substring(3));
+				setNumberOfOutputLines(args[i].substring(3));
 			}
 			else if (args[i].startsWith("-c"))
 			{
@@ -625,7 +2967,7 @@ public class DataCreator
 			}
 			else if(args[i].startsWith("-p"))
 			{
-				Field.setPossibleCharacters(args[i].substring(3));
+				possibleCharacters = args[i].substring(3);
 			}
 			else if(args[i].startsWith("-e"))
 			{
@@ -633,72 +2975,177 @@ public class DataCreator
 			}
 			
 		}
-		
-		if(categoryFilesFolder==null)
+		
+		if(categoryFilesFolder==null)
+		{
+			throw new Exception("argument [-c] (category files folder) must be specified as an argument or in the properties file");
+		}
+		if(rowlayoutFile==null && jobFile==null && (port==0 || layoutFolder==null))
+		{
+			throw new Exception("argument [-l] (row layout file) or [-j] (job file) must be specified as an argument or in the properties file");
+		}
+
+	}
+	
+	/**
+     * load the properties from the file datagenerator.properties
+     * 
+     * a check is done if the file exists. in case the file does not exist, nothing
+     * is done.
+     */
+    private void loadProperties(String filename) throws Exception
+	{
+    	File f = new File(filename);
+		if(f.exists() && f.isFile())
+		{
+			Properties props = new Properties();
+			InputStream inputStream = new FileInputStream(f);
+			try
+			{
+				props.load(inputStream);
+			}
+			finally
+			{
+				inputStream.close();
+			}
+			setProperties(props);
+			
+			if(categoryFilesFolder==null)
+			{
+				throw new Exception("[categoryfilesfolder] unspecified in " + PROPERTIES_FILE);
+			}
+			if(rowlayoutFile==null && jobFile==null && (port==0 || layoutFolder==null))
+			{
+				throw new Exception("[rowlayoutfile] or [jobfile] unspecified in " + PROPERTIES_FILE);
+			}
+		}
+	}
+	
+	/**
+	 * applies the settings of the given properties. the keys are the ones of the file
+	 * datagenerator.properties. settings not contained in the properties are not changed.
+	 */
+	public void setProperties(Properties props) throws Exception
+	{
+		if(props.getProperty(PROPERTY_NUMBER_OF_OUTPUT_LINES)!=null)
+		{
+			setNumberOfOutputLines(props.getProperty(PROPERTY_NUMBER_OF_OUTPUT_LINES));
+		}
+		if(props.getProperty(PROPERTY_CATEGORY_FILES_FOLDER)!=null)
+		{
+			categoryFilesFolder = props.getProperty(PROPERTY_CATEGORY_FILES_FOLDER);
+		}
+		if(props.getProperty(PROPERTY_ROW_LAYOUT_FILE)!=null)
+		{
+			rowlayoutFile = props.getProperty(PROPERTY_ROW_LAYOUT_FILE);
+		}
+		if(props.getProperty(PROPERTY_OUTPUTFILE)!=null)
+		{
+			outputfile = props.getProperty(PROPERTY_OUTPUTFILE);
+		}
+		if(props.getProperty(PROPERTY_OUTPUT_FIELD_SEPARATOR)!=null)
+		{
+			fieldSeparator = props.getProperty(PROPERTY_OUTPUT_FIELD_SEPARATOR);
+		}
+		if(props.getProperty(PROPERTY_MAXIMUMYEAR)!=null)
+		{
+			maximumYear = Integer.parseInt(props.getProperty(PROPERTY_MAXIMUMYEAR));
+		}
+		if(props.getProperty(PROPERTY_MINIMUMYEAR)!=null)
+		{
+			minimumYear = Integer.parseInt(props.getProperty(PROPERTY_MINIMUMYEAR));
+		}
+		if(props.getProperty(PROPERTY_DATAFORMAT)!=null)
+		{
+			dataFormat = Integer.parseInt(props.getProperty(PROPERTY_DATAFORMAT));
+		}
+		if(props.getProperty(PROPERTY_VERBOSE)!=null)
+		{
+			verbose = Boolean.parseBoolean(props.getProperty(PROPERTY_VERBOSE));
+		}
+		if(props.getProperty(PROPERTY_UNIQUE_VALUES_IN_MEMORY)!=null)
+		{
+			uniqueValuesInMemory = Integer.parseInt(props.getProperty(PROPERTY_UNIQUE_VALUES_IN_MEMORY));
+		}
+		if(props.getProperty(PROPERTY_KEY_RESERVOIR_SIZE)!=null)
+		{
+			keyReservoirSize = Integer.parseInt(props.getProperty(PROPERTY_KEY_RESERVOIR_SIZE));
+		}
+		if(props.getProperty(PROPERTY_JOB_FILE)!=null)
+		{
+			jobFile = props.getProperty(PROPERTY_JOB_FILE);
+		}
+		if(props.getProperty(PROPERTY_SCALE_FACTOR)!=null)
+		{
+			scaleFactor = Double.parseDouble(props.getProperty(PROPERTY_SCALE_FACTOR));
+		}
+		if(props.getProperty(PROPERTY_NUMBER_OF_THREADS)!=null)
+		{
+			numberOfThreads = Integer.parseInt(props.getProperty(PROPERTY_NUMBER_OF_THREADS));
+		}
+		if(props.getProperty(PROPERTY_RATE)!=null)
+		{
+			rowsPerSecond = Double.parseDouble(props.getProperty(PROPERTY_RATE));
+		}
+		if(props.getProperty(PROPERTY_RAMP)!=null)
+		{
+			rampDuration = props.getProperty(PROPERTY_RAMP);
+		}
+		if(props.getProperty(PROPERTY_SEED)!=null)
+		{
+			seed = Long.parseLong(props.getProperty(PROPERTY_SEED));
+		}
+		if(props.getProperty(PROPERTY_PORT)!=null)
+		{
+			port = Integer.parseInt(props.getProperty(PROPERTY_PORT));
+		}
+		if(props.getProperty(PROPERTY_LAYOUT_FOLDER)!=null)
+		{
+			layoutFolder = props.getProperty(PROPERTY_LAYOUT_FOLDER);
+		}
+		if(props.getProperty(PROPERTY_COMPILED)!=null)
+		{
+			compiled = Boolean.parseBoolean(props.getProperty(PROPERTY_COMPILED));
+		}
+		if(props.getProperty(PROPERTY_SHARD)!=null)
+		{
+			parseShard(props.getProperty(PROPERTY_SHARD));
+		}
+		if(props.getProperty(PROPERTY_CHECKPOINT_INTERVAL)!=null)
+		{
+			checkpointInterval = Long.parseLong(props.getProperty(PROPERTY_CHECKPOINT_INTERVAL));
+		}
+		if(props.getProperty(PROPERTY_OUTPUT_FORMAT)!=null)
 		{
-			throw new Exception("argument [-c] (category files folder) must be specified as an argument or in the properties file");
+			outputFormat = props.getProperty(PROPERTY_OUTPUT_FORMAT).toLowerCase();
 		}
-		if(rowlayoutFile==null)
+		if(props.getProperty(PROPERTY_TABLE)!=null)
 		{
-			throw new Exception("argument [-l] (row layout file) must be specified as an argument or in the properties file");
+			table = props.getProperty(PROPERTY_TABLE);
 		}
-
-	}
-	
-	/**
-     * load the properties from the file datagenerator.properties
-     * 
-     * a check is done if the file exists. in case the file does not exist, nothing
-     * is done.
-     */
-    private void loadProperties(String filename) throws Exception
-	{
-		//System.out.println("loading properties: " + filename);
-    	File f = new File(filename);
-		if(f.exists() && f.isFile())
+		if(props.getProperty(PROPERTY_JDBC_USER)!=null)
 		{
-	    	InputStream inputStream = DataCreator.class.getResourceAsStream("/" + PROPERTIES_FILE);
-			
-			Properties props = new Properties();
-			props.load(inputStream);
-			
-			numberOfOutputLines = Long.parseLong(props.getProperty(PROPERTY_NUMBER_OF_OUTPUT_LINES));
-			categoryFilesFolder = props.getProperty(PROPERTY_CATEGORY_FILES_FOLDER);
-			rowlayoutFile = props.getProperty(PROPERTY_ROW_LAYOUT_FILE);
-			outputfile = props.getProperty(PROPERTY_OUTPUTFILE);
-			fieldSeparator = props.getProperty(PROPERTY_OUTPUT_FIELD_SEPARATOR);
-			if(props.getProperty(PROPERTY_MAXIMUMYEAR)!=null)
-			{
-				maximumYear = Integer.parseInt(props.getProperty(PROPERTY_MAXIMUMYEAR));
-			}
-			if(props.getProperty(PROPERTY_MINIMUMYEAR)!=null)
-			{
-				minimumYear = Integer.parseInt(props.getProperty(PROPERTY_MINIMUMYEAR));
-			}
-			if(props.getProperty(PROPERTY_DATAFORMAT)!=null)
-			{
-				dataFormat = Integer.parseInt(props.getProperty(PROPERTY_DATAFORMAT));
-			}
-			if(props.getProperty(PROPERTY_VERBOSE)!=null)
-			{
-				verbose = Boolean.parseBoolean(props.getProperty(PROPERTY_VERBOSE));
-			}
-		    if(props.getProperty(PROPERTY_POSSIBLE_CHARACTERS)!=null)
-		    {
-		    	Field.setPossibleCharacters(props.getProperty(PROPERTY_POSSIBLE_CHARACTERS));
-		    }
-			if(categoryFilesFolder==null)
-			{
-				throw new Exception("[categoryfilesfolder] unspecified in " + PROPERTIES_FILE);
-			}
-			if(rowlayoutFile==null)
-			{
-				throw new Exception("[rowlayoutfile] unspecified in " + PROPERTIES_FILE);
-			}
-			if(rowlayoutFile==null)
-			{
-				throw new Exception("[rowlayoutfile] unspecified in " + PROPERTIES_FILE);
-			}
+			jdbcUser = props.getProperty(PROPERTY_JDBC_USER);
+		}
+		if(props.getProperty(PROPERTY_JDBC_PASSWORD)!=null)
+		{
+			jdbcPassword = props.getProperty(PROPERTY_JDBC_PASSWORD);
+		}
+		if(props.getProperty(PROPERTY_BATCH_SIZE)!=null)
+		{
+			batchSize = Integer.parseInt(props.getProperty(PROPERTY_BATCH_SIZE));
+		}
+		if(props.getProperty(PROPERTY_COMMIT_INTERVAL)!=null)
+		{
+			commitInterval = Integer.parseInt(props.getProperty(PROPERTY_COMMIT_INTERVAL));
+		}
+		if(props.getProperty(PROPERTY_NUMBER_OF_CONNECTIONS)!=null)
+		{
+			numberOfConnections = Integer.parseInt(props.getProperty(PROPERTY_NUMBER_OF_CONNECTIONS));
+		}
+		if(props.getProperty(PROPERTY_POSSIBLE_CHARACTERS)!=null)
+		{
+			possibleCharacters = props.getProperty(PROPERTY_POSSIBLE_CHARACTERS);
 		}
 	}
     
@@ -739,6 +3186,30 @@ public class DataCreator
 		this.numberOfOutputLines = numberOfOutputLines;
 	}
 
+	/**
+	 * sets the number of rows to generate. for multiple layouts, the number of rows
+	 * per layout may be specified as a comma separated list.
+	 */
+	private void setNumberOfOutputLines(String numberOfOutputLines)
+	{
+		layoutNumberOfOutputLines = numberOfOutputLines.split(",");
+		this.numberOfOutputLines = parseNumberOfRows(layoutNumberOfOutputLines[0]);
+	}
+	
+	/**
+	 * returns the number of rows. the word unlimited or a negative number mean that
+	 * rows are generated until the program is stopped.
+	 */
+	static long parseNumberOfRows(String numberOfRows)
+	{
+		if(numberOfRows.trim().equalsIgnoreCase(UNLIMITED))
+		{
+			return UNLIMITED_NUMBER_OF_ROWS;
+		}
+		long number = Long.parseLong(numberOfRows.trim());
+		return number<0 ? UNLIMITED_NUMBER_OF_ROWS : number;
+	}
+
 	public int getDataFormat() 
 	{
 		return dataFormat;
@@ -794,6 +3265,331 @@ public class DataCreator
 		return rowlayoutFile;
 	}
 	
+	/**
+	 * sets the row layout file. multiple row layout files may be specified, separated by commas.
+	 */
+	public void setRowlayoutFile(String rowlayoutFile) 
+	{
+		this.rowlayoutFile = rowlayoutFile;
+	}
+	
+	public boolean getVerbose()
+	{
+		return verbose;
+	}
+	
+	public void setVerbose(boolean verbose)
+	{
+		this.verbose = verbose;
+	}
+	
+	public String getPossibleCharacters()
+	{
+		return possibleCharacters!=null ? possibleCharacters : Field.DEFAULT_POSSIBLE_CHARACTERS;
+	}
+	
+	/**
+	 * sets the characters used for randomly generated values. null for the default characters.
+	 */
+	public void setPossibleCharacters(String possibleCharacters)
+	{
+		this.possibleCharacters = possibleCharacters;
+	}
+	
+	public PrintStream getMessages()
+	{
+		return messages;
+	}
+	
+	/**
+	 * sets the stream for the messages of the verbose mode. null to suppress the messages.
+	 */
+	public void setMessages(PrintStream messages)
+	{
+		this.messages = messages;
+	}
+	
+	public PrintStream getStatistics()
+	{
+		return statistics;
+	}
+	
+	/**
+	 * sets the stream for the statistics of the rate, the write latencies and the
+	 * caches. null to suppress the statistics.
+	 */
+	public void setStatistics(PrintStream statistics)
+	{
+		this.statistics = statistics;
+	}
+	
+	public int getUniqueValuesInMemory()
+	{
+		return uniqueValuesInMemory;
+	}
+
+	/**
+	 * sets the maximum number of values per unique field that are kept in memory. when
+	 * more values are generated, they are written to temporary files.
+	 */
+	public void setUniqueValuesInMemory(int uniqueValuesInMemory)
+	{
+		this.uniqueValuesInMemory = uniqueValuesInMemory;
+	}
+
+	public int getKeyReservoirSize()
+	{
+		return keyReservoirSize;
+	}
+
+	/**
+	 * sets the maximum number of keys that are sampled from a parent key field, which
+	 * is neither a sequence nor a permutation field
+	 */
+	public void setKeyReservoirSize(int keyReservoirSize)
+	{
+		this.keyReservoirSize = keyReservoirSize;
+	}
+
+	public String getJobFile()
+	{
+		return jobFile;
+	}
+
+	/**
+	 * sets the job file, which defines multiple tables to generate
+	 */
+	public void setJobFile(String jobFile)
+	{
+		this.jobFile = jobFile;
+	}
+
+	public double getScaleFactor()
+	{
+		return scaleFactor;
+	}
+
+	/**
+	 * sets the scale factor, from which the number of rows of the tables of a job
+	 * are calculated
+	 */
+	public void setScaleFactor(double scaleFactor)
+	{
+		this.scaleFactor = scaleFactor;
+	}
+
+	public int getNumberOfThreads()
+	{
+		return numberOfThreads;
+	}
+
+	/**
+	 * sets the number of threads used to generate multiple layouts at the same time
+	 */
+	public void setNumberOfThreads(int numberOfThreads)
+	{
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	public Long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * sets the seed of the generators of random numbers. the same seed produces the
+	 * same rows. null means that the rows differ on every run.
+	 */
+	public void setSeed(Long seed)
+	{
+		this.seed = seed;
+	}
+
+	public int getPort()
+	{
+		return port;
+	}
+
+	/**
+	 * sets the port of the http server that generates rows on request
+	 */
+	public void setPort(int port)
+	{
+		this.port = port;
+	}
+
+	public String getLayoutFolder()
+	{
+		return layoutFolder;
+	}
+
+	/**
+	 * sets the folder containing the row layout files served by the http server
+	 */
+	public void setLayoutFolder(String layoutFolder)
+	{
+		this.layoutFolder = layoutFolder;
+	}
+
+	public String getTable()
+	{
+		return table;
+	}
+
+	/**
+	 * sets the table the rows are inserted into, if the output file is a jdbc url.
+	 * if no table is set, the name of the layout is used.
+	 */
+	public void setTable(String table)
+	{
+		this.table = table;
+	}
+
+	public long getSingleRow()
+	{
+		return singleRow;
+	}
+
+	/**
+	 * sets the number of the single row that is output, starting at one. zero to output all rows
+	 */
+	public void setSingleRow(long singleRow)
+	{
+		this.singleRow = singleRow;
+	}
+
+	public int getShard()
+	{
+		return shard;
+	}
+
+	public int getNumberOfShards()
+	{
+		return numberOfShards;
+	}
+
+	/**
+	 * sets the shard - starting at one - and the number of shards the rows are divided into.
+	 * zero shards to generate all rows.
+	 */
+	public void setShard(int shard, int numberOfShards)
+	{
+		this.shard = shard;
+		this.numberOfShards = numberOfShards;
+	}
+
+	/**
+	 * sets the shard and the number of shards given as: [shard]/[number of shards]
+	 */
+	private void parseShard(String shard) throws Exception
+	{
+		int posSeparator = shard.indexOf("/");
+		try
+		{
+			setShard(Integer.parseInt(shard.substring(0,posSeparator).trim()), Integer.parseInt(shard.substring(posSeparator+1).trim()));
+		}
+		catch(Exception e)
+		{
+			throw new Exception("invalid shard: " + shard + ". use [shard]/[number of shards], e.g. 2/8");
+		}
+	}
+
+	public long getCheckpointInterval()
+	{
+		return checkpointInterval;
+	}
+
+	/**
+	 * sets the number of rows after which a checkpoint is written. zero for no checkpoints
+	 */
+	public void setCheckpointInterval(long checkpointInterval)
+	{
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	public boolean getResume()
+	{
+		return resume;
+	}
+
+	public boolean getCompiled()
+	{
+		return compiled;
+	}
+
+	/**
+	 * sets if the fields of the row are generated by a method handle composed for the
+	 * layout instead of dispatching on the generator of each field. the rows are the same.
+	 */
+	public void setCompiled(boolean compiled)
+	{
+		this.compiled = compiled;
+		this.liveRowFields = null;
+	}
+
+	/**
+	 * sets if the run continues from the last checkpoint of the output file
+	 */
+	public void setResume(boolean resume)
+	{
+		this.resume = resume;
+	}
+
+	public String getOutputFormat()
+	{
+		return outputFormat;
+	}
+
+	/**
+	 * sets the format of the output: text, pgcopy for the binary format of the postgresql
+	 * copy command or sql for insert statements
+	 */
+	public void setOutputFormat(String outputFormat)
+	{
+		this.outputFormat = outputFormat;
+	}
+
+	public int getBatchSize()
+	{
+		return batchSize;
+	}
+
+	/**
+	 * sets the number of rows inserted into the database at once or by one statement
+	 * of a sql script
+	 */
+	public void setBatchSize(int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+
+	public int getCommitInterval()
+	{
+		return commitInterval;
+	}
+
+	/**
+	 * sets the number of rows after which a database connection commits. zero
+	 * means that the rows are committed when all rows are inserted.
+	 */
+	public void setCommitInterval(int commitInterval)
+	{
+		this.commitInterval = commitInterval;
+	}
+
+	public int getNumberOfConnections()
+	{
+		return numberOfConnections;
+	}
+
+	/**
+	 * sets the number of database connections inserting the rows in parallel
+	 */
+	public void setNumberOfConnections(int numberOfConnections)
+	{
+		this.numberOfConnections = numberOfConnections;
+	}
+
 	public String getFieldSeparator()
 	{
 		return fieldSeparator;
@@ -821,16 +3617,59 @@ public class DataCreator
 		System.out.println("usage: java com.datamelt.datagenerator.DataCreator -c=[categories folder] -l=[row layout file] -o=[output file] -n=[number of rows] -f=[dataformat] -p=[possible characters] -m=[maximum year] -i=[minimum year] -v");
 		System.out.println("where: [categories folder] = the path to the folder where the category files area located");
 		System.out.println("       [row layout file]   = name and path to the file that defines the layout of the rows to be genereted");
-		System.out.println("       [output file]       = optional. name and path of the output file. if none specified, output goes to console");
-		System.out.println("       [number of rows]    = number of rows to be generated");
+		System.out.println("                             multiple files may be specified separated by commas. they are generated in the given order");
+		System.out.println("       [output file]       = optional. name and path of the output file or named pipe. if none specified, output goes to console");
+		System.out.println("                             tcp://[host]:[port] sends the rows to the given tcp socket");
+		System.out.println("                             jdbc:[database url] inserts the rows into a database table. the jdbc driver must be on the classpath");
+		System.out.println("                             for multiple row layout files, a comma separated list of output files may be specified");
+		System.out.println("       [number of rows]    = number of rows to be generated. unlimited generates rows until the program is stopped");
+		System.out.println("                             for multiple row layout files, a comma separated list of numbers may be specified");
 		System.out.println("       [dataformat]        = optional. 0, 1 or 2. 0 (default) means output in regular case, 1 means output all lowercase, 2 means output all uppercase");
 		System.out.println("       [possible values]   = optional. Specifies - for randomly generated values - the character set to be used");
 		System.out.println("       [maximum year]      = optional. Specifies the maximum randomly generated year value");
 		System.out.println("       [minimum year]      = optional. Specifies the minimum randomly generated year value");
 		System.out.println("       -v                  = optional. verbose, create some output during processing");
+		System.out.println("       -j=[job file]       = optional. file defining multiple tables to generate, instead of a row layout file");
+		System.out.println("       -sf=[scale factor]  = optional. scale factor used to calculate the number of rows of the tables of a job. default is 1");
+		System.out.println("       -t=[threads]        = optional. number of layouts generated at the same time. default is the number of processors");
+		System.out.println("                             layouts without an output file are generated one after the other");
+		System.out.println("       -rate=[rows]        = optional. number of rows written per second. the rate and write latencies are reported to system.err");
+		System.out.println("       -ramp=[duration]    = optional. duration over which the rate is increased from zero, e.g. 30s or 5m");
+		System.out.println("       -outputformat=[format] = optional. text (default), pgcopy for the binary format of the postgresql copy command");
+		System.out.println("                             or sql for a script of insert statements, each inserting [batchsize] rows");
+		System.out.println("       -table=[table]      = optional. table the rows are inserted into, for a jdbc url as output file or sql output. default is the name of the layout");
+		System.out.println("       -jdbcuser=[user] -jdbcpassword=[password] = optional. user and password of the database");
+		System.out.println("       -batchsize=[rows]   = optional. number of rows inserted into the database or by one sql statement at once. default is " + JdbcOutput.DEFAULT_BATCH_SIZE);
+		System.out.println("       -commitinterval=[rows] = optional. number of rows after which a database connection commits. default is " + JdbcOutput.DEFAULT_COMMIT_INTERVAL);
+		System.out.println("       -connections=[number] = optional. number of database connections inserting rows in parallel. default is 1");
+		System.out.println("       -seed=[seed]        = optional. number from which the random values are generated. the same seed produces the same rows");
+		System.out.println("       -checkpoint=[rows]  = optional. number of rows after which the output is forced to disk and a checkpoint is written");
+		System.out.println("                             to [output file].checkpoint. requires an output file and a seed");
+		System.out.println("       -resume             = optional. continues the run from the last checkpoint of the output file. the output is");
+		System.out.println("                             truncated to the checkpoint and is the same as that of a run that was not interrupted");
+		System.out.println("       -compiled           = optional. generates the fields of a row by code composed for the layout when it is prepared,");
+		System.out.println("                             instead of choosing the method for each field and row. the rows are the same");
+		System.out.println("       -shard=[shard]/[shards] = optional. generates only the given part of the rows, e.g. 2/8 for the second of eight parts.");
+		System.out.println("                             requires a seed. the output files of all shards concatenated are the same as the output of");
+		System.out.println("                             a single run. a manifest is written to [output file].manifest, see: ShardMerger");
+		System.out.println("       -row=[row]          = optional. outputs only the row with the given number, starting at one. it is the same row");
+		System.out.println("                             a run generating all rows with the same seed outputs at this line");
+		System.out.println("       -port=[port]        = optional. runs as http server on the given port, generating rows on request:");
+		System.out.println("                             http://[host]:[port]/rows?layout=[row layout file]&rows=[number of rows]&seed=[seed]");
+		System.out.println("       -layoutfolder=[folder] = optional. folder of the row layout files served by the http server");
+		System.out.println("                             default is the folder of the row layout file");
 		System.out.println("example: java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -l=/home/dummy/rowlayout.xml -n=22500 -o=/home/dummy/output.txt -m=2020 -i=2007");
 		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -l=/home/dummy/rowlayout.xml -n=22500 -f=1 -v");
 		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -l=/home/dummy/rowlayout.xml -n=22500 -p=ABCDEFGHIJabcdefghij+*öäàé");
+		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -l=/home/dummy/customer.xml,/home/dummy/order.xml -n=1000,50000 -o=/home/dummy/customer.txt,/home/dummy/order.txt");
+		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -j=/home/dummy/job.xml -sf=100");
+		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -l=/home/dummy/rowlayout.xml -n=unlimited -rate=5000 -ramp=1m -o=tcp://localhost:9000");
+		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -l=/home/dummy/rowlayout.xml -n=1000000 -o=jdbc:h2:/home/dummy/test -table=test -connections=4");
+		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -l=/home/dummy/rowlayout.xml -n=1000000 -outputformat=pgcopy -o=/home/dummy/test.bin");
+		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -l=/home/dummy/rowlayout.xml -n=3000000000 -seed=42 -checkpoint=10000000 -resume -o=/home/dummy/test.txt");
+		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -l=/home/dummy/rowlayout.xml -n=1000000000 -seed=42 -shard=3/8 -o=/home/dummy/test.3.txt");
+		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -l=/home/dummy/rowlayout.xml -seed=42 -row=2500000000");
+		System.out.println("         java com.datamelt.datagenerator.DataCreator -c=/home/dummy/categories -layoutfolder=/home/dummy/layouts -port=8080");
 		System.out.println();
 		System.out.println("copyright 2007-2017, uwe geercken - uwe.geercken@web.de");
 		
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Properties;
+
+/**
+ * configures a data creator for use from within another program.<br />
+ * <br />
+ * all settings are held by the data creator itself, so that multiple data creators built
+ * this way can generate rows at the same time - in different threads - without influencing
+ * each other. no properties file is read. the rows are written to the given output stream or
+ * output file. messages and statistics go to the given streams and are suppressed if none are
+ * given. errors are thrown as exceptions.<br />
+ * <br />
+ * example: new DataCreatorBuilder().categories("/home/dummy/categories").layout("/home/dummy/rowlayout.xml").rows(1000).seed(42).output(stream).build().generate();<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class DataCreatorBuilder
+{
+	private DataCreator creator = new DataCreator();
+
+	/**
+	 * constructor for a builder. messages and statistics are suppressed unless
+	 * streams are set for them.
+	 */
+	public DataCreatorBuilder()
+	{
+		creator.setMessages(null);
+		creator.setStatistics(null);
+	}
+
+	/**
+	 * applies the settings of the given properties. the keys are the ones of the file
+	 * datagenerator.properties.
+	 */
+	public DataCreatorBuilder properties(Properties properties) throws Exception
+	{
+		creator.setProperties(properties);
+		return this;
+	}
+
+	/**
+	 * sets the folder of the category files
+	 */
+	public DataCreatorBuilder categories(String categoryFilesFolder)
+	{
+		creator.setCategoryFilesFolder(categoryFilesFolder);
+		return this;
+	}
+
+	/**
+	 * sets the row layout file
+	 */
+	public DataCreatorBuilder layout(String rowlayoutFile)
+	{
+		creator.setRowlayoutFile(rowlayoutFile);
+		return this;
+	}
+
+	/**
+	 * sets the job file, defining multiple tables to generate
+	 */
+	public DataCreatorBuilder job(String jobFile)
+	{
+		creator.setJobFile(jobFile);
+		return this;
+	}
+
+	/**
+	 * sets the number of rows to generate
+	 */
+	public DataCreatorBuilder rows(long numberOfRows)
+	{
+		creator.setNumberOfOutputLines(numberOfRows);
+		return this;
+	}
+
+	/**
+	 * sets the seed. the same seed produces the same rows.
+	 */
+	public DataCreatorBuilder seed(long seed)
+	{
+		creator.setSeed(seed);
+		return this;
+	}
+
+	/**
+	 * sets the stream to which the rows are written. it is closed when the rows have
+	 * been generated.
+	 */
+	public DataCreatorBuilder output(OutputStream out) throws Exception
+	{
+		creator.setOutput(out);
+		return this;
+	}
+
+	/**
+	 * sets the file to which the rows are written
+	 */
+	public DataCreatorBuilder outputFile(String outputfile)
+	{
+		creator.setOutputfile(outputfile);
+		return this;
+	}
+
+	/**
+	 * sets the format of the output: text, pgcopy or sql
+	 */
+	public DataCreatorBuilder outputFormat(String outputFormat)
+	{
+		creator.setOutputFormat(outputFormat);
+		return this;
+	}
+
+	/**
+	 * sets the table the rows are inserted into
+	 */
+	public DataCreatorBuilder table(String table)
+	{
+		creator.setTable(table);
+		return this;
+	}
+
+	/**
+	 * sets the separator of the fields of a row of text output
+	 */
+	public DataCreatorBuilder fieldSeparator(String fieldSeparator)
+	{
+		creator.setFieldSeparator(fieldSeparator);
+		return this;
+	}
+
+	/**
+	 * sets the characters used for randomly generated values
+	 */
+	public DataCreatorBuilder possibleCharacters(String possibleCharacters)
+	{
+		creator.setPossibleCharacters(possibleCharacters);
+		return this;
+	}
+
+	/**
+	 * sets the data format: 0 for regular case, 1 for lowercase, 2 for uppercase
+	 */
+	public DataCreatorBuilder dataFormat(int dataFormat)
+	{
+		creator.setDataFormat(dataFormat);
+		return this;
+	}
+
+	/**
+	 * sets the range of the years of randomly generated dates
+	 */
+	public DataCreatorBuilder years(int minimumYear, int maximumYear)
+	{
+		creator.setMinimumYear(minimumYear);
+		creator.setMaximumYear(maximumYear);
+		return this;
+	}
+
+	/**
+	 * sets if the fields of a row are generated by code composed for the layout
+	 */
+	public DataCreatorBuilder compiled(boolean compiled)
+	{
+		creator.setCompiled(compiled);
+		return this;
+	}
+
+	/**
+	 * sets the stream for the messages of the verbose mode and turns the verbose mode on.
+	 * null turns it off.
+	 */
+	public DataCreatorBuilder messages(PrintStream messages)
+	{
+		creator.setMessages(messages);
+		creator.setVerbose(messages!=null);
+		return this;
+	}
+
+	/**
+	 * sets the stream for the statistics of the rate, the write latencies and the caches
+	 */
+	public DataCreatorBuilder statistics(PrintStream statistics)
+	{
+		creator.setStatistics(statistics);
+		return this;
+	}
+
+	/**
+	 * checks the settings and returns the data creator. the rows are generated by
+	 * calling generate() on it.
+	 */
+	public DataCreator build() throws Exception
+	{
+		if(creator.getCategoryFilesFolder()==null)
+		{
+			throw new Exception("no folder of the category files specified");
+		}
+		if(creator.getRowlayoutFile()==null && creator.getJobFile()==null)
+		{
+			throw new Exception("no row layout file or job file specified");
+		}
+		return creator;
+	}
+}
@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * http server generating rows on request.<br />
+ * <br />
+ * a request names a row layout file of the layout folder, the number of rows and optionally
+ * a seed:<br />
+ * <br />
+ *  http://localhost:8080/rows?layout=customer.xml&amp;rows=1000&amp;seed=4711<br />
+ * <br />
+ * the rows are streamed back while they are generated, using chunked transfer encoding. requests
+ * with the same layout, number of rows and seed get the same rows. the requests are served by a
+ * fixed number of threads.<br />
+ * <br />
+ * a parsed layout is kept when the request is complete and used again by the next request for the
+ * same layout, so the layout file is parsed and its patterns are compiled only once. if the layout
+ * file changes, it is parsed again. the categories are loaded once and shared by all requests.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class DataServer implements HttpHandler
+{
+	public static final String CONTEXT_PATH				= "/rows";
+	public static final String PARAMETER_LAYOUT			= "layout";
+	public static final String PARAMETER_ROWS			= "rows";
+	public static final String PARAMETER_SEED			= "seed";
+
+	private static final String LAYOUT_FILE_EXTENSION	= ".xml";
+	private static final int OUTPUT_BUFFER_SIZE			= 65536;
+
+	// the data creator holding the settings and the categories that are shared by all requests
+	private DataCreator settings;
+	private File layoutFolder;
+	private int port;
+	private int numberOfThreads;
+	private HttpServer server;
+	private ExecutorService executor;
+
+	// parsed layouts that are currently not in use, by path of the layout file
+	private ConcurrentHashMap <String,ConcurrentLinkedQueue<ParsedLayout>> parsedLayouts = new ConcurrentHashMap<String,ConcurrentLinkedQueue<ParsedLayout>>();
+
+	/**
+	 * constructor for a server serving the layout files of the given folder on the given port,
+	 * using the given number of threads. the layouts are generated with the settings of the
+	 * given data creator.
+	 */
+	public DataServer(DataCreator settings, File layoutFolder, int port, int numberOfThreads)
+	{
+		this.settings = settings;
+		this.layoutFolder = layoutFolder;
+		this.port = port;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	/**
+	 * starts the server. requests are accepted until the server is stopped.
+	 */
+	public void start() throws IOException
+	{
+		executor = Executors.newFixedThreadPool(numberOfThreads);
+		server = HttpServer.create(new InetSocketAddress(port), 0);
+		server.createContext(CONTEXT_PATH, this);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	/**
+	 * stops the server. requests that are currently served are aborted.
+	 */
+	public void stop()
+	{
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * generates the rows of a request. errors in the request or in the layout are reported
+	 * with an error status. once the rows are sent, errors can only be reported by closing
+	 * the connection.
+	 */
+	public void handle(HttpExchange exchange) throws IOException
+	{
+		try
+		{
+			if(!exchange.getRequestMethod().equalsIgnoreCase("GET"))
+			{
+				sendError(exchange, 405, "method not allowed: " + exchange.getRequestMethod());
+				return;
+			}
+			HashMap <String,String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+			String layout = parameters.get(PARAMETER_LAYOUT);
+			if(layout==null || layout.trim().equals(""))
+			{
+				sendError(exchange, 400, "missing parameter: " + PARAMETER_LAYOUT);
+				return;
+			}
+			File layoutFile = getLayoutFile(layout.trim());
+			if(layoutFile==null)
+			{
+				sendError(exchange, 404, "row layout file not found: " + layout);
+				return;
+			}
+			long numberOfRows = settings.getNumberOfOutputLines();
+			Long seed = settings.getSeed();
+			try
+			{
+				if(parameters.get(PARAMETER_ROWS)!=null)
+				{
+					numberOfRows = DataCreator.parseNumberOfRows(parameters.get(PARAMETER_ROWS));
+				}
+				if(parameters.get(PARAMETER_SEED)!=null)
+				{
+					seed = Long.parseLong(parameters.get(PARAMETER_SEED).trim());
+				}
+			}
+			catch(NumberFormatException nfe)
+			{
+				sendError(exchange, 400, "invalid number of rows or seed: " + nfe.getMessage());
+				return;
+			}
+
+			ParsedLayout parsedLayout;
+			try
+			{
+				parsedLayout = getParsedLayout(layoutFile, numberOfRows, seed);
+			}
+			catch(Exception e)
+			{
+				sendError(exchange, 400, e.getMessage()!=null ? e.getMessage() : "error parsing row layout file: " + layoutFile);
+				return;
+			}
+
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+			// a length of zero means that the rows are sent in chunks
+			exchange.sendResponseHeaders(200, 0);
+			parsedLayout.creator.setOutput(new PrintStream(new BufferedOutputStream(exchange.getResponseBody(), OUTPUT_BUFFER_SIZE), false, "UTF-8"));
+			try
+			{
+				parsedLayout.creator.generateRows();
+				// only a layout that completed without errors is used again
+				releaseParsedLayout(parsedLayout);
+			}
+			catch(Exception e)
+			{
+				settings.printError("error generating rows for row layout file: " + layoutFile + " - " + e.getMessage());
+			}
+		}
+		finally
+		{
+			exchange.close();
+		}
+	}
+
+	/**
+	 * returns the row layout file of the layout folder with the given name or null if there
+	 * is no such file. the extension of the file may be left out. files outside the layout
+	 * folder are not served.
+	 */
+	private File getLayoutFile(String name) throws IOException
+	{
+		File file = new File(layoutFolder, name);
+		if(!file.isFile() && !name.endsWith(LAYOUT_FILE_EXTENSION))
+		{
+			file = new File(layoutFolder, name + LAYOUT_FILE_EXTENSION);
+		}
+		if(!file.isFile() || !file.getCanonicalFile().getParentFile().equals(layoutFolder.getCanonicalFile()))
+		{
+			return null;
+		}
+		return file;
+	}
+
+	/**
+	 * returns a parsed layout for the given file, prepared for generating the given number of
+	 * rows from the given seed. a layout that is not in use is taken if there is one, otherwise
+	 * the layout file is parsed.
+	 */
+	private ParsedLayout getParsedLayout(File layoutFile, long numberOfRows, Long seed) throws Exception
+	{
+		ConcurrentLinkedQueue <ParsedLayout> queue = parsedLayouts.get(layoutFile.getPath());
+		if(queue!=null)
+		{
+			ParsedLayout parsedLayout;
+			while((parsedLayout = queue.poll())!=null)
+			{
+				// a layout parsed before the file was changed is dropped
+				if(parsedLayout.lastModified==layoutFile.lastModified())
+				{
+					parsedLayout.creator.setNumberOfOutputLines(numberOfRows);
+					parsedLayout.creator.setSeed(seed);
+					parsedLayout.creator.prepareFields();
+					return parsedLayout;
+				}
+			}
+		}
+		ParsedLayout parsedLayout = new ParsedLayout(settings.createLayoutCreator(), layoutFile.lastModified());
+		parsedLayout.creator.setNumberOfOutputLines(numberOfRows);
+		parsedLayout.creator.setSeed(seed);
+		parsedLayout.creator.setOutputfile(null);
+		parsedLayout.creator.parseRowLayoutFile(layoutFile.getPath());
+		// layouts with foreign keys can not be served, because their parent is not generated
+		parsedLayout.creator.linkParentKeys(new HashMap<String,DataCreator>());
+		return parsedLayout;
+	}
+
+	/**
+	 * keeps the parsed layout for the next request for the same layout file
+	 */
+	private void releaseParsedLayout(ParsedLayout parsedLayout)
+	{
+		String path = parsedLayout.creator.getRowlayoutFile();
+		ConcurrentLinkedQueue <ParsedLayout> queue = parsedLayouts.get(path);
+		if(queue==null)
+		{
+			queue = new ConcurrentLinkedQueue<ParsedLayout>();
+			ConcurrentLinkedQueue <ParsedLayout> existingQueue = parsedLayouts.putIfAbsent(path, queue);
+			if(existingQueue!=null)
+			{
+				queue = existingQueue;
+			}
+		}
+		queue.add(parsedLayout);
+	}
+
+	/**
+	 * splits the query of the request into its parameters
+	 */
+	private static HashMap <String,String> parseQuery(String query) throws IOException
+	{
+		HashMap <String,String> parameters = new HashMap<String,String>();
+		if(query!=null)
+		{
+			String[] pairs = query.split("&");
+			for(int i=0;i<pairs.length;i++)
+			{
+				int posSeparator = pairs[i].indexOf("=");
+				if(posSeparator>0)
+				{
+					parameters.put(URLDecoder.decode(pairs[i].substring(0,posSeparator), "UTF-8"), URLDecoder.decode(pairs[i].substring(posSeparator+1), "UTF-8"));
+				}
+			}
+		}
+		return parameters;
+	}
+
+	/**
+	 * sends the given status and message as the response to the request
+	 */
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException
+	{
+		byte[] body = (message + System.lineSeparator()).getBytes("UTF-8");
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+
+	/**
+	 * a parsed layout and the time the layout file was last modified when it was parsed
+	 */
+	private static class ParsedLayout
+	{
+		private DataCreator creator;
+		private long lastModified;
+
+		private ParsedLayout(DataCreator creator, long lastModified)
+		{
+			this.creator = creator;
+			this.lastModified = lastModified;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */ 
+package com.datamelt.datagenerator;
+
+/**
+ * a table of a job. it defines the row layout file, the number of rows to generate
+ * and the output file.<br />
+ * <br />
+ * the number of rows is an expression of the scale factor of the job, a number or a product
+ * of numbers and the scale factor [sf]. e.g.: "25" always generates 25 rows, "150000*sf"
+ * generates 150000 rows per unit of the scale factor.<br />
+ * 
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class JobTable
+{
+	public static final String SCALE_FACTOR = "sf";
+	
+	private String rowlayoutFile;
+	private String numberOfRows;
+	private String outputfile;
+	
+	public JobTable(String rowlayoutFile, String numberOfRows, String outputfile)
+	{
+		this.rowlayoutFile = rowlayoutFile;
+		this.numberOfRows = numberOfRows;
+		this.outputfile = outputfile;
+	}
+	
+	/**
+	 * returns the number of rows to generate for the given scale factor. the result
+	 * is rounded to the nearest whole number.
+	 */
+	public long getNumberOfRows(double scaleFactor) throws Exception
+	{
+		String[] factors = numberOfRows.split("\\*");
+		double result = 1;
+		for(int i=0;i<factors.length;i++)
+		{
+			String factor = factors[i].trim();
+			if(factor.equals(SCALE_FACTOR))
+			{
+				result = result * scaleFactor;
+			}
+			else
+			{
+				try
+				{
+					result = result * Double.parseDouble(factor);
+				}
+				catch(NumberFormatException ex)
+				{
+					throw new Exception("invalid number of rows: [" + numberOfRows + "] for row layout file: " + rowlayoutFile);
+				}
+			}
+		}
+		return Math.round(result);
+	}
+	
+	/**
+	 * returns the path and name of the row layout file
+	 */
+	public String getRowlayoutFile()
+	{
+		return rowlayoutFile;
+	}
+
+	/**
+	 * returns the expression for the number of rows
+	 */
+	public String getNumberOfRows()
+	{
+		return numberOfRows;
+	}
+
+	/**
+	 * returns the path and name of the output file or null if the output
+	 * goes to the console
+	 */
+	public String getOutputfile()
+	{
+		return outputfile;
+	}
+}
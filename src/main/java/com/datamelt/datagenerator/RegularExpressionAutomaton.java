@@ -0,0 +1,1028 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+import com.datamelt.datagenerator.util.RandomSource;
+
+/**
+ * a regular expression compiled into a deterministic automaton, used to generate random
+ * values that match the expression.<br />
+ * <br />
+ * the pattern is parsed into a tree, turned into an automaton with epsilon transitions
+ * and then into a deterministic automaton, where each transition covers a set of characters.
+ * because the automaton is deterministic, every value corresponds to exactly one path
+ * through it.<br />
+ * <br />
+ * for every state and every remaining length the number of values that can still be
+ * generated is calculated once. a value is then generated by walking from the start state,
+ * choosing to stop or to follow a transition with a probability proportional to the number
+ * of values behind it. so all values of the expression are equally likely and generating a
+ * value takes time proportional to its length - without backtracking or rejected values.<br />
+ * <br />
+ * patterns such as [a-z]* allow values of any length. the values are therefore limited to a
+ * maximum length, which is the length of the field or - if the field has no length -
+ * DEFAULT_MAXIMUM_LENGTH characters.<br />
+ * <br />
+ * the automaton does not change after it was created, so it can be used by multiple threads,
+ * as long as each thread uses its own generator of random numbers.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class RegularExpressionAutomaton
+{
+	public static final int DEFAULT_MAXIMUM_LENGTH      = 32;
+	public static final int MAXIMUM_NUMBER_OF_STATES    = 20000;
+
+	// characters used for negated groups such as [^0-9]: the printable ASCII characters
+	private static final int FIRST_PRINTABLE_CHARACTER  = 32;
+	private static final int LAST_PRINTABLE_CHARACTER   = 126;
+
+	private static final int[] CHARACTERS_DIGIT         = {'0','9'};
+	private static final int[] CHARACTERS_WORD          = {'0','9','A','Z','_','_','a','z'};
+	private static final int[] CHARACTERS_SPACE         = {' ',' '};
+
+	private static final int NODE_CHARACTERS            = 0;
+	private static final int NODE_SEQUENCE              = 1;
+	private static final int NODE_ALTERNATION           = 2;
+	private static final int NODE_REPEAT                = 3;
+
+	private static final int UNLIMITED                  = -1;
+
+	private String pattern;
+	private int maximumLength;
+
+	// the length to which the values are shortened, if no value fits into the maximum length given
+	private int shortenedLength = UNLIMITED;
+
+	// the deterministic automaton. for each state the character sets of its transitions
+	// as pairs of the first and last character of each range, the number of characters
+	// and the target states.
+	private boolean[] accepting;
+	private int[][][] transitionCharacters;
+	private int[][] transitionSizes;
+	private int[][] transitionTargets;
+
+	// number of values that can be generated from a state using at most the given number of characters
+	private double[][] numberOfValues;
+	private long[][] exactNumberOfValues;
+
+	// the automaton with epsilon transitions used while compiling
+	private ArrayList <ArrayList<int[]>> nfaCharacters;
+	private ArrayList <ArrayList<Integer>> nfaTargets;
+	private ArrayList <ArrayList<Integer>> nfaEpsilons;
+
+	// position in the pattern while parsing
+	private int position;
+
+	/**
+	 * constructor compiling the pattern. values are limited to the given maximum length. if
+	 * the maximum length is -1, values are limited to the longest value of the pattern or -
+	 * if the pattern allows values of any length - to DEFAULT_MAXIMUM_LENGTH characters.<br />
+	 * <br />
+	 * if even the shortest value of the pattern is longer than the given maximum length, the
+	 * values are generated as if no maximum length was given. they need to be shortened by
+	 * the caller.
+	 */
+	public RegularExpressionAutomaton(String pattern, int maximumLength) throws Exception
+	{
+		this.pattern = pattern;
+
+		position = 0;
+		Node root = parseAlternation();
+		if(position<pattern.length())
+		{
+			throw new Exception("invalid regular expression [" + pattern + "] - unexpected character at position " + position + ": " + pattern.charAt(position));
+		}
+
+		nfaCharacters = new ArrayList<ArrayList<int[]>>();
+		nfaTargets = new ArrayList<ArrayList<Integer>>();
+		nfaEpsilons = new ArrayList<ArrayList<Integer>>();
+		int start = newNfaState();
+		int end = build(root, start);
+		determinize(start, end);
+		nfaCharacters = null;
+		nfaTargets = null;
+		nfaEpsilons = null;
+
+		int longestValue = getLongestValue();
+		if(longestValue==UNLIMITED)
+		{
+			this.maximumLength = maximumLength>=0 ? maximumLength : DEFAULT_MAXIMUM_LENGTH;
+		}
+		else
+		{
+			this.maximumLength = maximumLength>=0 ? Math.min(maximumLength, longestValue) : longestValue;
+		}
+		countValues();
+		if(exactNumberOfValues[0][this.maximumLength]==0 && getShortestValue()!=UNLIMITED)
+		{
+			// no value fits into the maximum length: the values are generated at the natural
+			// length of the pattern and shortened to the maximum length by the field
+			shortenedLength = this.maximumLength;
+			this.maximumLength = longestValue!=UNLIMITED ? longestValue : Math.max(getShortestValue(), DEFAULT_MAXIMUM_LENGTH);
+			countValues();
+		}
+		if(exactNumberOfValues[0][this.maximumLength]==0)
+		{
+			throw new Exception("the regular expression [" + pattern + "] does not match any value");
+		}
+	}
+
+	/**
+	 * returns a random value matching the pattern
+	 */
+	public String generate(RandomSource random)
+	{
+		StringBuilder buffer = new StringBuilder(maximumLength);
+		append(buffer, random);
+		return buffer.toString();
+	}
+
+	/**
+	 * appends a random value matching the pattern to the buffer
+	 */
+	public void append(StringBuilder buffer, RandomSource random)
+	{
+		int state = 0;
+		int remaining = maximumLength;
+		while(true)
+		{
+			double value = random.nextDouble() * numberOfValues[state][remaining];
+			if(accepting[state])
+			{
+				if(value<1)
+				{
+					return;
+				}
+				value -= 1;
+			}
+			int[] targets = transitionTargets[state];
+			int chosen = -1;
+			for(int i=0;i<targets.length && remaining>0;i++)
+			{
+				double weight = transitionSizes[state][i] * numberOfValues[targets[i]][remaining - 1];
+				if(weight>0)
+				{
+					chosen = i;
+					if(value<weight)
+					{
+						break;
+					}
+					value -= weight;
+				}
+			}
+			if(chosen==-1)
+			{
+				// rounding: the remaining values all stop here
+				return;
+			}
+			buffer.append((char)getCharacter(transitionCharacters[state][chosen], random.nextInt(transitionSizes[state][chosen])));
+			state = targets[chosen];
+			remaining--;
+		}
+	}
+
+	/**
+	 * returns the number of different values that can be generated. if the number exceeds
+	 * the maximum value of a long, the maximum value of a long is returned.
+	 */
+	public long getNumberOfValues()
+	{
+		if(shortenedLength!=UNLIMITED)
+		{
+			return getNumberOfPrefixes(shortenedLength);
+		}
+		return exactNumberOfValues[0][maximumLength];
+	}
+
+	/**
+	 * returns true if no value of the pattern fits into the maximum length given to the
+	 * constructor, so that the values are longer and need to be shortened
+	 */
+	public boolean isShortened()
+	{
+		return shortenedLength!=UNLIMITED;
+	}
+
+	/**
+	 * returns the maximum length of the generated values
+	 */
+	public int getMaximumLength()
+	{
+		return maximumLength;
+	}
+
+	/**
+	 * returns the number of states of the deterministic automaton
+	 */
+	public int getNumberOfStates()
+	{
+		return accepting.length;
+	}
+
+	public String getPattern()
+	{
+		return pattern;
+	}
+
+	private static int getCharacter(int[] ranges, int index)
+	{
+		for(int i=0;i<ranges.length;i+=2)
+		{
+			int size = ranges[i+1] - ranges[i] + 1;
+			if(index<size)
+			{
+				return ranges[i] + index;
+			}
+			index -= size;
+		}
+		return ranges[ranges.length-1];
+	}
+
+	private static int getSize(int[] ranges)
+	{
+		int size = 0;
+		for(int i=0;i<ranges.length;i+=2)
+		{
+			size += ranges[i+1] - ranges[i] + 1;
+		}
+		return size;
+	}
+
+	/**
+	 * calculates for all states the number of values that can be generated using
+	 * at most 0, 1, 2 ... up to the maximum length characters
+	 */
+	private void countValues()
+	{
+		int numberOfStates = accepting.length;
+		numberOfValues = new double[numberOfStates][maximumLength+1];
+		exactNumberOfValues = new long[numberOfStates][maximumLength+1];
+		for(int remaining=0;remaining<=maximumLength;remaining++)
+		{
+			for(int state=0;state<numberOfStates;state++)
+			{
+				double count = accepting[state] ? 1 : 0;
+				long exactCount = accepting[state] ? 1 : 0;
+				if(remaining>0)
+				{
+					int[] targets = transitionTargets[state];
+					for(int i=0;i<targets.length;i++)
+					{
+						int size = transitionSizes[state][i];
+						count += size * numberOfValues[targets[i]][remaining-1];
+						exactCount = addSaturated(exactCount, RegularExpressionDataGenerator.multiplySaturated(size, exactNumberOfValues[targets[i]][remaining-1]));
+					}
+				}
+				numberOfValues[state][remaining] = count;
+				exactNumberOfValues[state][remaining] = exactCount;
+			}
+		}
+	}
+
+	private static long addSaturated(long value1, long value2)
+	{
+		long sum = value1 + value2;
+		return sum<0 ? Long.MAX_VALUE : sum;
+	}
+
+	/**
+	 * returns the number of different beginnings of the given length of the values. because
+	 * the automaton is deterministic, every path of the given length leading to a state from
+	 * which a value can still be completed is a different beginning.
+	 */
+	private long getNumberOfPrefixes(int length)
+	{
+		int numberOfStates = accepting.length;
+		long[] paths = new long[numberOfStates];
+		paths[0] = 1;
+		for(int step=0;step<length;step++)
+		{
+			long[] nextPaths = new long[numberOfStates];
+			for(int state=0;state<numberOfStates;state++)
+			{
+				if(paths[state]>0)
+				{
+					int[] targets = transitionTargets[state];
+					for(int i=0;i<targets.length;i++)
+					{
+						if(exactNumberOfValues[targets[i]][maximumLength - step - 1]>0)
+						{
+							nextPaths[targets[i]] = addSaturated(nextPaths[targets[i]], RegularExpressionDataGenerator.multiplySaturated(transitionSizes[state][i], paths[state]));
+						}
+					}
+				}
+			}
+			paths = nextPaths;
+		}
+		long numberOfPrefixes = 0;
+		for(int state=0;state<numberOfStates;state++)
+		{
+			numberOfPrefixes = addSaturated(numberOfPrefixes, paths[state]);
+		}
+		return numberOfPrefixes;
+	}
+
+	/**
+	 * returns the length of the shortest value of the pattern or -1 if the pattern does
+	 * not match any value
+	 */
+	private int getShortestValue()
+	{
+		int numberOfStates = accepting.length;
+		int[] distance = new int[numberOfStates];
+		Arrays.fill(distance, UNLIMITED);
+		ArrayList <Integer>queue = new ArrayList<Integer>();
+		distance[0] = 0;
+		queue.add(0);
+		for(int i=0;i<queue.size();i++)
+		{
+			int state = queue.get(i);
+			if(accepting[state])
+			{
+				return distance[state];
+			}
+			for(int target : transitionTargets[state])
+			{
+				if(distance[target]==UNLIMITED)
+				{
+					distance[target] = distance[state] + 1;
+					queue.add(target);
+				}
+			}
+		}
+		return UNLIMITED;
+	}
+
+	/**
+	 * returns the length of the longest value of the pattern or UNLIMITED if the
+	 * pattern allows values of any length
+	 */
+	private int getLongestValue()
+	{
+		int numberOfStates = accepting.length;
+
+		// states from which an accepting state can be reached
+		boolean[] alive = new boolean[numberOfStates];
+		boolean changed = true;
+		while(changed)
+		{
+			changed = false;
+			for(int state=0;state<numberOfStates;state++)
+			{
+				if(!alive[state])
+				{
+					boolean reachesAccepting = accepting[state];
+					for(int i=0;i<transitionTargets[state].length && !reachesAccepting;i++)
+					{
+						reachesAccepting = alive[transitionTargets[state][i]];
+					}
+					if(reachesAccepting)
+					{
+						alive[state] = true;
+						changed = true;
+					}
+				}
+			}
+		}
+
+		// longest path through the states that are alive. a cycle means unlimited length
+		int[] longest = new int[numberOfStates];
+		int[] status = new int[numberOfStates];
+		return alive[0] ? getLongestValue(0, alive, longest, status) : 0;
+	}
+
+	private int getLongestValue(int state, boolean[] alive, int[] longest, int[] status)
+	{
+		if(status[state]==2)
+		{
+			return longest[state];
+		}
+		if(status[state]==1)
+		{
+			return UNLIMITED;
+		}
+		status[state] = 1;
+		int result = 0;
+		for(int i=0;i<transitionTargets[state].length;i++)
+		{
+			int target = transitionTargets[state][i];
+			if(alive[target])
+			{
+				int length = getLongestValue(target, alive, longest, status);
+				if(length==UNLIMITED)
+				{
+					return UNLIMITED;
+				}
+				result = Math.max(result, length + 1);
+			}
+		}
+		status[state] = 2;
+		longest[state] = result;
+		return result;
+	}
+
+	private int newNfaState() throws Exception
+	{
+		if(nfaEpsilons.size()>=MAXIMUM_NUMBER_OF_STATES * 10)
+		{
+			throw new Exception("the regular expression [" + pattern + "] is too complex");
+		}
+		nfaCharacters.add(new ArrayList<int[]>());
+		nfaTargets.add(new ArrayList<Integer>());
+		nfaEpsilons.add(new ArrayList<Integer>());
+		return nfaEpsilons.size() - 1;
+	}
+
+	/**
+	 * adds the states and transitions for the node, starting at the given state,
+	 * and returns the state at which the node ends
+	 */
+	private int build(Node node, int start) throws Exception
+	{
+		if(node.type==NODE_CHARACTERS)
+		{
+			int end = newNfaState();
+			nfaCharacters.get(start).add(node.characters);
+			nfaTargets.get(start).add(end);
+			return end;
+		}
+		else if(node.type==NODE_SEQUENCE)
+		{
+			int current = start;
+			for(int i=0;i<node.children.size();i++)
+			{
+				current = build(node.children.get(i), current);
+			}
+			return current;
+		}
+		else if(node.type==NODE_ALTERNATION)
+		{
+			int end = newNfaState();
+			for(int i=0;i<node.children.size();i++)
+			{
+				nfaEpsilons.get(build(node.children.get(i), start)).add(end);
+			}
+			return end;
+		}
+		else
+		{
+			int current = start;
+			for(int i=0;i<node.minimum;i++)
+			{
+				current = build(node.child, current);
+			}
+			if(node.maximum==UNLIMITED)
+			{
+				int loop = newNfaState();
+				nfaEpsilons.get(current).add(loop);
+				nfaEpsilons.get(build(node.child, loop)).add(loop);
+				return loop;
+			}
+			int end = newNfaState();
+			for(int i=node.minimum;i<node.maximum;i++)
+			{
+				nfaEpsilons.get(current).add(end);
+				current = build(node.child, current);
+			}
+			nfaEpsilons.get(current).add(end);
+			return end;
+		}
+	}
+
+	/**
+	 * creates the deterministic automaton from the automaton with epsilon transitions
+	 * (subset construction). state zero is the start state.
+	 */
+	private void determinize(int nfaStart, int nfaEnd) throws Exception
+	{
+		HashMap <String,Integer> stateNumbers = new HashMap<String,Integer>();
+		ArrayList <int[]> states = new ArrayList<int[]>();
+		ArrayList <Boolean> acceptingStates = new ArrayList<Boolean>();
+		ArrayList <int[][]> characters = new ArrayList<int[][]>();
+		ArrayList <int[]> targets = new ArrayList<int[]>();
+
+		int[] startState = closure(new int[] {nfaStart});
+		stateNumbers.put(Arrays.toString(startState), 0);
+		states.add(startState);
+
+		for(int number=0;number<states.size();number++)
+		{
+			int[] state = states.get(number);
+			acceptingStates.add(Arrays.binarySearch(state, nfaEnd)>=0);
+
+			// all character sets leaving the state, split into ranges that
+			// lead to the same set of states
+			TreeSet <Integer> boundaries = new TreeSet<Integer>();
+			ArrayList <int[]> sets = new ArrayList<int[]>();
+			ArrayList <Integer> setTargets = new ArrayList<Integer>();
+			for(int i=0;i<state.length;i++)
+			{
+				ArrayList<int[]> nfaSets = nfaCharacters.get(state[i]);
+				for(int j=0;j<nfaSets.size();j++)
+				{
+					int[] ranges = nfaSets.get(j);
+					sets.add(ranges);
+					setTargets.add(nfaTargets.get(state[i]).get(j));
+					for(int k=0;k<ranges.length;k+=2)
+					{
+						boundaries.add(ranges[k]);
+						boundaries.add(ranges[k+1] + 1);
+					}
+				}
+			}
+
+			// transitions of the new state, keyed by the target state
+			HashMap <Integer,ArrayList<Integer>> rangesByTarget = new HashMap<Integer,ArrayList<Integer>>();
+			ArrayList <Integer> targetOrder = new ArrayList<Integer>();
+			Integer[] points = boundaries.toArray(new Integer[boundaries.size()]);
+			for(int i=0;i<points.length-1;i++)
+			{
+				int first = points[i];
+				int last = points[i+1] - 1;
+				TreeSet <Integer> nextStates = new TreeSet<Integer>();
+				for(int j=0;j<sets.size();j++)
+				{
+					if(contains(sets.get(j), first))
+					{
+						nextStates.add(setTargets.get(j));
+					}
+				}
+				if(nextStates.size()>0)
+				{
+					int[] next = new int[nextStates.size()];
+					int index = 0;
+					for(Integer nextState : nextStates)
+					{
+						next[index++] = nextState;
+					}
+					next = closure(next);
+					String key = Arrays.toString(next);
+					Integer target = stateNumbers.get(key);
+					if(target==null)
+					{
+						if(states.size()>=MAXIMUM_NUMBER_OF_STATES)
+						{
+							throw new Exception("the regular expression [" + pattern + "] is too complex");
+						}
+						target = states.size();
+						stateNumbers.put(key, target);
+						states.add(next);
+					}
+					ArrayList <Integer> ranges = rangesByTarget.get(target);
+					if(ranges==null)
+					{
+						ranges = new ArrayList<Integer>();
+						rangesByTarget.put(target, ranges);
+						targetOrder.add(target);
+					}
+					ranges.add(first);
+					ranges.add(last);
+				}
+			}
+			int[][] stateCharacters = new int[targetOrder.size()][];
+			int[] stateTargets = new int[targetOrder.size()];
+			for(int i=0;i<targetOrder.size();i++)
+			{
+				ArrayList <Integer> ranges = rangesByTarget.get(targetOrder.get(i));
+				stateCharacters[i] = new int[ranges.size()];
+				for(int j=0;j<ranges.size();j++)
+				{
+					stateCharacters[i][j] = ranges.get(j);
+				}
+				stateTargets[i] = targetOrder.get(i);
+			}
+			characters.add(stateCharacters);
+			targets.add(stateTargets);
+		}
+
+		int numberOfStates = states.size();
+		accepting = new boolean[numberOfStates];
+		transitionCharacters = new int[numberOfStates][][];
+		transitionSizes = new int[numberOfStates][];
+		transitionTargets = new int[numberOfStates][];
+		for(int i=0;i<numberOfStates;i++)
+		{
+			accepting[i] = acceptingStates.get(i);
+			transitionCharacters[i] = characters.get(i);
+			transitionTargets[i] = targets.get(i);
+			transitionSizes[i] = new int[transitionTargets[i].length];
+			for(int j=0;j<transitionTargets[i].length;j++)
+			{
+				transitionSizes[i][j] = getSize(transitionCharacters[i][j]);
+			}
+		}
+	}
+
+	private static boolean contains(int[] ranges, int character)
+	{
+		for(int i=0;i<ranges.length;i+=2)
+		{
+			if(character>=ranges[i] && character<=ranges[i+1])
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * returns the sorted states that can be reached from the given states
+	 * using epsilon transitions only - including the given states
+	 */
+	private int[] closure(int[] states)
+	{
+		TreeSet <Integer> result = new TreeSet<Integer>();
+		ArrayList <Integer> stack = new ArrayList<Integer>();
+		for(int i=0;i<states.length;i++)
+		{
+			if(result.add(states[i]))
+			{
+				stack.add(states[i]);
+			}
+		}
+		while(stack.size()>0)
+		{
+			int state = stack.remove(stack.size()-1);
+			ArrayList <Integer> epsilons = nfaEpsilons.get(state);
+			for(int i=0;i<epsilons.size();i++)
+			{
+				if(result.add(epsilons.get(i)))
+				{
+					stack.add(epsilons.get(i));
+				}
+			}
+		}
+		int[] closure = new int[result.size()];
+		int index = 0;
+		for(Integer state : result)
+		{
+			closure[index++] = state;
+		}
+		return closure;
+	}
+
+	private Node parseAlternation() throws Exception
+	{
+		Node alternation = new Node(NODE_ALTERNATION);
+		alternation.children.add(parseSequence());
+		while(position<pattern.length() && pattern.charAt(position)=='|')
+		{
+			position++;
+			alternation.children.add(parseSequence());
+		}
+		return alternation.children.size()==1 ? alternation.children.get(0) : alternation;
+	}
+
+	private Node parseSequence() throws Exception
+	{
+		Node sequence = new Node(NODE_SEQUENCE);
+		while(position<pattern.length() && pattern.charAt(position)!='|' && pattern.charAt(position)!=')')
+		{
+			char character = pattern.charAt(position);
+			// anchors do not generate any characters
+			if((character=='^' && position==0) || (character=='$' && position==pattern.length()-1))
+			{
+				position++;
+				continue;
+			}
+			sequence.children.add(parseQuantifiers(parseAtom()));
+		}
+		return sequence;
+	}
+
+	private Node parseQuantifiers(Node atom) throws Exception
+	{
+		Node node = atom;
+		while(position<pattern.length())
+		{
+			char character = pattern.charAt(position);
+			int minimum;
+			int maximum;
+			if(character=='?')
+			{
+				minimum = 0;
+				maximum = 1;
+				position++;
+			}
+			else if(character=='*')
+			{
+				minimum = 0;
+				maximum = UNLIMITED;
+				position++;
+			}
+			else if(character=='+')
+			{
+				minimum = 1;
+				maximum = UNLIMITED;
+				position++;
+			}
+			else if(character=='{' && pattern.indexOf('}', position)>position)
+			{
+				int end = pattern.indexOf('}', position);
+				String multiplier = pattern.substring(position+1, end);
+				int divider = multiplier.indexOf(',');
+				try
+				{
+					if(divider>=0)
+					{
+						minimum = Integer.parseInt(multiplier.substring(0, divider).trim());
+						String maximumString = multiplier.substring(divider+1).trim();
+						maximum = maximumString.length()==0 ? UNLIMITED : Integer.parseInt(maximumString);
+					}
+					else
+					{
+						minimum = Integer.parseInt(multiplier.trim());
+						maximum = minimum;
+					}
+				}
+				catch(NumberFormatException nfe)
+				{
+					throw new Exception("invalid regular expression [" + pattern + "] - invalid multiplier: {" + multiplier + "}");
+				}
+				if(minimum<0 || (maximum!=UNLIMITED && maximum<minimum))
+				{
+					throw new Exception("invalid regular expression [" + pattern + "] - invalid multiplier: {" + multiplier + "}");
+				}
+				position = end + 1;
+			}
+			else
+			{
+				break;
+			}
+			// lazy and possessive quantifiers match the same values
+			if(position<pattern.length() && (pattern.charAt(position)=='?' || pattern.charAt(position)=='+'))
+			{
+				position++;
+			}
+			Node repeat = new Node(NODE_REPEAT);
+			repeat.child = node;
+			repeat.minimum = minimum;
+			repeat.maximum = maximum;
+			node = repeat;
+		}
+		return node;
+	}
+
+	private Node parseAtom() throws Exception
+	{
+		char character = pattern.charAt(position);
+		if(character=='(')
+		{
+			position++;
+			// non capturing groups are handled like any other group
+			if(pattern.startsWith("?:", position))
+			{
+				position += 2;
+			}
+			Node group = parseAlternation();
+			if(position>=pattern.length() || pattern.charAt(position)!=')')
+			{
+				throw new Exception("invalid regular expression [" + pattern + "] - missing closing parenthesis");
+			}
+			position++;
+			return group;
+		}
+		else if(character=='[')
+		{
+			return characters(parseGroup());
+		}
+		else if(character=='\\')
+		{
+			return characters(parseEscape());
+		}
+		else if(character=='*' || character=='+' || character=='?')
+		{
+			throw new Exception("invalid regular expression [" + pattern + "] - nothing to repeat at position " + position);
+		}
+		else
+		{
+			// a dot stands for itself, as in earlier versions of the program
+			position++;
+			return characters(new int[] {character, character});
+		}
+	}
+
+	/**
+	 * parses a group of characters such as [A-Z0-9_] or [^,;] and returns its ranges
+	 */
+	private int[] parseGroup() throws Exception
+	{
+		int start = position;
+		position++;
+		boolean negated = false;
+		if(position<pattern.length() && pattern.charAt(position)=='^')
+		{
+			negated = true;
+			position++;
+		}
+		ArrayList <int[]> ranges = new ArrayList<int[]>();
+		boolean first = true;
+		while(true)
+		{
+			if(position>=pattern.length())
+			{
+				throw new Exception("invalid regular expression [" + pattern + "] - missing closing bracket for group at position " + start);
+			}
+			char character = pattern.charAt(position);
+			if(character==']' && !first)
+			{
+				position++;
+				break;
+			}
+			first = false;
+			int[] from;
+			if(character=='\\')
+			{
+				from = parseEscape();
+			}
+			else
+			{
+				position++;
+				from = new int[] {character, character};
+			}
+			// a range such as a-z, unless the dash is the last character of the group
+			if(from.length==2 && from[0]==from[1] && position+1<pattern.length() && pattern.charAt(position)=='-' && pattern.charAt(position+1)!=']')
+			{
+				position++;
+				int[] to;
+				if(pattern.charAt(position)=='\\')
+				{
+					to = parseEscape();
+				}
+				else
+				{
+					to = new int[] {pattern.charAt(position), pattern.charAt(position)};
+					position++;
+				}
+				if(to.length!=2 || to[0]!=to[1] || to[0]<from[0])
+				{
+					throw new Exception("invalid regular expression [" + pattern + "] - invalid range in group at position " + start);
+				}
+				ranges.add(new int[] {from[0], to[0]});
+			}
+			else
+			{
+				ranges.add(from);
+			}
+		}
+		int[] merged = merge(ranges);
+		if(negated)
+		{
+			merged = complement(merged);
+		}
+		if(merged.length==0)
+		{
+			throw new Exception("invalid regular expression [" + pattern + "] - the group at position " + start + " contains no characters");
+		}
+		return merged;
+	}
+
+	/**
+	 * parses an escaped character such as \. or a predefined group such as \d
+	 */
+	private int[] parseEscape() throws Exception
+	{
+		position++;
+		if(position>=pattern.length())
+		{
+			throw new Exception("invalid regular expression [" + pattern + "] - the pattern ends with a backslash");
+		}
+		char character = pattern.charAt(position++);
+		switch(character)
+		{
+			case 'd': return CHARACTERS_DIGIT;
+			case 'w': return CHARACTERS_WORD;
+			case 's': return CHARACTERS_SPACE;
+			case 'D': return complement(CHARACTERS_DIGIT);
+			case 'W': return complement(CHARACTERS_WORD);
+			case 'S': return complement(CHARACTERS_SPACE);
+			case 't': return new int[] {'\t','\t'};
+			case 'n': return new int[] {'\n','\n'};
+			default:  return new int[] {character, character};
+		}
+	}
+
+	/**
+	 * sorts the ranges and joins ranges that overlap or touch each other
+	 */
+	private static int[] merge(ArrayList <int[]> ranges)
+	{
+		ArrayList <int[]> single = new ArrayList<int[]>();
+		for(int i=0;i<ranges.size();i++)
+		{
+			int[] range = ranges.get(i);
+			for(int j=0;j<range.length;j+=2)
+			{
+				single.add(new int[] {range[j], range[j+1]});
+			}
+		}
+		int[][] sorted = single.toArray(new int[single.size()][]);
+		Arrays.sort(sorted, new java.util.Comparator<int[]>()
+		{
+			public int compare(int[] range1, int[] range2)
+			{
+				return Integer.compare(range1[0], range2[0]);
+			}
+		});
+		ArrayList <Integer> result = new ArrayList<Integer>();
+		for(int i=0;i<sorted.length;i++)
+		{
+			int size = result.size();
+			if(size>0 && sorted[i][0]<=result.get(size-1) + 1)
+			{
+				result.set(size-1, Math.max(result.get(size-1), sorted[i][1]));
+			}
+			else
+			{
+				result.add(sorted[i][0]);
+				result.add(sorted[i][1]);
+			}
+		}
+		int[] merged = new int[result.size()];
+		for(int i=0;i<merged.length;i++)
+		{
+			merged[i] = result.get(i);
+		}
+		return merged;
+	}
+
+	/**
+	 * returns the printable ASCII characters that are not part of the given ranges
+	 */
+	private static int[] complement(int[] ranges)
+	{
+		ArrayList <Integer> result = new ArrayList<Integer>();
+		int next = FIRST_PRINTABLE_CHARACTER;
+		for(int i=0;i<ranges.length;i+=2)
+		{
+			if(ranges[i]>next)
+			{
+				result.add(next);
+				result.add(Math.min(ranges[i] - 1, LAST_PRINTABLE_CHARACTER));
+			}
+			next = Math.max(next, ranges[i+1] + 1);
+			if(next>LAST_PRINTABLE_CHARACTER)
+			{
+				break;
+			}
+		}
+		if(next<=LAST_PRINTABLE_CHARACTER)
+		{
+			result.add(next);
+			result.add(LAST_PRINTABLE_CHARACTER);
+		}
+		int[] complement = new int[result.size()];
+		for(int i=0;i<complement.length;i++)
+		{
+			complement[i] = result.get(i);
+		}
+		return complement;
+	}
+
+	private static Node characters(int[] ranges)
+	{
+		Node node = new Node(NODE_CHARACTERS);
+		node.characters = ranges;
+		return node;
+	}
+
+	/**
+	 * node of the tree the pattern is parsed into
+	 */
+	private static class Node
+	{
+		private int type;
+		private int[] characters;
+		private ArrayList <Node> children = new ArrayList<Node>();
+		private Node child;
+		private int minimum;
+		private int maximum;
+
+		private Node(int type)
+		{
+			this.type = type;
+		}
+	}
+}
@@ -18,22 +18,26 @@
  */ 
 package com.datamelt.datagenerator;
 
-import java.util.Random;
+import java.util.ArrayList;
+
+import com.datamelt.datagenerator.util.RandomSource;
 
 /**
  * class is used to generate random test data based on a given regular expression.<br />
  * <br />
- * as this is the opposite way regular expressions are normally used, there are certain limitations
- * of what expressions can be used in the pattern:<br />
+ * the pattern is compiled into a RegularExpressionAutomaton. all values matching the pattern
+ * are equally likely. the following can be used in the pattern:<br />
  * <br />
  * - you can use character ranges to group characters, such as [A-Z] or [0-9] or combine them [A-Ka-z0-5]<br />
  * - besides using character ranges (e.g. [a-w]) you can add other characters: [A-LBCDF]<br />
- * - you can use multipliers behind groups: [AKMN]{1,4} or [abcdep]{18}<br />
+ * - groups can be negated: [^,;] - any printable ASCII character except the ones listed<br />
+ * - you can use multipliers behind groups, characters and parenthesis: [AKMN]{1,4} or [abcdep]{18} or (ab){2,}<br />
+ * - you can use the quantifiers ?, * and +. values are limited to the length of the field then<br />
+ * - you can use alternatives: (Mr|Mrs|Ms)\\. [A-Z][a-z]+<br />
+ * - you can use the predefined groups \\d, \\w and \\s and their negations \\D, \\W and \\S<br />
  * - you can use escape sequences in the pattern: [AHGJ\\-po]<br />
  * <br />
- * - you can NOT use * or ? because using these the program would be unable to determine how much characters
- *   to generate.<br />
- * - you can not use a logical or (|) character<br />
+ * - a dot stands for a dot - as in earlier versions - and not for any character. use a group instead.<br />
  * <br />
  * example:<br />
  * the pattern is:        [A-Za-z0-9\\-_]{1,10}@[A-Za-z0-9\\-_]{1,10}.[A-Za-z]{3}<br />
@@ -54,15 +58,19 @@ public class RegularExpressionDataGenerator
 	private static final int SEQUENCE_TYPE_LOWER_ALPHA = 1;
 	private static final int SEQUENCE_TYPE_NUMERIC     = 2;
 	
+	private static final int SEGMENT_LITERAL           = 0;
+	private static final int SEGMENT_GROUP             = 1;
+	private static final int SEGMENT_MULTIPLIER        = 2;
+	
 	/**
 	 *	method returns randomly generated test data according to a given
 	 *  regular expression pattern.
 	 *  
 	 *  not the complete set of regular expressions can be used. see description at the top.
 	 */
-	public String generateData(String regularExpressionPattern)
+	public String generateData(String regularExpressionPattern) throws Exception
 	{
-		return processPattern(regularExpressionPattern);
+		return new RegularExpressionAutomaton(regularExpressionPattern, -1).generate(new RandomSource());
 	}
 	
 	/**
@@ -75,7 +83,75 @@ public class RegularExpressionDataGenerator
 		return regularExpressionPattern.matches(testdata);
 	}
 	
-	private String processPattern(String pattern)
+	/**
+	 *	method returns the number of different values that can be generated for the given
+	 *  regular expression pattern. if the number exceeds the maximum value of a long,
+	 *  the maximum value of a long is returned.
+	 */
+	public long getNumberOfPossibleValues(String regularExpressionPattern) throws Exception
+	{
+		return new RegularExpressionAutomaton(regularExpressionPattern, -1).getNumberOfValues();
+	}
+	
+	/**
+	 *	for a pattern that consists of exactly one group with a fixed multiplier, such as
+	 *  [A-Z0-9]{8}, the method returns the distinct characters of the group. for any other
+	 *  pattern null is returned.
+	 */
+	public String getSingleGroupCharacters(String regularExpressionPattern)
+	{
+		String[] segment = getSingleGroup(regularExpressionPattern);
+		if(segment==null)
+		{
+			return null;
+		}
+		String characters = handleGroup(segment[SEGMENT_GROUP]);
+		StringBuilder distinctCharacters = new StringBuilder();
+		for(int i=0;i<characters.length();i++)
+		{
+			if(characters.indexOf(characters.charAt(i))==i)
+			{
+				distinctCharacters.append(characters.charAt(i));
+			}
+		}
+		return distinctCharacters.toString();
+	}
+	
+	/**
+	 *	for a pattern that consists of exactly one group with a fixed multiplier, such as
+	 *  [A-Z0-9]{8}, the method returns the multiplier. for any other pattern -1 is returned.
+	 */
+	public int getSingleGroupLength(String regularExpressionPattern)
+	{
+		String[] segment = getSingleGroup(regularExpressionPattern);
+		if(segment==null)
+		{
+			return -1;
+		}
+		return getMultiplierRange(segment[SEGMENT_MULTIPLIER])[0];
+	}
+	
+	private String[] getSingleGroup(String pattern)
+	{
+		ArrayList <String[]> segments = splitPattern(pattern);
+		if(segments.size()!=1 || segments.get(0)[SEGMENT_GROUP]==null || segments.get(0)[SEGMENT_LITERAL].length()>0)
+		{
+			return null;
+		}
+		int[] multiplier = getMultiplierRange(segments.get(0)[SEGMENT_MULTIPLIER]);
+		if(multiplier[0]!=multiplier[1])
+		{
+			return null;
+		}
+		return segments.get(0);
+	}
+	
+	/**
+	 * splits the pattern into segments. each segment consists of the literal characters
+	 * in front of a group, the group itself and its multiplier. the last segment may
+	 * only consist of literal characters, its group is null in this case.
+	 */
+	private ArrayList <String[]> splitPattern(String pattern)
 	{
 		final String startOfGroup = "[";
 		final String endOfGroup   = "]";
@@ -83,7 +159,7 @@ public class RegularExpressionDataGenerator
 		final String startOfMultiplier = "{";
 		final String endOfMultiplier = "}";
 		
-		StringBuffer buffer = new StringBuffer();
+		ArrayList <String[]> segments = new ArrayList <String[]>();
 		
 		do
 		{
@@ -93,8 +169,8 @@ public class RegularExpressionDataGenerator
 			// check if there is a group
 			if(posStart>=0 && posEnd>posStart)
 			{
-				// all before the group is not a group and will be added to the buffer as is
-				buffer.append(pattern.substring(0,posStart));
+				// all before the group is not a group and will be used as is
+				String literal = pattern.substring(0,posStart);
 				
 				String group = pattern.substring(posStart,posEnd+1);
 				
@@ -119,25 +195,27 @@ public class RegularExpressionDataGenerator
 					// set the remaining pattern, so no duplicate processing is done
 					pattern = "";
 				}
-				String possibleValues = handleGroup(group);
-				buffer.append(getRandomValue(possibleValues, multiplierString));
+				segments.add(new String[] {literal, group, multiplierString});
 			}
 			else //no group found, meaning there are only characters, but no groupings in the pattern
 			{
-				buffer.append(pattern);
+				segments.add(new String[] {pattern, null, null});
 				pattern="";
 			}
 		} while( pattern.length()>0);
-		return buffer.toString();
+		return segments;
 	}
 	
-	private String getRandomValue(String possibleValues, String multiplierString)
+	/**
+	 * returns the lowest and highest number of characters that a multiplier
+	 * such as {4} or {2,6} defines. if the multiplier can not be parsed, one
+	 * character is used.
+	 */
+	private int[] getMultiplierRange(String multiplierString)
 	{
 		int multiplierLow=1;
 		int multiplierHigh=1;
 		int posDevider= multiplierString.indexOf(",");
-		// default multiplier is one
-		int multiplier;
 		if (posDevider>=0)
 		{
 			try
@@ -148,34 +226,44 @@ public class RegularExpressionDataGenerator
 			catch(Exception ex)
 			{
 				// error with the numbers
-				multiplier=1;
 			}
-			int differenzHighLow = multiplierHigh - multiplierLow;
-			Random randomMultiplier = new Random();
-			multiplier = multiplierLow + randomMultiplier.nextInt(differenzHighLow+1);
 		}
 		else
 		{
 			try
 			{
-				multiplier = Integer.parseInt(multiplierString);
+				multiplierLow = Integer.parseInt(multiplierString);
+				multiplierHigh = multiplierLow;
 			}
 			catch(Exception ex)
 			{
 				// error with the number
-				multiplier=1;
 			}
 		}
-		StringBuffer buffer = new StringBuffer(multiplier);
-		
-		for (int i=0;i<(multiplier);i++)
+		return new int[] {multiplierLow, multiplierHigh};
+	}
+	
+	static long multiplySaturated(long value1, long value2)
+	{
+		if(value1!=0 && value2>Long.MAX_VALUE/value1)
 		{
-			Random random = new Random();
-			int randomNumber = random.nextInt(possibleValues.length());
-			buffer.append(possibleValues.substring(randomNumber,randomNumber+1));
+			return Long.MAX_VALUE;
 		}
-		return buffer.toString();
-		
+		return value1 * value2;
+	}
+	
+	/**
+	 * returns base to the power of exponent. if the result exceeds the maximum
+	 * value of a long, the maximum value of a long is returned.
+	 */
+	public static long powerSaturated(long base, int exponent)
+	{
+		long result = 1;
+		for(int i=0;i<exponent;i++)
+		{
+			result = multiplySaturated(result, base);
+		}
+		return result;
 	}
 	
 	private String handleGroup(String group)
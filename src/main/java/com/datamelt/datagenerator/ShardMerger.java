@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+import com.datamelt.datagenerator.util.ShardManifest;
+
+/**
+ * checks and merges the output files of the shards of a dataset.<br />
+ * <br />
+ * each shard generated with the argument -shard writes a manifest next to its output file.
+ * the merger reads the manifests of all shards and checks that they belong to the same
+ * dataset - same seed, row layout, output format and number of rows - that every shard is
+ * present exactly once and that the ranges of rows follow each other without gaps. the output
+ * file of each shard must have the length and checksum stored in its manifest.<br />
+ * <br />
+ * if an output file is specified, the output files of the shards are concatenated into it in
+ * the order of the shards. otherwise the shards are only checked.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class ShardMerger
+{
+	private ArrayList <File> manifestFiles = new ArrayList<File>();
+	private String outputfile;
+
+	public static void main(String[] args) throws Exception
+	{
+		if(args==null || args.length==0 || args[0].equals("-h") || args[0].equals("--help"))
+		{
+			help();
+			return;
+		}
+		ShardMerger merger = new ShardMerger();
+		for(int i=0;i<args.length;i++)
+		{
+			if(args[i].startsWith("-o="))
+			{
+				merger.setOutputfile(args[i].substring(3));
+			}
+			else
+			{
+				merger.addManifestFile(new File(args[i]));
+			}
+		}
+		ShardManifest[] shards = merger.check();
+		System.out.println("checked " + shards.length + " shards with " + shards[0].getTotalRows() + " rows of row layout: " + shards[0].getLayout());
+		if(merger.getOutputfile()!=null)
+		{
+			merger.merge(shards);
+			System.out.println("merged shards into: " + merger.getOutputfile());
+		}
+	}
+
+	/**
+	 * adds the manifest of a shard
+	 */
+	public void addManifestFile(File manifestFile)
+	{
+		manifestFiles.add(manifestFile);
+	}
+
+	/**
+	 * reads and checks the manifests and the output files of the shards. returns the
+	 * manifests in the order of the shards.
+	 */
+	public ShardManifest[] check() throws Exception
+	{
+		if(manifestFiles.size()==0)
+		{
+			throw new Exception("no manifest files specified");
+		}
+		ShardManifest first = ShardManifest.load(manifestFiles.get(0));
+		if(first.getNumberOfShards()<1)
+		{
+			throw new Exception("invalid number of shards in manifest file: " + manifestFiles.get(0));
+		}
+		ShardManifest[] shards = new ShardManifest[first.getNumberOfShards()];
+		File[] folders = new File[shards.length];
+		for(int i=0;i<manifestFiles.size();i++)
+		{
+			File manifestFile = manifestFiles.get(i);
+			ShardManifest manifest = ShardManifest.load(manifestFile);
+			if(manifest.getSeed()!=first.getSeed() || manifest.getLayoutChecksum()!=first.getLayoutChecksum() || !manifest.getFormat().equals(first.getFormat()) || manifest.getTotalRows()!=first.getTotalRows() || manifest.getNumberOfShards()!=first.getNumberOfShards())
+			{
+				throw new Exception("the shard of manifest file: " + manifestFile + " belongs to a different dataset than the shard of manifest file: " + manifestFiles.get(0));
+			}
+			if(manifest.getShard()<1 || manifest.getShard()>shards.length)
+			{
+				throw new Exception("invalid shard " + manifest.getShard() + " of " + shards.length + " in manifest file: " + manifestFile);
+			}
+			if(shards[manifest.getShard()-1]!=null)
+			{
+				throw new Exception("shard " + manifest.getShard() + " is specified twice: " + manifestFile);
+			}
+			shards[manifest.getShard()-1] = manifest;
+			folders[manifest.getShard()-1] = manifestFile.getAbsoluteFile().getParentFile();
+		}
+
+		long nextRow = 0;
+		for(int i=0;i<shards.length;i++)
+		{
+			if(shards[i]==null)
+			{
+				throw new Exception("shard " + (i+1) + " of " + shards.length + " is missing");
+			}
+			if(shards[i].getFirstRow()!=nextRow)
+			{
+				throw new Exception("shard " + (i+1) + " starts at row " + shards[i].getFirstRow() + " instead of row " + nextRow);
+			}
+			nextRow += shards[i].getNumberOfRows();
+
+			File file = getShardFile(shards[i], folders[i]);
+			if(!file.isFile())
+			{
+				throw new Exception("output file of shard " + (i+1) + " not found: " + file);
+			}
+			if(file.length()!=shards[i].getLength() || ShardManifest.getChecksum(file)!=shards[i].getChecksum())
+			{
+				throw new Exception("output file of shard " + (i+1) + " differs from its manifest: " + file);
+			}
+			// the file is resolved again when merging
+			shards[i].setFile(file.getPath());
+		}
+		if(nextRow!=first.getTotalRows())
+		{
+			throw new Exception("the shards contain " + nextRow + " rows instead of " + first.getTotalRows());
+		}
+		return shards;
+	}
+
+	/**
+	 * returns the output file of the shard, which is in the folder of the manifest
+	 */
+	private static File getShardFile(ShardManifest manifest, File folder)
+	{
+		File file = new File(manifest.getFile());
+		return file.isAbsolute() ? file : new File(folder, manifest.getFile());
+	}
+
+	/**
+	 * concatenates the output files of the checked shards into the output file
+	 */
+	public void merge(ShardManifest[] shards) throws Exception
+	{
+		FileOutputStream out = new FileOutputStream(outputfile);
+		try
+		{
+			FileChannel target = out.getChannel();
+			for(int i=0;i<shards.length;i++)
+			{
+				FileInputStream in = new FileInputStream(shards[i].getFile());
+				try
+				{
+					FileChannel source = in.getChannel();
+					long position = 0;
+					long length = source.size();
+					while(position<length)
+					{
+						position += source.transferTo(position, length - position, target);
+					}
+				}
+				finally
+				{
+					in.close();
+				}
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	public String getOutputfile()
+	{
+		return outputfile;
+	}
+
+	/**
+	 * sets the file the shards are merged into. if no file is set, the shards are only checked.
+	 */
+	public void setOutputfile(String outputfile)
+	{
+		this.outputfile = outputfile;
+	}
+
+	private static void help()
+	{
+		System.out.println("ShardMerger. checks the shards of a dataset generated with the argument -shard and merges them.");
+		System.out.println("the manifest files of all shards have to be specified.");
+		System.out.println();
+		System.out.println("ShardMerger -o=[output file] [manifest file] [manifest file] ...");
+		System.out.println("where: -o=[output file]     = optional. file the output files of the shards are merged into.");
+		System.out.println("                              if not specified, the shards are only checked");
+		System.out.println("       [manifest file]      = required. manifest file of a shard: [output file of the shard].manifest");
+		System.out.println();
+		System.out.println("example: java com.datamelt.datagenerator.ShardMerger -o=/home/dummy/test.txt /home/dummy/test.*.txt.manifest");
+		System.out.println();
+		System.out.println("copyright 2007-2017, uwe geercken - uwe.geercken@web.de");
+	}
+}
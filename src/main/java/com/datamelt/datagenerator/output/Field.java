@@ -18,8 +18,20 @@
  */ 
 package com.datamelt.datagenerator.output;
 
-import com.datamelt.datagenerator.RegularExpressionDataGenerator;
+import java.util.TimeZone;
+
+import com.datamelt.datagenerator.Category;
+import com.datamelt.datagenerator.RegularExpressionAutomaton;
+import com.datamelt.datagenerator.util.Checkpoint;
+import com.datamelt.datagenerator.util.CompiledDateFormat;
+import com.datamelt.datagenerator.util.Distribution;
+import com.datamelt.datagenerator.util.FeistelPermutation;
 import com.datamelt.datagenerator.util.Generator;
+import com.datamelt.datagenerator.util.KeyReservoir;
+import com.datamelt.datagenerator.util.RandomSource;
+import com.datamelt.datagenerator.util.RandomStringGenerator;
+import com.datamelt.datagenerator.util.SequenceAllocator;
+import com.datamelt.datagenerator.util.UniqueValueSet;
 
 /**
  * a field object defines a field of a row in an output ASCII file.
@@ -34,24 +46,106 @@ public class Field
 	private boolean fillWithSpaces;
 	private String value;
 	private String category;
+	private Category categoryWords;
+	private int generator = -1;
 	private String pattern;
 	private String id;
 	private String reference;
+	private String[] referenceSegments;
+	private Field[] referenceSegmentFields;
+	private boolean constant=false;
 	private long dateTimeMilliseconds;
 	private boolean output = true; // per default all fields will be output
 	private boolean referenceField=false;
 	private boolean valueGenerated=false; // steers if a value should be re-generated or not
+	private boolean unique=false;
+	private UniqueValueSet uniqueValues;
+	private long sequenceStart = 1;
+	private long sequenceStep = 1;
+	private int digits;
+	private SequenceAllocator sequenceAllocator;
+	private long sequencePosition;
+	private long sequenceBlockEnd;
+	private long numericValue;
+	private boolean numericValueGenerated=false; // the value is a number that is formatted when it is output
+	private long domain;
+	private Long key;
+	private FeistelPermutation permutation;
+	private char[] permutationCharacters;
+	private char[] permutationValue;
+	private String parent;
+	private Field parentField;
+	private long parentNumberOfRows;
+	private KeyReservoir keyReservoir;
+	private RandomSource random = new RandomSource();
+	private boolean rowSeeded=false;
+	private long rowSeed;
+	private long rowNumber;
+	private RandomStringGenerator randomStringGenerator;
+	private char[] randomValue;
+	private RegularExpressionAutomaton regularExpression;
+	private String minimum;
+	private String maximum;
+	private int scale = -1;
+	private char decimalSeparator = DEFAULT_DECIMAL_SEPARATOR;
+	private char thousandsSeparator;
+	private long numericMinimum;
+	private long numericMaximum;
+	private String distribution;
+	private Double distributionParameter;
+	private Distribution distributionSampler;
+	private String sampling;
+	private long samplingKey;
+	private FeistelPermutation samplingPermutation;
+	private long samplingCycle;
+	private String condition;
+	private Field[] conditionFields;
+	private int cardinality;
+	private String[] poolValues;
+	private long[] poolNumbers;
+	private boolean poolNumeric;
+	private CompiledDateFormat dateFormat;
+	private String timeSeriesStart;
+	private String interval;
+	private String arrival;
+	private String jitter;
+	private double seasonality;
+	private boolean timeSeries=false;
+	private double timeSeriesPosition;
+	private long timeSeriesStartMilliseconds;
+	private double intervalMilliseconds;
+	private boolean randomArrival;
+	private long jitterMilliseconds;
+	private long previousDateTimeMilliseconds = Long.MIN_VALUE;
+	private String column;
 	
 	
-	private static final String POSSIBLE_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz1234567890";
-	private static String possibleCharacters        = POSSIBLE_CHARACTERS;
+	public static final String DEFAULT_POSSIBLE_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz1234567890";
+	private String possibleCharacters               = DEFAULT_POSSIBLE_CHARACTERS;
 	private static final String spaceCharacter      = " ";
 	
+	public static final String SAMPLING_RANDOM      = "random";
+	public static final String SAMPLING_PERMUTATION = "permutation";
+	
 	public static final int TYPE_CATEGORY           = 0;
 	public static final int TYPE_RANDOM             = 1;
 	public static final int TYPE_REGEX              = 2;
 	public static final int TYPE_DATETIME           = 3;
 	public static final int TYPE_REFERENCE          = 4;
+	public static final int TYPE_SEQUENCE           = 5;
+	public static final int TYPE_PERMUTATION        = 6;
+	public static final int TYPE_FOREIGNKEY         = 7;
+	public static final int TYPE_INTEGER            = 8;
+	public static final int TYPE_LONG               = 9;
+	public static final int TYPE_DECIMAL            = 10;
+	
+	public static final int DEFAULT_DECIMAL_SCALE       = 2;
+	public static final char DEFAULT_DECIMAL_SEPARATOR  = '.';
+	
+	public static final String ARRIVAL_FIXED            = "fixed";
+	public static final String ARRIVAL_RANDOM           = "random";
+	
+	private static final long MILLISECONDS_PER_DAY      = 86400000L;
 	
 	/**
 	 * default constructor
@@ -92,10 +186,20 @@ public class Field
 	 * it will cut then characters that are exceeding it.
 	 */
 	public void setValue(String value)
+	{
+		numericValueGenerated = false;
+		this.value = formatValue(value);
+	}
+	
+	/**
+	 * shortens the value to the length of the field or fills it with spaces
+	 * up to the length of the field
+	 */
+	private String formatValue(String value)
 	{
 		if(value.length()>length && length!=-1)
 		{
-			this.value = value.substring(0,length);
+			return value.substring(0,length);
 		}
 		else if(value.length()<length)
 		{
@@ -108,11 +212,189 @@ public class Field
 					buffer.append(spaceCharacter);
 				}
 			}
-			this.value = buffer.toString();
+			return buffer.toString();
+		}
+		else
+		{
+			return value;	
+		}
+	}
+	
+	/**
+	 * sets a numeric value. the value is formatted only when it is output or when
+	 * it is referenced by another field.
+	 */
+	public void setNumericValue(long numericValue)
+	{
+		this.numericValue = numericValue;
+		this.numericValueGenerated = true;
+		this.value = null;
+	}
+	
+	/**
+	 * appends the value of the field to the buffer. numeric values are formatted
+	 * directly into the buffer, otherwise the value is appended as it is.
+	 */
+	public void appendValue(StringBuilder buffer)
+	{
+		if(value==null && numericValueGenerated)
+		{
+			appendNumericValue(buffer, numericValue);
+		}
+		else
+		{
+			buffer.append(value);
+		}
+	}
+	
+	/**
+	 * formats the number directly into the buffer, shortened to the length
+	 * of the field or filled with spaces up to the length of the field
+	 */
+	private void appendNumericValue(StringBuilder buffer, long number)
+	{
+		int start = buffer.length();
+		Generator.appendNumber(buffer, number, digits, type==TYPE_DECIMAL ? scale : 0, decimalSeparator, thousandsSeparator);
+		int valueLength = buffer.length() - start;
+		if(valueLength>length && length!=-1)
+		{
+			buffer.setLength(start + length);
+		}
+		else if(fillWithSpaces)
+		{
+			for(int i=valueLength;i<length;i++)
+			{
+				buffer.append(spaceCharacter);
+			}
+		}
+	}
+	
+	/**
+	 * for sequence and permutation fields, the method returns the value the
+	 * field generates at the given position - the number of the row - without
+	 * changing the state of the field.
+	 */
+	public String getValueAtPosition(long position)
+	{
+		if(type==TYPE_PERMUTATION && permutationCharacters!=null)
+		{
+			char[] characters = new char[permutationValue.length];
+			formatPermutationCharacters(permutation.permute(position), characters);
+			return formatValue(new String(characters));
+		}
+		long number;
+		if(type==TYPE_SEQUENCE)
+		{
+			number = sequenceStart + position * sequenceStep;
+		}
+		else
+		{
+			number = permutation.permute(position);
+		}
+		StringBuilder buffer = new StringBuilder();
+		appendNumericValue(buffer, number);
+		return buffer.toString();
+	}
+	
+	/**
+	 * method picks a key of the parent layout. keys of sequence and permutation fields
+	 * are calculated from a random row number of the parent layout, other keys are taken
+	 * from the sample of keys the parent field collected while its rows were generated.
+	 */
+	public void generateForeignKeyValue() throws Exception
+	{
+		if(parentField==null)
+		{
+			throw new Exception("foreign key field is not linked to the parent layout: " + parent);
+		}
+		else if(parentField.getType()==TYPE_SEQUENCE || parentField.getType()==TYPE_PERMUTATION)
+		{
+			setValue(parentField.getValueAtPosition(random.nextLong(parentNumberOfRows)));
+		}
+		else if(parentField.getKeyReservoir()!=null && parentField.getKeyReservoir().size()>0)
+		{
+			setValue(parentField.getKeyReservoir().getRandomKey(random));
+		}
+		else
+		{
+			throw new Exception("no keys were generated by the parent field: " + parent);
+		}
+	}
+	
+	/**
+	 * method generates the next value of a sequence. the positions of the sequence
+	 * are claimed in blocks from the sequence allocator of the field. the value is
+	 * the start value plus the position multiplied by the step.
+	 */
+	public void generateSequenceValue()
+	{
+		if(sequencePosition==sequenceBlockEnd)
+		{
+			sequencePosition = sequenceAllocator.claimBlock();
+			sequenceBlockEnd = sequencePosition + sequenceAllocator.getBlockSize();
+		}
+		setNumericValue(sequenceStart + sequencePosition * sequenceStep);
+		sequencePosition++;
+	}
+	
+	/**
+	 * method generates a random number between the minimum and maximum of the field, both
+	 * inclusive. for decimal fields the number is the value multiplied by ten to the power
+	 * of the scale, so that no floating point values are used.
+	 */
+	public void generateNumberValue()
+	{
+		long range = numericMaximum - numericMinimum + 1;
+		long number;
+		if(range>0)
+		{
+			number = numericMinimum + nextIndex(range);
+		}
+		else if(distribution!=null)
+		{
+			// the range exceeds the maximum value of a long
+			number = numericMinimum + nextIndex(Long.MAX_VALUE);
+		}
+		else
+		{
+			// the range exceeds the maximum value of a long
+			do
+			{
+				number = random.nextLong();
+			} while(number<numericMinimum || number>numericMaximum);
+		}
+		setNumericValue(number);
+	}
+	
+	/**
+	 * method generates the value for the given row number by mapping it through the
+	 * permutation of the field. if the field has a set of characters, the result is
+	 * formatted as a fixed length string of these characters, otherwise as a number.
+	 */
+	public void generatePermutationValue(long rowNumber)
+	{
+		long number = permutation.permute(rowNumber);
+		if(permutationCharacters!=null)
+		{
+			formatPermutationCharacters(number, permutationValue);
+			setValue(new String(permutationValue));
 		}
 		else
 		{
-			this.value = value;	
+			setNumericValue(number);
+		}
+	}
+	
+	/**
+	 * writes the number using the characters of the permutation field as digits
+	 */
+	private void formatPermutationCharacters(long number, char[] characters)
+	{
+		int base = permutationCharacters.length;
+		for(int i=characters.length-1;i>=0;i--)
+		{
+			characters[i] = permutationCharacters[(int)(number % base)];
+			number /= base;
 		}
 	}
 	
@@ -122,17 +404,29 @@ public class Field
 	 */
 	public void generateRandomValue()
 	{
-		value = Generator.generateRandomValue(possibleCharacters, length);
+		if(randomStringGenerator==null)
+		{
+			randomStringGenerator = new RandomStringGenerator(possibleCharacters);
+			randomValue = new char[length];
+		}
+		randomStringGenerator.fill(randomValue, 0, length, random);
+		numericValueGenerated = false;
+		value = new String(randomValue);
 	}
 	
 	/**
 	 * method generates a value based on the regular expression pattern provided
-	 * and up to the length of the field as specified.
+	 * and up to the length of the field as specified. if the pattern has no value
+	 * that short, the value is shortened to the length of the field.
 	 */
 	public void generateRegularExpressionValue()
 	{
-		RegularExpressionDataGenerator generator = new RegularExpressionDataGenerator();
-		value = generator.generateData(pattern);
+		numericValueGenerated = false;
+		value = regularExpression.generate(random);
+		if(regularExpression.isShortened())
+		{
+			value = formatValue(value);
+		}
 	}
 	
 	/**
@@ -142,13 +436,287 @@ public class Field
 	 */
 	public void generateDateTimeValue(long minimumMilliSeconds, long maximumMilliSeconds)
 	{
-		dateTimeMilliseconds = Generator.getRandomMilliseconds(minimumMilliSeconds, maximumMilliSeconds);
+		if(timeSeries)
+		{
+			generateTimeSeriesValue();
+		}
+		else
+		{
+			dateTimeMilliseconds = minimumMilliSeconds + nextIndex(Math.max(1, maximumMilliSeconds - minimumMilliSeconds));
+		}
+	}
+	
+	/**
+	 * method generates the next timestamp of a time series. the first timestamp is the
+	 * start of the series, each following one is later by the interval - either exactly
+	 * or, for random arrivals, by an exponentially distributed time with the interval as
+	 * the mean. with seasonality, the intervals are shorter around noon and longer around
+	 * midnight. the jitter moves each timestamp randomly, but never before the previous one.
+	 */
+	private void generateTimeSeriesValue()
+	{
+		long milliseconds;
+		if(!randomArrival && seasonality<=0)
+		{
+			// with a fixed interval the timestamp only depends on the number of the row
+			milliseconds = timeSeriesStartMilliseconds + (long)(rowNumber * intervalMilliseconds);
+		}
+		else
+		{
+			milliseconds = (long)timeSeriesPosition;
+			double step = intervalMilliseconds;
+			if(randomArrival)
+			{
+				step = -step * Math.log(1 - random.nextDouble());
+			}
+			if(seasonality>0)
+			{
+				long localMilliseconds = milliseconds + TimeZone.getDefault().getOffset(milliseconds);
+				double timeOfDay = (double)Math.floorMod(localMilliseconds, MILLISECONDS_PER_DAY) / MILLISECONDS_PER_DAY;
+				// the rate of the rows is highest at noon
+				step = step / (1 + seasonality * Math.cos(2 * Math.PI * (timeOfDay - 0.5)));
+			}
+			timeSeriesPosition += step;
+		}
+		if(jitterMilliseconds>0)
+		{
+			milliseconds += random.nextLong(2 * jitterMilliseconds + 1) - jitterMilliseconds;
+		}
+		if(milliseconds<previousDateTimeMilliseconds)
+		{
+			milliseconds = previousDateTimeMilliseconds;
+		}
+		previousDateTimeMilliseconds = milliseconds;
+		dateTimeMilliseconds = milliseconds;
+	}
+	
+	/**
+	 * turns the field into a time series, starting at the given timestamp and advancing
+	 * by the interval. for random arrivals the interval is the average time between rows.
+	 */
+	public void setTimeSeries(long startMilliseconds, double intervalMilliseconds, boolean randomArrival, long jitterMilliseconds)
+	{
+		this.timeSeries = true;
+		this.timeSeriesPosition = startMilliseconds;
+		this.timeSeriesStartMilliseconds = startMilliseconds;
+		this.intervalMilliseconds = intervalMilliseconds;
+		this.randomArrival = randomArrival;
+		this.jitterMilliseconds = jitterMilliseconds;
+		this.previousDateTimeMilliseconds = startMilliseconds;
+	}
+	
+	/**
+	 * returns if the field generates the timestamps of a time series
+	 */
+	public boolean isTimeSeries()
+	{
+		return timeSeries;
+	}
+	
+	/**
+	 * returns if the value of the field depends on the values generated for the rows before
+	 * it: the timestamps of a time series with random arrivals or seasonality are the sum of
+	 * all intervals before and a jitter of more than half the interval can move a timestamp
+	 * before that of the previous row.
+	 */
+	public boolean dependsOnPreviousRows()
+	{
+		return timeSeries && (randomArrival || seasonality>0 || 2 * jitterMilliseconds>=intervalMilliseconds);
+	}
+	
+	/**
+	 * sets the seed from which the random numbers of each row are derived. the random numbers
+	 * of a row then only depend on the seed and the number of the row, so any row can be
+	 * generated without generating the rows before it. null removes the row seed, so the
+	 * random numbers continue from row to row.
+	 */
+	public void setRowSeed(Long rowSeed)
+	{
+		this.rowSeed = rowSeed!=null ? rowSeed : 0;
+		this.rowSeeded = rowSeed!=null;
+	}
+	
+	/**
+	 * starts the row with the given number. if the field has a row seed, the generator of
+	 * random numbers is set to the state derived from the seed and the number of the row.
+	 */
+	public void startRow(long rowNumber)
+	{
+		this.rowNumber = rowNumber;
+		if(rowSeeded)
+		{
+			random.setState(RandomSource.mix(rowSeed + rowNumber));
+		}
+	}
+	
+	/**
+	 * positions the sequence and the time series of the field at the given row, so that the
+	 * rows can be generated starting at a row other than the first one
+	 */
+	public void moveToRow(long rowNumber)
+	{
+		if(type==TYPE_SEQUENCE)
+		{
+			sequenceAllocator.setPosition(rowNumber);
+			sequencePosition = 0;
+			sequenceBlockEnd = 0;
+		}
+		if(timeSeries)
+		{
+			// the timestamp of the previous row is not known. it is earlier than that of
+			// this row, as long as the value does not depend on the rows before
+			previousDateTimeMilliseconds = rowNumber>0 ? Long.MIN_VALUE : timeSeriesStartMilliseconds;
+		}
+	}
+	
+	/**
+	 * stores the state of the field in the checkpoint, using the given prefix for the keys:
+	 * the state of the generator of random numbers, the position of a sequence and the
+	 * position of a time series
+	 */
+	public void saveState(Checkpoint checkpoint, String prefix)
+	{
+		checkpoint.setLong(prefix + "random", random.getState());
+		if(type==TYPE_SEQUENCE)
+		{
+			checkpoint.setLong(prefix + "sequence", sequencePosition);
+		}
+		if(timeSeries)
+		{
+			checkpoint.set(prefix + "timeseries", Double.toString(timeSeriesPosition));
+			checkpoint.setLong(prefix + "previous", previousDateTimeMilliseconds);
+		}
+	}
+	
+	/**
+	 * sets the field to the state stored in the checkpoint. the field must have been
+	 * prepared before.
+	 */
+	public void restoreState(Checkpoint checkpoint, String prefix) throws Exception
+	{
+		random.setState(checkpoint.getLong(prefix + "random"));
+		if(type==TYPE_SEQUENCE)
+		{
+			// the next block of the sequence starts at the stored position
+			sequenceAllocator.setPosition(checkpoint.getLong(prefix + "sequence"));
+			sequencePosition = 0;
+			sequenceBlockEnd = 0;
+		}
+		if(timeSeries)
+		{
+			if(checkpoint.get(prefix + "timeseries")==null)
+			{
+				throw new Exception("entry missing in checkpoint file: " + checkpoint.getFile() + " - " + prefix + "timeseries");
+			}
+			timeSeriesPosition = Double.parseDouble(checkpoint.get(prefix + "timeseries"));
+			previousDateTimeMilliseconds = checkpoint.getLong(prefix + "previous");
+		}
+	}
+	
+	/**
+	 * method picks a word from the category, following the distribution of the field
+	 */
+	public void generateCategoryValue(Category category) throws Exception
+	{
+		if(category.getNumberOfWords()==0)
+		{
+			throw new Exception("no words found in category: " + category.getType());
+		}
+		setValue(category.getWord((int)nextIndex(category.getNumberOfWords())));
+	}
+	
+	/**
+	 * takes the word of the category for the given row from a permutation of the words,
+	 * so that every word is used once before any word is used again. the row number is
+	 * mapped to the index of the word, so the words are neither copied nor shuffled. each
+	 * cycle through the words uses another permutation, derived from the sampling key.
+	 */
+	public void generateCategoryPermutationValue(Category category, long rowNumber) throws Exception
+	{
+		int numberOfWords = category.getNumberOfWords();
+		if(numberOfWords==0)
+		{
+			throw new Exception("no words found in category: " + category.getType());
+		}
+		long cycle = rowNumber / numberOfWords;
+		if(samplingPermutation==null || cycle!=samplingCycle || samplingPermutation.getDomainSize()!=numberOfWords)
+		{
+			samplingPermutation = new FeistelPermutation(numberOfWords, RandomSource.mix(samplingKey + cycle));
+			samplingCycle = cycle;
+		}
+		setValue(category.getWord((int)samplingPermutation.permute(rowNumber % numberOfWords)));
+	}
+	
+	/**
+	 * picks a word among the words of the category having the given key. the words
+	 * of the category must have been grouped by their keys.
+	 */
+	public void generateConditionalCategoryValue(Category category, String key) throws Exception
+	{
+		int[] group = category.getGroup(key);
+		if(group==null)
+		{
+			throw new Exception("no words found in category: " + category.getType() + " for key: " + key);
+		}
+		setValue(category.getGroupedWord(group[0] + (int)nextIndex(group[1])));
+	}
+	
+	/**
+	 * picks a value from the pool of values generated for a field with a cardinality.
+	 * the distribution of the field, if any, applies to the positions in the pool.
+	 */
+	public void generatePoolValue()
+	{
+		int index = (int)nextIndex(poolValues.length);
+		value = poolValues[index];
+		numericValue = poolNumbers[index];
+		numericValueGenerated = poolNumeric;
+		if(type==TYPE_DATETIME)
+		{
+			dateTimeMilliseconds = poolNumbers[index];
+		}
+	}
+	
+	/**
+	 * sets the pool of values of a field with a cardinality: the formatted values and
+	 * the numbers or - for datetime fields - the dates they were generated from
+	 */
+	public void setPool(String[] poolValues, long[] poolNumbers, boolean poolNumeric)
+	{
+		this.poolValues = poolValues;
+		this.poolNumbers = poolNumbers;
+		this.poolNumeric = poolNumeric;
+	}
+	
+	/**
+	 * returns a number between zero and the number of values minus one. the numbers
+	 * follow the distribution of the field or are uniformly distributed if the field
+	 * has no distribution.
+	 */
+	private long nextIndex(long numberOfValues)
+	{
+		if(distribution==null)
+		{
+			return random.nextLong(numberOfValues);
+		}
+		if(distributionSampler==null)
+		{
+			// created once. the number of values may differ from row to row, e.g. for the groups of a conditional category
+			double parameter = distributionParameter!=null ? distributionParameter : Distribution.getDefaultParameter(distribution);
+			distributionSampler = new Distribution(distribution, parameter, numberOfValues);
+		}
+		return distributionSampler.next(random, numberOfValues);
 	}
 	
 	public String formatDateTimeValue()
 	{
-		// format the random date with the given pattern
-		return Generator.formatDateTimeValue(dateTimeMilliseconds, pattern);
+		// the pattern is compiled once. only the part of the text that differs
+		// from the last formatted date is rendered again
+		if(dateFormat==null)
+		{
+			dateFormat = new CompiledDateFormat(pattern);
+		}
+		return dateFormat.format(dateTimeMilliseconds);
 	}
 	
 	/**
@@ -156,6 +724,12 @@ public class Field
 	 */
 	public String getValue()
 	{
+		if(value==null && numericValueGenerated)
+		{
+			StringBuilder buffer = new StringBuilder();
+			appendValue(buffer);
+			value = buffer.toString();
+		}
 		return value;
 	}
 
@@ -230,6 +804,35 @@ public class Field
 	public void setCategory(String category) 
 	{
 		this.category = category;
+		this.categoryWords = null;
+	}
+	
+	/**
+	 * returns the loaded category the words of the field are taken from or null
+	 * if it has not been loaded yet
+	 */
+	public Category getCategoryWords()
+	{
+		return categoryWords;
+	}
+	
+	public void setCategoryWords(Category categoryWords)
+	{
+		this.categoryWords = categoryWords;
+	}
+	
+	/**
+	 * returns how the value of the field is generated. it is determined once,
+	 * when the layout is prepared.
+	 */
+	public int getGenerator()
+	{
+		return generator;
+	}
+	
+	public void setGenerator(int generator)
+	{
+		this.generator = generator;
 	}
 	
 	/**
@@ -242,18 +845,20 @@ public class Field
 	
 	/**
 	 * sets the possible characters that shall be used when
-	 * generating random data 
+	 * generating random data. if null, the default characters
+	 * are used.
 	 */
-	public static void setPossibleCharacters(String characters)
+	public void setPossibleCharacters(String characters)
 	{
-		possibleCharacters = characters;
+		possibleCharacters = characters!=null ? characters : DEFAULT_POSSIBLE_CHARACTERS;
+		randomStringGenerator = null;
 	}
 	
 	/**
 	 * gets the possible characters that shall be used when
 	 * generating random data 
 	 */
-	public static String getPossibleCharacters()
+	public String getPossibleCharacters()
 	{
 		return possibleCharacters;
 	}
@@ -335,4 +940,542 @@ public class Field
 	{
 		this.valueGenerated = valueGenerated;
 	}
+
+	/**
+	 * returns the parts of the reference: the ids of the referenced fields
+	 * and the fixed strings in between
+	 */
+	public String[] getReferenceSegments()
+	{
+		return referenceSegments;
+	}
+
+	/**
+	 * returns the referenced fields for the parts of the reference. for a part
+	 * that is a fixed string, the array contains null.
+	 */
+	public Field[] getReferenceSegmentFields()
+	{
+		return referenceSegmentFields;
+	}
+
+	/**
+	 * sets the parts of the reference and the fields they reference, so that the
+	 * reference does not have to be split and looked up for every row
+	 */
+	public void setReferenceSegments(String[] referenceSegments, Field[] referenceSegmentFields)
+	{
+		this.referenceSegments = referenceSegments;
+		this.referenceSegmentFields = referenceSegmentFields;
+	}
+
+	/**
+	 * returns if the field has the same value in every row. the value is set
+	 * once and not generated again.
+	 */
+	public boolean isConstant()
+	{
+		return constant;
+	}
+
+	public void setConstant(boolean constant)
+	{
+		this.constant = constant;
+	}
+
+	/**
+	 * returns if the values generated for this field have to be unique
+	 */
+	public boolean isUnique()
+	{
+		return unique;
+	}
+
+	/**
+	 * defines if the values generated for this field have to be unique
+	 */
+	public void setUnique(boolean unique)
+	{
+		this.unique = unique;
+	}
+
+	/**
+	 * returns the set of values that have been generated so far for
+	 * a unique field
+	 */
+	public UniqueValueSet getUniqueValues()
+	{
+		return uniqueValues;
+	}
+
+	public void setUniqueValues(UniqueValueSet uniqueValues)
+	{
+		this.uniqueValues = uniqueValues;
+	}
+
+	/**
+	 * returns the first value of a sequence field
+	 */
+	public long getSequenceStart()
+	{
+		return sequenceStart;
+	}
+
+	public void setSequenceStart(long sequenceStart)
+	{
+		this.sequenceStart = sequenceStart;
+	}
+
+	/**
+	 * returns the difference between two consecutive values of a sequence field
+	 */
+	public long getSequenceStep()
+	{
+		return sequenceStep;
+	}
+
+	public void setSequenceStep(long sequenceStep)
+	{
+		this.sequenceStep = sequenceStep;
+	}
+
+	/**
+	 * returns the minimum number of digits of a numeric value. shorter values
+	 * are filled with leading zeros.
+	 */
+	public int getDigits()
+	{
+		return digits;
+	}
+
+	public void setDigits(int digits)
+	{
+		this.digits = digits;
+	}
+
+	/**
+	 * returns the allocator from which a sequence field claims its positions
+	 */
+	public SequenceAllocator getSequenceAllocator()
+	{
+		return sequenceAllocator;
+	}
+
+	/**
+	 * sets the allocator from which a sequence field claims its positions. fields
+	 * sharing the same allocator never generate the same value.
+	 */
+	public void setSequenceAllocator(SequenceAllocator sequenceAllocator)
+	{
+		this.sequenceAllocator = sequenceAllocator;
+		this.sequencePosition = 0;
+		this.sequenceBlockEnd = 0;
+	}
+
+	/**
+	 * returns the number of different values of a permutation field
+	 */
+	public long getDomain()
+	{
+		return domain;
+	}
+
+	public void setDomain(long domain)
+	{
+		this.domain = domain;
+	}
+
+	/**
+	 * returns the key of a permutation field or null if none was specified
+	 */
+	public Long getKey()
+	{
+		return key;
+	}
+
+	/**
+	 * sets the key of a permutation field. the same key always produces
+	 * the same order of values.
+	 */
+	public void setKey(Long key)
+	{
+		this.key = key;
+	}
+
+	/**
+	 * sets the permutation used to map row numbers to values. if characters are
+	 * specified, each value is formatted as a string of the given length using these
+	 * characters, otherwise it is formatted as a number.
+	 */
+	public void setPermutation(FeistelPermutation permutation, String characters, int valueLength)
+	{
+		this.permutation = permutation;
+		if(characters!=null)
+		{
+			this.permutationCharacters = characters.toCharArray();
+			this.permutationValue = new char[valueLength];
+		}
+		else
+		{
+			this.permutationCharacters = null;
+			this.permutationValue = null;
+		}
+	}
+
+	/**
+	 * returns the parent key a foreign key field references, in the form:
+	 * [name of the parent layout].[id of the key field]
+	 */
+	public String getParent()
+	{
+		return parent;
+	}
+
+	public void setParent(String parent)
+	{
+		this.parent = parent;
+	}
+
+	/**
+	 * returns the key field of the parent layout of a foreign key field or null
+	 * if the field is not linked to a parent layout
+	 */
+	public Field getParentField()
+	{
+		return parentField;
+	}
+
+	/**
+	 * sets the key field of the parent layout and the number of rows the parent
+	 * layout generates
+	 */
+	public void setParentField(Field parentField, long parentNumberOfRows)
+	{
+		this.parentField = parentField;
+		this.parentNumberOfRows = parentNumberOfRows;
+	}
+
+	/**
+	 * returns the sample of generated values that is kept when the field is
+	 * the key of a parent layout, or null if no sample is kept
+	 */
+	public KeyReservoir getKeyReservoir()
+	{
+		return keyReservoir;
+	}
+
+	public void setKeyReservoir(KeyReservoir keyReservoir)
+	{
+		this.keyReservoir = keyReservoir;
+	}
+
+	/**
+	 * returns the generator of random numbers used by this field
+	 */
+	public RandomSource getRandom()
+	{
+		return random;
+	}
+
+	public void setRandom(RandomSource random)
+	{
+		this.random = random;
+	}
+
+	/**
+	 * returns the compiled regular expression of a regex field
+	 */
+	public RegularExpressionAutomaton getRegularExpression()
+	{
+		return regularExpression;
+	}
+
+	public void setRegularExpression(RegularExpressionAutomaton regularExpression)
+	{
+		this.regularExpression = regularExpression;
+	}
+
+	/**
+	 * returns the minimum value of a numeric field as specified in the layout
+	 */
+	public String getMinimum()
+	{
+		return minimum;
+	}
+
+	public void setMinimum(String minimum)
+	{
+		this.minimum = minimum;
+	}
+
+	/**
+	 * returns the maximum value of a numeric field as specified in the layout
+	 */
+	public String getMaximum()
+	{
+		return maximum;
+	}
+
+	public void setMaximum(String maximum)
+	{
+		this.maximum = maximum;
+	}
+
+	/**
+	 * returns the number of digits after the decimal separator of a decimal field
+	 * or -1 if it was not specified
+	 */
+	public int getScale()
+	{
+		return scale;
+	}
+
+	public void setScale(int scale)
+	{
+		this.scale = scale;
+	}
+
+	public char getDecimalSeparator()
+	{
+		return decimalSeparator;
+	}
+
+	public void setDecimalSeparator(char decimalSeparator)
+	{
+		this.decimalSeparator = decimalSeparator;
+	}
+
+	/**
+	 * returns the character used between groups of thousands or zero if
+	 * the digits are not grouped
+	 */
+	public char getThousandsSeparator()
+	{
+		return thousandsSeparator;
+	}
+
+	public void setThousandsSeparator(char thousandsSeparator)
+	{
+		this.thousandsSeparator = thousandsSeparator;
+	}
+
+	/**
+	 * sets the range of the generated numbers. for decimal fields the values
+	 * are multiplied by ten to the power of the scale.
+	 */
+	public void setNumericRange(long numericMinimum, long numericMaximum)
+	{
+		this.numericMinimum = numericMinimum;
+		this.numericMaximum = numericMaximum;
+	}
+
+	public long getNumericMinimum()
+	{
+		return numericMinimum;
+	}
+
+	public long getNumericMaximum()
+	{
+		return numericMaximum;
+	}
+
+	/**
+	 * returns the name of the distribution of the generated values or null
+	 * if the values are uniformly distributed
+	 */
+	public String getDistribution()
+	{
+		return distribution;
+	}
+
+	public void setDistribution(String distribution)
+	{
+		this.distribution = distribution;
+	}
+
+	/**
+	 * returns how the words of a category field are picked: random or permutation.
+	 * null means random.
+	 */
+	public String getSampling()
+	{
+		return sampling;
+	}
+
+	public void setSampling(String sampling)
+	{
+		this.sampling = sampling;
+	}
+
+	/**
+	 * returns the ids of the fields whose values are the keys of the words a category
+	 * field picks from, separated by slashes, or null if the field has no condition
+	 */
+	public String getCondition()
+	{
+		return condition;
+	}
+
+	public void setCondition(String condition)
+	{
+		this.condition = condition;
+	}
+
+	/**
+	 * returns the number of different values of the field or zero if it is not limited.
+	 * the values are generated once and picked from for every row.
+	 */
+	public int getCardinality()
+	{
+		return cardinality;
+	}
+
+	public void setCardinality(int cardinality)
+	{
+		this.cardinality = cardinality;
+	}
+
+	/**
+	 * returns the referenced fields of the condition
+	 */
+	public Field[] getConditionFields()
+	{
+		return conditionFields;
+	}
+
+	public void setConditionFields(Field[] conditionFields)
+	{
+		this.conditionFields = conditionFields;
+	}
+
+	/**
+	 * sets the key from which the permutations of the words of a category field
+	 * with permutation sampling are derived
+	 */
+	public void setSamplingKey(long samplingKey)
+	{
+		this.samplingKey = samplingKey;
+		this.samplingPermutation = null;
+	}
+
+	/**
+	 * returns the parameter of the distribution or null to use the default
+	 */
+	public Double getDistributionParameter()
+	{
+		return distributionParameter;
+	}
+
+	public void setDistributionParameter(Double distributionParameter)
+	{
+		this.distributionParameter = distributionParameter;
+	}
+
+	/**
+	 * returns the start of a time series as specified in the layout
+	 */
+	public String getTimeSeriesStart()
+	{
+		return timeSeriesStart;
+	}
+
+	public void setTimeSeriesStart(String timeSeriesStart)
+	{
+		this.timeSeriesStart = timeSeriesStart;
+	}
+
+	/**
+	 * returns the interval between the timestamps of a time series as specified
+	 * in the layout, e.g. 5s or 250ms
+	 */
+	public String getInterval()
+	{
+		return interval;
+	}
+
+	public void setInterval(String interval)
+	{
+		this.interval = interval;
+	}
+
+	/**
+	 * returns how the timestamps of a time series arrive: fixed or random
+	 */
+	public String getArrival()
+	{
+		return arrival;
+	}
+
+	public void setArrival(String arrival)
+	{
+		this.arrival = arrival;
+	}
+
+	/**
+	 * returns the maximum random shift of the timestamps of a time series
+	 * as specified in the layout
+	 */
+	public String getJitter()
+	{
+		return jitter;
+	}
+
+	public void setJitter(String jitter)
+	{
+		this.jitter = jitter;
+	}
+
+	/**
+	 * returns how much the rate of a time series varies over the day, between
+	 * zero (no variation) and one (no rows at midnight)
+	 */
+	public double getSeasonality()
+	{
+		return seasonality;
+	}
+
+	public void setSeasonality(double seasonality)
+	{
+		this.seasonality = seasonality;
+	}
+
+	/**
+	 * returns if the value of the field is a number that has not been formatted
+	 */
+	public boolean getNumericValueGenerated()
+	{
+		return numericValueGenerated;
+	}
+
+	/**
+	 * returns the numeric value of the field. for decimal fields it is the value
+	 * multiplied by ten to the power of the scale.
+	 */
+	public long getNumericValue()
+	{
+		return numericValue;
+	}
+
+	/**
+	 * returns the name of the database column the field is inserted into or null
+	 * if none was specified
+	 */
+	public String getColumn()
+	{
+		return column;
+	}
+
+	public void setColumn(String column)
+	{
+		this.column = column;
+	}
+
+	/**
+	 * returns the compiled pattern of a datetime field or null if no
+	 * value was formatted yet
+	 */
+	public CompiledDateFormat getDateFormat()
+	{
+		return dateFormat;
+	}
 }
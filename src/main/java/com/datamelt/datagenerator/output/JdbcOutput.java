@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.output;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import com.datamelt.datagenerator.util.LatencyHistogram;
+
+/**
+ * writes rows to a database table using jdbc.<br />
+ * <br />
+ * the rows are collected in batches of the given size. each batch is inserted by one of the
+ * connections using a prepared statement and a jdbc batch. every connection is filled by its
+ * own thread, so the rows are inserted over multiple connections in parallel while the next
+ * rows are generated. a connection commits whenever it has inserted the given number of rows
+ * since its last commit, and when the output is closed.<br />
+ * <br />
+ * values are bound as strings, numeric values as long or - for decimal fields - as big decimal
+ * values. the jdbc driver of the database must be on the classpath.<br />
+ * <br />
+ * the number of rows, the rate and the percentiles of the time needed to insert a batch are
+ * available when the output is closed.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class JdbcOutput
+{
+	public static final String JDBC_URL_PREFIX		= "jdbc:";
+
+	public static final int DEFAULT_BATCH_SIZE		= 1000;
+	public static final int DEFAULT_COMMIT_INTERVAL	= 100000;
+
+	// a batch without rows, telling a connection that there are no more rows
+	private static final ArrayList <Object[]> END_OF_ROWS = new ArrayList<Object[]>();
+
+	private String url;
+	private String user;
+	private String password;
+	private int batchSize;
+	private int commitInterval;
+	private int numberOfConnections;
+
+	private BlockingQueue <ArrayList<Object[]>> batches;
+	private ArrayList <Object[]> batch;
+	private ArrayList <ConnectionWriter> writers = new ArrayList<ConnectionWriter>();
+	private volatile Exception error;
+	private long numberOfRows;
+	private long startTime;
+	private long endTime;
+
+	/**
+	 * constructor for an output to the database with the given url. the batch size is the
+	 * number of rows inserted at once, the commit interval the number of rows after which
+	 * a connection commits. zero means that the rows are committed when the output is closed.
+	 */
+	public JdbcOutput(String url, String user, String password, int batchSize, int commitInterval, int numberOfConnections)
+	{
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.batchSize = Math.max(1, batchSize);
+		this.commitInterval = Math.max(0, commitInterval);
+		this.numberOfConnections = Math.max(1, numberOfConnections);
+	}
+
+	/**
+	 * opens the connections and prepares the insert statement for the given table. if column
+	 * names are given, the values are inserted into these columns, otherwise into the columns
+	 * of the table in their order.
+	 */
+	public void open(String table, String[] columns, int numberOfValues) throws Exception
+	{
+		String sql = getInsertStatement(table, columns, numberOfValues);
+		// two batches per connection may wait, so generating the rows does not run ahead too far
+		batches = new ArrayBlockingQueue<ArrayList<Object[]>>(2 * numberOfConnections);
+		try
+		{
+			for(int i=0;i<numberOfConnections;i++)
+			{
+				Connection connection = user!=null ? DriverManager.getConnection(url, user, password) : DriverManager.getConnection(url);
+				connection.setAutoCommit(false);
+				ConnectionWriter writer = new ConnectionWriter(connection, connection.prepareStatement(sql));
+				writers.add(writer);
+			}
+		}
+		catch(SQLException se)
+		{
+			closeConnections();
+			throw new Exception("error opening database connection to: " + url + " - " + se.getMessage());
+		}
+		startTime = System.nanoTime();
+		for(int i=0;i<writers.size();i++)
+		{
+			writers.get(i).start();
+		}
+		batch = new ArrayList<Object[]>(batchSize);
+	}
+
+	/**
+	 * returns the insert statement with a parameter for each value
+	 */
+	private static String getInsertStatement(String table, String[] columns, int numberOfValues)
+	{
+		StringBuilder sql = new StringBuilder("insert into ").append(table);
+		if(columns!=null)
+		{
+			sql.append(" (");
+			for(int i=0;i<columns.length;i++)
+			{
+				if(i>0)
+				{
+					sql.append(",");
+				}
+				sql.append(columns[i]);
+			}
+			sql.append(")");
+		}
+		sql.append(" values (");
+		for(int i=0;i<numberOfValues;i++)
+		{
+			if(i>0)
+			{
+				sql.append(",");
+			}
+			sql.append("?");
+		}
+		sql.append(")");
+		return sql.toString();
+	}
+
+	/**
+	 * adds the values of a row. when the batch is complete, it is handed to the
+	 * connections. the method waits if all connections are busy.
+	 */
+	public void write(Object[] values) throws Exception
+	{
+		batch.add(values);
+		numberOfRows++;
+		if(batch.size()>=batchSize)
+		{
+			flushBatch();
+		}
+	}
+
+	private void flushBatch() throws Exception
+	{
+		checkError();
+		if(batch.size()>0)
+		{
+			batches.put(batch);
+			batch = new ArrayList<Object[]>(batchSize);
+		}
+	}
+
+	/**
+	 * inserts the remaining rows, commits and closes the connections. an error of
+	 * any of the connections is reported here, if it was not reported before.
+	 */
+	public void close() throws Exception
+	{
+		try
+		{
+			flushBatch();
+		}
+		finally
+		{
+			for(int i=0;i<writers.size();i++)
+			{
+				batches.put(END_OF_ROWS);
+			}
+			for(int i=0;i<writers.size();i++)
+			{
+				writers.get(i).join();
+			}
+			endTime = System.nanoTime();
+			closeConnections();
+		}
+		checkError();
+	}
+
+	private void closeConnections()
+	{
+		for(int i=0;i<writers.size();i++)
+		{
+			try
+			{
+				writers.get(i).connection.close();
+			}
+			catch(SQLException se)
+			{
+				// nothing to do if the connection can not be closed
+			}
+		}
+	}
+
+	private void checkError() throws Exception
+	{
+		if(error!=null)
+		{
+			throw new Exception("error inserting rows into the database: " + error.getMessage());
+		}
+	}
+
+	/**
+	 * returns the number of rows written
+	 */
+	public long getNumberOfRows()
+	{
+		return numberOfRows;
+	}
+
+	/**
+	 * returns the number of rows inserted per second, from opening to closing the output
+	 */
+	public double getRowsPerSecond()
+	{
+		double seconds = (endTime - startTime) / 1e9;
+		return seconds>0 ? numberOfRows / seconds : 0;
+	}
+
+	/**
+	 * returns the times needed to insert the batches of all connections
+	 */
+	public LatencyHistogram getLatencies()
+	{
+		LatencyHistogram latencies = new LatencyHistogram();
+		for(int i=0;i<writers.size();i++)
+		{
+			latencies.add(writers.get(i).latencies);
+		}
+		return latencies;
+	}
+
+	/**
+	 * thread inserting the batches into the database using one connection
+	 */
+	private class ConnectionWriter extends Thread
+	{
+		private Connection connection;
+		private PreparedStatement statement;
+		private LatencyHistogram latencies = new LatencyHistogram();
+		private long uncommittedRows;
+
+		private ConnectionWriter(Connection connection, PreparedStatement statement)
+		{
+			this.connection = connection;
+			this.statement = statement;
+			setDaemon(true);
+		}
+
+		public void run()
+		{
+			try
+			{
+				ArrayList <Object[]> rows;
+				while((rows = batches.take())!=END_OF_ROWS)
+				{
+					// after an error the remaining batches are only taken, so that generating does not wait
+					if(error==null)
+					{
+						insert(rows);
+					}
+				}
+				if(error==null && uncommittedRows>0)
+				{
+					connection.commit();
+				}
+			}
+			catch(Exception e)
+			{
+				error = e;
+				// take the remaining batches until the end of the rows
+				try
+				{
+					while(batches.take()!=END_OF_ROWS)
+					{
+					}
+				}
+				catch(InterruptedException ie)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		private void insert(ArrayList <Object[]> rows) throws SQLException
+		{
+			long start = System.nanoTime();
+			for(int i=0;i<rows.size();i++)
+			{
+				Object[] values = rows.get(i);
+				for(int j=0;j<values.length;j++)
+				{
+					if(values[j] instanceof Long)
+					{
+						statement.setLong(j+1, (Long)values[j]);
+					}
+					else if(values[j] instanceof BigDecimal)
+					{
+						statement.setBigDecimal(j+1, (BigDecimal)values[j]);
+					}
+					else
+					{
+						statement.setString(j+1, (String)values[j]);
+					}
+				}
+				statement.addBatch();
+			}
+			statement.executeBatch();
+			uncommittedRows += rows.size();
+			if(commitInterval>0 && uncommittedRows>=commitInterval)
+			{
+				connection.commit();
+				uncommittedRows = 0;
+			}
+			latencies.record(System.nanoTime() - start);
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.TimeZone;
+
+/**
+ * writes the rows in the binary format of the postgresql copy command, which can be loaded
+ * using: copy [table] from '[file]' with (format binary) - or \copy in psql.<br />
+ * <br />
+ * each value is preceded by its length. the values are typed, so the columns of the table must
+ * have the matching types:<br />
+ * <br />
+ * - integer fields: integer (4 bytes)<br />
+ * - long, sequence and numeric permutation fields: bigint (8 bytes)<br />
+ * - decimal fields: numeric<br />
+ * - datetime fields: timestamp, without time zone<br />
+ * - all other fields: text or varchar<br />
+ * <br />
+ * all numbers are written in network byte order.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class PostgresCopyEncoder extends RowEncoder
+{
+	private static final byte[] SIGNATURE = {'P','G','C','O','P','Y','\n',(byte)0xff,'\r','\n',0};
+
+	// 2000-01-01 00:00:00, the start of the timestamps of postgresql, in milliseconds since 1970-01-01
+	private static final long POSTGRES_EPOCH_MILLISECONDS = 946684800000L;
+
+	private static final int NUMERIC_POSITIVE = 0x0000;
+	private static final int NUMERIC_NEGATIVE = 0x4000;
+	private static final int NUMERIC_BASE     = 10000;
+
+	private TimeZone timeZone = TimeZone.getDefault();
+	// the base 10000 digits of a numeric value, in reverse order
+	private short[] numericDigits = new short[12];
+
+	/**
+	 * constructor for an encoder writing to the given stream
+	 */
+	public PostgresCopyEncoder(OutputStream out)
+	{
+		super(out);
+	}
+
+	/**
+	 * writes the signature, the flags and the length of the header extension
+	 */
+	public void writeStart() throws IOException
+	{
+		ensureCapacity(SIGNATURE.length + 8);
+		System.arraycopy(SIGNATURE, 0, buffer, position, SIGNATURE.length);
+		position += SIGNATURE.length;
+		writeInt(0);
+		writeInt(0);
+	}
+
+	/**
+	 * writes the number of fields followed by the length and the value of each field
+	 */
+	public void writeRow(ArrayList <Field> fields) throws IOException
+	{
+		ensureCapacity(2);
+		writeShort(fields.size());
+		for(int i=0;i<fields.size();i++)
+		{
+			Field field = fields.get(i);
+			if(field.getNumericValueGenerated())
+			{
+				if(field.getType()==Field.TYPE_DECIMAL)
+				{
+					writeNumeric(field.getNumericValue(), field.getScale());
+				}
+				else if(field.getType()==Field.TYPE_INTEGER)
+				{
+					ensureCapacity(8);
+					writeInt(4);
+					writeInt((int)field.getNumericValue());
+				}
+				else
+				{
+					ensureCapacity(12);
+					writeInt(8);
+					writeLong(field.getNumericValue());
+				}
+			}
+			else if(field.getType()==Field.TYPE_DATETIME)
+			{
+				// microseconds since the start of the postgresql timestamps, in local time
+				long milliseconds = field.getDateTimeMilliseconds();
+				long localMilliseconds = milliseconds + timeZone.getOffset(milliseconds);
+				ensureCapacity(12);
+				writeInt(8);
+				writeLong((localMilliseconds - POSTGRES_EPOCH_MILLISECONDS) * 1000);
+			}
+			else
+			{
+				writeText(field.getValue());
+			}
+		}
+	}
+
+	/**
+	 * writes the text as utf-8, preceded by its length in bytes
+	 */
+	private void writeText(String text) throws IOException
+	{
+		ensureCapacity(4 + text.length() * 3);
+		int lengthPosition = position;
+		position += 4;
+		int length = writeUtf8(text, (char)0);
+		int end = position;
+		position = lengthPosition;
+		writeInt(length);
+		position = end;
+	}
+
+	/**
+	 * writes a decimal value - the given number divided by ten to the power of the scale -
+	 * in the binary format of the numeric type: the number of digits, the weight of the first
+	 * digit, the sign, the scale and the digits in base 10000.
+	 */
+	private void writeNumeric(long value, int scale) throws IOException
+	{
+		// the absolute value as an unsigned number, which also works for the minimum long value
+		long absolute = value<0 ? -value : value;
+		long divisor = 1;
+		for(int i=0;i<scale;i++)
+		{
+			divisor *= 10;
+		}
+		long integerPart = Long.divideUnsigned(absolute, divisor);
+		long fractionPart = Long.remainderUnsigned(absolute, divisor);
+
+		int numberOfDigits = 0;
+		// the last digit of the fraction is filled up with zeros, if the scale is not a multiple of four
+		int remainingDigits = scale % 4;
+		if(remainingDigits>0)
+		{
+			long power = 1;
+			for(int i=0;i<remainingDigits;i++)
+			{
+				power *= 10;
+			}
+			numericDigits[numberOfDigits++] = (short)((fractionPart % power) * (NUMERIC_BASE / power));
+			fractionPart /= power;
+		}
+		for(int i=0;i<scale/4;i++)
+		{
+			numericDigits[numberOfDigits++] = (short)(fractionPart % NUMERIC_BASE);
+			fractionPart /= NUMERIC_BASE;
+		}
+		int integerDigits = 0;
+		while(integerPart!=0)
+		{
+			numericDigits[numberOfDigits++] = (short)Long.remainderUnsigned(integerPart, NUMERIC_BASE);
+			integerPart = Long.divideUnsigned(integerPart, NUMERIC_BASE);
+			integerDigits++;
+		}
+
+		ensureCapacity(12 + 2 * numberOfDigits);
+		writeInt(8 + 2 * numberOfDigits);
+		writeShort(numberOfDigits);
+		// the weight is the power of 10000 of the first digit
+		writeShort(integerDigits - 1);
+		writeShort(value<0 ? NUMERIC_NEGATIVE : NUMERIC_POSITIVE);
+		writeShort(scale);
+		for(int i=numberOfDigits-1;i>=0;i--)
+		{
+			writeShort(numericDigits[i]);
+		}
+	}
+
+	/**
+	 * writes the trailer - a field count of -1 - and flushes the stream
+	 */
+	public void writeEnd() throws IOException
+	{
+		ensureCapacity(2);
+		writeShort(-1);
+		flush();
+	}
+}
@@ -19,6 +19,7 @@
 package com.datamelt.datagenerator.output;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
@@ -34,6 +35,14 @@ public class Row
 	HashMap <String,Field> referencedFields = new HashMap<String,Field>();
 	private int type;
 	private String separator = SEPARATOR_SEMICOLON;
+	private String name;
+	
+	// fixed length rows: the row with the constant fields filled in and spaces for the
+	// other fields, which are copied into it at their offsets
+	private char[] template;
+	private int[] offsets;
+	private char[] rowCharacters;
+	private StringBuilder fieldBuffer = new StringBuilder();
 	
 	public static final int TYPE_DELIMITED    = 0;
 	public static final int TYPE_FIXED_LENGTH = 1;
@@ -81,32 +90,100 @@ public class Row
 		addField(field);
 	}
 	
+	/**
+	 * prepares the template of a fixed length row. the template contains the values of
+	 * the constant fields and spaces at the positions of all other fields. it is only
+	 * prepared if all fields that are output have a length.
+	 * 
+	 * must be called again when the fields or their constant values change.
+	 */
+	public void compileTemplate()
+	{
+		template = null;
+		if(type!=TYPE_FIXED_LENGTH)
+		{
+			return;
+		}
+		int rowLength = 0;
+		int[] fieldOffsets = new int[fields.size()];
+		for (int i=0;i<fields.size();i++)
+		{
+			Field field = fields.get(i);
+			if(field.getOutput())
+			{
+				if(field.getLength()<0)
+				{
+					return;
+				}
+				fieldOffsets[i] = rowLength;
+				rowLength += field.getLength();
+			}
+		}
+		char[] characters = new char[rowLength];
+		Arrays.fill(characters, ' ');
+		for (int i=0;i<fields.size();i++)
+		{
+			Field field = fields.get(i);
+			if(field.getOutput() && field.isConstant())
+			{
+				String value = field.getValue();
+				value.getChars(0, Math.min(value.length(), field.getLength()), characters, fieldOffsets[i]);
+			}
+		}
+		offsets = fieldOffsets;
+		rowCharacters = new char[rowLength];
+		template = characters;
+	}
+	
 	/**
 	 * returns the value of the row as a whole, meaning all fields are
 	 * put together and the resulting value is returned, being either a
 	 * fixed length ASCII string or a string with appropriate delimiter.  
+	 * 
+	 * a fixed length row with a template starts as a copy of the template
+	 * and only the values of the fields that are not constant are copied
+	 * into it. values are shortened to the length of their field.
+	 * 
+	 * every field takes exactly its length, so each column starts at the same
+	 * position in every row. this includes the values of regex fields, which
+	 * the field does not fill with spaces and which were written without
+	 * trailing spaces before the template was introduced.
 	 */
 	public String getValue()
 	{
-		StringBuffer buffer = new StringBuffer();
+		if(template!=null)
+		{
+			System.arraycopy(template, 0, rowCharacters, 0, template.length);
+			for (int i=0;i<fields.size();i++)
+			{
+				Field field = fields.get(i);
+				if(field.getOutput() && !field.isConstant())
+				{
+					fieldBuffer.setLength(0);
+					field.appendValue(fieldBuffer);
+					fieldBuffer.getChars(0, Math.min(fieldBuffer.length(), field.getLength()), rowCharacters, offsets[i]);
+				}
+			}
+			return new String(rowCharacters);
+		}
+		
+		StringBuilder buffer = new StringBuilder();
+		boolean first = true;
 		for (int i=0;i<fields.size();i++)
 		{
 			Field field = fields.get(i);
 			if(field.getOutput())
 			{
-				buffer.append(field.getValue());
-				if(type==TYPE_DELIMITED)
+				// the separator is only put between the fields of a delimited row
+				if(type==TYPE_DELIMITED && !first)
 				{
 					buffer.append(separator);
 				}
+				field.appendValue(buffer);
+				first = false;
 			}
 		}
-		String value = buffer.toString();
-		if(type==TYPE_DELIMITED && value.endsWith(separator))
-		{
-			value = value.substring(0,value.length()-separator.length());
-		}
-		return value;
+		return buffer.toString();
 	}
 
 	/**
@@ -165,4 +242,18 @@ public class Row
 	{
 		this.referencedFields = referencedFields;
 	}
+
+	/**
+	 * returns the name of the row layout. fields of other layouts use the
+	 * name to reference the keys of this layout.
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	public void setName(String name)
+	{
+		this.name = name;
+	}
 }
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+/**
+ * writes the fields of the rows directly as bytes to a stream, without building a string
+ * for the row.<br />
+ * <br />
+ * the bytes are collected in a buffer, which is written to the stream when it is full.
+ * subclasses define the format: the start of the output, the encoding of a row and the end
+ * of the output. text is encoded as utf-8 character by character, numbers are written digit
+ * by digit.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public abstract class RowEncoder
+{
+	private static final int BUFFER_SIZE = 65536;
+
+	private OutputStream out;
+	protected byte[] buffer = new byte[BUFFER_SIZE];
+	protected int position;
+
+	/**
+	 * constructor for an encoder writing to the given stream
+	 */
+	public RowEncoder(OutputStream out)
+	{
+		this.out = out;
+	}
+
+	/**
+	 * writes what precedes the rows
+	 */
+	public abstract void writeStart() throws IOException;
+
+	/**
+	 * prepares the encoder to continue an output to which the given number of rows were
+	 * written before. what precedes the rows is not written again.
+	 */
+	public void resume(long numberOfRows) throws IOException
+	{
+	}
+
+	/**
+	 * writes the values of the given fields as one row
+	 */
+	public abstract void writeRow(ArrayList <Field> fields) throws IOException;
+
+	/**
+	 * writes what follows the rows and flushes the stream
+	 */
+	public abstract void writeEnd() throws IOException;
+
+	/**
+	 * writes the bytes in the buffer to the stream and flushes it
+	 */
+	public void flush() throws IOException
+	{
+		out.write(buffer, 0, position);
+		position = 0;
+		out.flush();
+	}
+
+	/**
+	 * makes sure that the given number of bytes fit into the buffer. if they do
+	 * not, the buffer is written to the stream first or - for values larger than
+	 * the buffer - enlarged.
+	 */
+	protected void ensureCapacity(int numberOfBytes) throws IOException
+	{
+		if(position + numberOfBytes>buffer.length)
+		{
+			out.write(buffer, 0, position);
+			position = 0;
+			if(numberOfBytes>buffer.length)
+			{
+				buffer = new byte[numberOfBytes];
+			}
+		}
+	}
+
+	protected void writeShort(int value)
+	{
+		buffer[position++] = (byte)(value >>> 8);
+		buffer[position++] = (byte)value;
+	}
+
+	protected void writeInt(int value)
+	{
+		buffer[position++] = (byte)(value >>> 24);
+		buffer[position++] = (byte)(value >>> 16);
+		buffer[position++] = (byte)(value >>> 8);
+		buffer[position++] = (byte)value;
+	}
+
+	protected void writeLong(long value)
+	{
+		writeInt((int)(value >>> 32));
+		writeInt((int)value);
+	}
+
+	/**
+	 * writes the characters of the text, which must only contain ascii characters
+	 */
+	protected void writeAscii(String text) throws IOException
+	{
+		ensureCapacity(text.length());
+		for(int i=0;i<text.length();i++)
+		{
+			buffer[position++] = (byte)text.charAt(i);
+		}
+	}
+
+	/**
+	 * writes the text encoded as utf-8. if the quote character is not zero, it is
+	 * doubled wherever it occurs in the text. returns the number of bytes written.
+	 */
+	protected int writeUtf8(String text, char quote) throws IOException
+	{
+		// a character needs at most three bytes, a surrogate pair four and a doubled quote two
+		ensureCapacity(text.length() * 3);
+		int start = position;
+		for(int i=0;i<text.length();i++)
+		{
+			char character = text.charAt(i);
+			if(character<0x80)
+			{
+				buffer[position++] = (byte)character;
+				if(character==quote && quote!=0)
+				{
+					buffer[position++] = (byte)character;
+				}
+			}
+			else if(character<0x800)
+			{
+				buffer[position++] = (byte)(0xc0 | (character >>> 6));
+				buffer[position++] = (byte)(0x80 | (character & 0x3f));
+			}
+			else if(Character.isHighSurrogate(character) && i+1<text.length() && Character.isLowSurrogate(text.charAt(i+1)))
+			{
+				int codePoint = Character.toCodePoint(character, text.charAt(++i));
+				buffer[position++] = (byte)(0xf0 | (codePoint >>> 18));
+				buffer[position++] = (byte)(0x80 | ((codePoint >>> 12) & 0x3f));
+				buffer[position++] = (byte)(0x80 | ((codePoint >>> 6) & 0x3f));
+				buffer[position++] = (byte)(0x80 | (codePoint & 0x3f));
+			}
+			else if(Character.isSurrogate(character))
+			{
+				// a surrogate without its pair can not be encoded
+				buffer[position++] = (byte)'?';
+			}
+			else
+			{
+				buffer[position++] = (byte)(0xe0 | (character >>> 12));
+				buffer[position++] = (byte)(0x80 | ((character >>> 6) & 0x3f));
+				buffer[position++] = (byte)(0x80 | (character & 0x3f));
+			}
+		}
+		return position - start;
+	}
+
+	/**
+	 * writes the number as decimal digits. if the scale is greater than zero, a decimal
+	 * point is put before the given number of last digits.
+	 */
+	protected void writeNumber(long value, int scale) throws IOException
+	{
+		ensureCapacity(22);
+		if(value<0)
+		{
+			buffer[position++] = '-';
+		}
+		// the absolute value as an unsigned number, which also works for the minimum long value
+		long absolute = value<0 ? -value : value;
+		int numberOfDigits = 1;
+		for(long rest=Long.divideUnsigned(absolute, 10);rest!=0;rest/=10)
+		{
+			numberOfDigits++;
+		}
+		// at least one digit before the decimal point
+		numberOfDigits = Math.max(numberOfDigits, scale + 1);
+		int end = position + numberOfDigits + (scale>0 ? 1 : 0);
+		int index = end;
+		for(int i=0;i<numberOfDigits;i++)
+		{
+			if(i==scale && scale>0)
+			{
+				buffer[--index] = '.';
+			}
+			buffer[--index] = (byte)('0' + Long.remainderUnsigned(absolute, 10));
+			absolute = Long.divideUnsigned(absolute, 10);
+		}
+		position = end;
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+/**
+ * writes the rows as a sql script of insert statements. each statement inserts a batch of
+ * rows:<br />
+ * <br />
+ * insert into [table] ([columns]) values (...),(...),...;<br />
+ * <br />
+ * numbers are written without quotes, using a dot as decimal point and without thousands
+ * separators. all other values are written in single quotes, quotes in the values are doubled.
+ * datetime fields are written as formatted by their pattern.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class SqlInsertEncoder extends RowEncoder
+{
+	private String statementStart;
+	private int batchSize;
+	private int rowsInStatement;
+
+	/**
+	 * constructor for an encoder writing insert statements for the given table to the given
+	 * stream. if column names are given, the values are inserted into these columns. the batch
+	 * size is the number of rows inserted by one statement.
+	 */
+	public SqlInsertEncoder(OutputStream out, String table, String[] columns, int batchSize)
+	{
+		super(out);
+		StringBuilder sql = new StringBuilder("insert into ").append(table);
+		if(columns!=null)
+		{
+			sql.append(" (");
+			for(int i=0;i<columns.length;i++)
+			{
+				if(i>0)
+				{
+					sql.append(",");
+				}
+				sql.append(columns[i]);
+			}
+			sql.append(")");
+		}
+		sql.append(" values\n");
+		this.statementStart = sql.toString();
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	public void writeStart() throws IOException
+	{
+	}
+
+	/**
+	 * continues the statement of the batch the last of the rows written before belongs to
+	 */
+	public void resume(long numberOfRows) throws IOException
+	{
+		rowsInStatement = (int)(numberOfRows % batchSize);
+	}
+
+	/**
+	 * writes the values of the row in parentheses. the first row of a batch starts a new
+	 * statement, the last row ends it.
+	 */
+	public void writeRow(ArrayList <Field> fields) throws IOException
+	{
+		if(rowsInStatement==0)
+		{
+			writeUtf8(statementStart, (char)0);
+		}
+		else
+		{
+			writeAscii(",\n");
+		}
+		writeAscii("(");
+		for(int i=0;i<fields.size();i++)
+		{
+			if(i>0)
+			{
+				writeAscii(",");
+			}
+			Field field = fields.get(i);
+			if(field.getNumericValueGenerated())
+			{
+				writeNumber(field.getNumericValue(), field.getType()==Field.TYPE_DECIMAL ? field.getScale() : 0);
+			}
+			else
+			{
+				writeAscii("'");
+				writeUtf8(field.getValue(), '\'');
+				writeAscii("'");
+			}
+		}
+		writeAscii(")");
+		rowsInStatement++;
+		if(rowsInStatement==batchSize)
+		{
+			writeAscii(";\n");
+			rowsInStatement = 0;
+		}
+	}
+
+	/**
+	 * ends the last statement and flushes the stream
+	 */
+	public void writeEnd() throws IOException
+	{
+		if(rowsInStatement>0)
+		{
+			writeAscii(";\n");
+			rowsInStatement = 0;
+		}
+		flush();
+	}
+}
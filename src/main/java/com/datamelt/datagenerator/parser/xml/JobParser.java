@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */ 
+package com.datamelt.datagenerator.parser.xml;
+
+import java.io.File;
+import java.util.ArrayList;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+import com.datamelt.datagenerator.JobTable;
+
+/**
+ * class is used to parse an xml file containing the definition
+ * of a job, which lists the tables to generate.<br />
+ * <br />
+ * example:<br />
+ * <br />
+ * job<br />
+ * &nbsp;&nbsp;table layout="customer.xml" rows="150000*sf" outputfile="customer.tbl"<br />
+ * &nbsp;&nbsp;table layout="nation.xml" rows="25" outputfile="nation.tbl"<br />
+ * <br />
+ * row layout files with a relative path are located relative to the folder of the job file.<br />
+ * 
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class JobParser extends DefaultHandler implements ContentHandler
+{
+    private ArrayList <JobTable> tables = new ArrayList <JobTable>();
+    private File folder;
+    
+    private boolean jobTagActive;
+    
+    private static final String TAG_JOB                   		= "job";
+    private static final String TAG_TABLE                 		= "table";
+    private static final String ATTRIBUTE_TABLE_LAYOUT    		= "layout";
+    private static final String ATTRIBUTE_TABLE_ROWS      		= "rows";
+    private static final String ATTRIBUTE_TABLE_OUTPUTFILE 		= "outputfile";
+    
+    /**
+     * pass a filename of an xml job file to this method, which will
+     * in turn be parsed using SAX. 
+     */
+    public void parse(String filename) throws Exception
+    {
+    	folder = new File(filename).getAbsoluteFile().getParentFile();
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+	    SAXParser saxParser = factory.newSAXParser();
+	    saxParser.parse(filename,this);
+    }
+    
+    /**
+     * when the start of an xml element is found, this method is called.
+     * a table object is created for each table tag within the job tag.
+     */
+    public void startElement( String namespaceURI, String localName, String qName, Attributes atts ) throws SAXException
+	{
+    	if(qName.equals(TAG_JOB))
+    	{
+    		jobTagActive = true;
+    	}
+    	else if(qName.equals(TAG_TABLE) && jobTagActive)
+    	{
+    		String layout = atts.getValue(ATTRIBUTE_TABLE_LAYOUT);
+    		String rows = atts.getValue(ATTRIBUTE_TABLE_ROWS);
+    		if(layout==null)
+    		{
+    			throw new SAXException("layout attribute must be specified for tables");
+    		}
+    		if(rows==null)
+    		{
+    			throw new SAXException("rows attribute must be specified for table: " + layout);
+    		}
+    		tables.add(new JobTable(resolve(layout), rows, resolve(atts.getValue(ATTRIBUTE_TABLE_OUTPUTFILE))));
+    	}
+	}
+    
+    /**
+     * when the end of an xml element is reached, this method is called.
+     */
+    public void endElement(String namespaceURI, String localName, String qName)
+    {
+    	if(qName.equals(TAG_JOB))
+    	{
+    		jobTagActive = false;
+    	}
+    }
+    
+    private String resolve(String filename)
+    {
+    	if(filename==null || new File(filename).isAbsolute())
+    	{
+    		return filename;
+    	}
+    	return new File(folder, filename).getPath();
+    }
+    
+    /**
+     * returns the tables that have been defined in the job file
+     */
+    public ArrayList <JobTable> getTables()
+    {
+    	return tables;
+    }
+}
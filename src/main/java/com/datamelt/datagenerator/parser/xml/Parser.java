@@ -27,6 +27,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 import com.datamelt.datagenerator.output.Field;
 import com.datamelt.datagenerator.output.Row;
+import com.datamelt.datagenerator.util.Distribution;
 
 /**
  * class is used to parse an xml file containing the definition
@@ -46,6 +47,7 @@ public class Parser extends DefaultHandler implements ContentHandler
     private static final String TAG_REFERENCES             		= "references";
     private static final String ATTRIBUTE_ROW_TYPE        		= "type";
     private static final String ATTRIBUTE_ROW_FIELDSEPERATOR	= "seperator";
+    private static final String ATTRIBUTE_ROW_NAME				= "name";
     private static final String TAG_FIELD			      		= "field";
     private static final String ATTRIBUTE_FIELD_TYPE    		= "type";
     private static final String ATTRIBUTE_FIELD_CATEGORY  		= "category";
@@ -54,6 +56,30 @@ public class Parser extends DefaultHandler implements ContentHandler
     private static final String ATTRIBUTE_FIELD_ID		  		= "id";
     private static final String ATTRIBUTE_FIELD_REFERENCE_ID	= "reference";
     private static final String ATTRIBUTE_FIELD_OUTPUT  		= "output";
+    private static final String ATTRIBUTE_FIELD_UNIQUE  		= "unique";
+    private static final String ATTRIBUTE_FIELD_START  			= "start";
+    private static final String ATTRIBUTE_FIELD_STEP  			= "step";
+    private static final String ATTRIBUTE_FIELD_DIGITS  		= "digits";
+    private static final String ATTRIBUTE_FIELD_DOMAIN  		= "domain";
+    private static final String ATTRIBUTE_FIELD_KEY  			= "key";
+    private static final String ATTRIBUTE_FIELD_PARENT  		= "parent";
+    private static final String ATTRIBUTE_FIELD_MINIMUM  		= "min";
+    private static final String ATTRIBUTE_FIELD_MAXIMUM  		= "max";
+    private static final String ATTRIBUTE_FIELD_SCALE  			= "scale";
+    private static final String ATTRIBUTE_FIELD_DECIMAL_SEPARATOR	= "decimalseparator";
+    private static final String ATTRIBUTE_FIELD_THOUSANDS_SEPARATOR	= "thousandsseparator";
+    private static final String ATTRIBUTE_FIELD_DISTRIBUTION	= "distribution";
+    private static final String ATTRIBUTE_FIELD_EXPONENT  		= "exponent";
+    private static final String ATTRIBUTE_FIELD_DEVIATION  		= "deviation";
+    private static final String ATTRIBUTE_FIELD_MEAN  			= "mean";
+    private static final String ATTRIBUTE_FIELD_INTERVAL  		= "interval";
+    private static final String ATTRIBUTE_FIELD_ARRIVAL  		= "arrival";
+    private static final String ATTRIBUTE_FIELD_JITTER  		= "jitter";
+    private static final String ATTRIBUTE_FIELD_SEASONALITY		= "seasonality";
+    private static final String ATTRIBUTE_FIELD_COLUMN			= "column";
+    private static final String ATTRIBUTE_FIELD_SAMPLING		= "sampling";
+    private static final String ATTRIBUTE_FIELD_CONDITION		= "condition";
+    private static final String ATTRIBUTE_FIELD_CARDINALITY		= "cardinality";
     
     public static final String TAG_ROW_TYPE_FIXED_LENGTH  		= "fixed";
     public static final String TAG_ROW_TYPE_DELIMITED     		= "delimited";
@@ -63,8 +89,14 @@ public class Parser extends DefaultHandler implements ContentHandler
     public static final String ATTRIBUTE_FIELD_TYPE_REGEX       = "regex";
     public static final String ATTRIBUTE_FIELD_TYPE_DATETIME    = "datetime";
     public static final String ATTRIBUTE_FIELD_TYPE_REFERENCE   = "reference";
+    public static final String ATTRIBUTE_FIELD_TYPE_SEQUENCE    = "sequence";
+    public static final String ATTRIBUTE_FIELD_TYPE_PERMUTATION = "permutation";
+    public static final String ATTRIBUTE_FIELD_TYPE_FOREIGNKEY  = "foreignkey";
+    public static final String ATTRIBUTE_FIELD_TYPE_INTEGER     = "integer";
+    public static final String ATTRIBUTE_FIELD_TYPE_LONG        = "long";
+    public static final String ATTRIBUTE_FIELD_TYPE_DECIMAL     = "decimal";
     
-    private HashMap <String,Field> referencedFields;
+    private HashMap <String,Field> referencedFields = new HashMap<String,Field>();
     
     /**
      * pass a filename of an xml row layout file to this method, which will
@@ -106,6 +138,10 @@ public class Parser extends DefaultHandler implements ContentHandler
             		row.setSeparator(atts.getValue(ATTRIBUTE_ROW_FIELDSEPERATOR));
             	}
             }
+            if(atts.getValue(ATTRIBUTE_ROW_NAME)!=null)
+            {
+            	row.setName(atts.getValue(ATTRIBUTE_ROW_NAME));
+            }
             
         }
         
@@ -128,6 +164,15 @@ public class Parser extends DefaultHandler implements ContentHandler
           	{
             	field.setType(Field.TYPE_CATEGORY);
             	field.setCategory(atts.getValue(ATTRIBUTE_FIELD_CATEGORY));
+            	field.setCondition(atts.getValue(ATTRIBUTE_FIELD_CONDITION));
+            	if(atts.getValue(ATTRIBUTE_FIELD_SAMPLING)!=null)
+            	{
+            		field.setSampling(atts.getValue(ATTRIBUTE_FIELD_SAMPLING).toLowerCase());
+            	}
+            	if(atts.getValue(ATTRIBUTE_FIELD_KEY)!=null)
+            	{
+            		field.setKey(Long.parseLong(atts.getValue(ATTRIBUTE_FIELD_KEY)));
+            	}
           	}
           	else if(atts.getValue(ATTRIBUTE_FIELD_TYPE).equals(ATTRIBUTE_FIELD_TYPE_RANDOM))
           	{
@@ -142,11 +187,106 @@ public class Parser extends DefaultHandler implements ContentHandler
           	{
           		field.setType(Field.TYPE_DATETIME);
           		field.setPattern(atts.getValue(ATTRIBUTE_FIELD_PATTERN));
+          		// time series
+          		field.setTimeSeriesStart(atts.getValue(ATTRIBUTE_FIELD_START));
+          		field.setInterval(atts.getValue(ATTRIBUTE_FIELD_INTERVAL));
+          		field.setArrival(atts.getValue(ATTRIBUTE_FIELD_ARRIVAL));
+          		field.setJitter(atts.getValue(ATTRIBUTE_FIELD_JITTER));
+          		if(atts.getValue(ATTRIBUTE_FIELD_SEASONALITY)!=null)
+          		{
+          			field.setSeasonality(Double.parseDouble(atts.getValue(ATTRIBUTE_FIELD_SEASONALITY)));
+          		}
           	}
           	else if(atts.getValue(ATTRIBUTE_FIELD_TYPE).equals(ATTRIBUTE_FIELD_TYPE_REFERENCE))
           	{
           		field.setType(Field.TYPE_REFERENCE); 
           	}
+          	else if(atts.getValue(ATTRIBUTE_FIELD_TYPE).equals(ATTRIBUTE_FIELD_TYPE_SEQUENCE))
+          	{
+          		field.setType(Field.TYPE_SEQUENCE);
+          		if(atts.getValue(ATTRIBUTE_FIELD_START)!=null)
+          		{
+          			field.setSequenceStart(Long.parseLong(atts.getValue(ATTRIBUTE_FIELD_START)));
+          		}
+          		if(atts.getValue(ATTRIBUTE_FIELD_STEP)!=null)
+          		{
+          			field.setSequenceStep(Long.parseLong(atts.getValue(ATTRIBUTE_FIELD_STEP)));
+          		}
+          	}
+          	else if(atts.getValue(ATTRIBUTE_FIELD_TYPE).equals(ATTRIBUTE_FIELD_TYPE_PERMUTATION))
+          	{
+          		field.setType(Field.TYPE_PERMUTATION);
+          		field.setPattern(atts.getValue(ATTRIBUTE_FIELD_PATTERN));
+          		if(atts.getValue(ATTRIBUTE_FIELD_DOMAIN)!=null)
+          		{
+          			field.setDomain(Long.parseLong(atts.getValue(ATTRIBUTE_FIELD_DOMAIN)));
+          		}
+          		if(atts.getValue(ATTRIBUTE_FIELD_KEY)!=null)
+          		{
+          			field.setKey(Long.parseLong(atts.getValue(ATTRIBUTE_FIELD_KEY)));
+          		}
+          	}
+          	else if(atts.getValue(ATTRIBUTE_FIELD_TYPE).equals(ATTRIBUTE_FIELD_TYPE_FOREIGNKEY))
+          	{
+          		field.setType(Field.TYPE_FOREIGNKEY);
+          		field.setParent(atts.getValue(ATTRIBUTE_FIELD_PARENT));
+          	}
+          	else if(atts.getValue(ATTRIBUTE_FIELD_TYPE).equals(ATTRIBUTE_FIELD_TYPE_INTEGER))
+          	{
+          		field.setType(Field.TYPE_INTEGER);
+          	}
+          	else if(atts.getValue(ATTRIBUTE_FIELD_TYPE).equals(ATTRIBUTE_FIELD_TYPE_LONG))
+          	{
+          		field.setType(Field.TYPE_LONG);
+          	}
+          	else if(atts.getValue(ATTRIBUTE_FIELD_TYPE).equals(ATTRIBUTE_FIELD_TYPE_DECIMAL))
+          	{
+          		field.setType(Field.TYPE_DECIMAL);
+          		if(atts.getValue(ATTRIBUTE_FIELD_SCALE)!=null)
+          		{
+          			field.setScale(Integer.parseInt(atts.getValue(ATTRIBUTE_FIELD_SCALE)));
+          		}
+          		if(atts.getValue(ATTRIBUTE_FIELD_DECIMAL_SEPARATOR)!=null && atts.getValue(ATTRIBUTE_FIELD_DECIMAL_SEPARATOR).length()>0)
+          		{
+          			field.setDecimalSeparator(atts.getValue(ATTRIBUTE_FIELD_DECIMAL_SEPARATOR).charAt(0));
+          		}
+          	}
+            field.setMinimum(atts.getValue(ATTRIBUTE_FIELD_MINIMUM));
+            field.setMaximum(atts.getValue(ATTRIBUTE_FIELD_MAXIMUM));
+            if(atts.getValue(ATTRIBUTE_FIELD_THOUSANDS_SEPARATOR)!=null && atts.getValue(ATTRIBUTE_FIELD_THOUSANDS_SEPARATOR).length()>0)
+            {
+            	field.setThousandsSeparator(atts.getValue(ATTRIBUTE_FIELD_THOUSANDS_SEPARATOR).charAt(0));
+            }
+            if(atts.getValue(ATTRIBUTE_FIELD_CARDINALITY)!=null)
+            {
+            	field.setCardinality(Integer.parseInt(atts.getValue(ATTRIBUTE_FIELD_CARDINALITY)));
+            }
+            if(atts.getValue(ATTRIBUTE_FIELD_DISTRIBUTION)!=null)
+            {
+            	field.setDistribution(atts.getValue(ATTRIBUTE_FIELD_DISTRIBUTION).toLowerCase());
+            	// the parameter of the distribution
+            	String parameter = null;
+            	if(field.getDistribution().equals(Distribution.ZIPF))
+            	{
+            		parameter = atts.getValue(ATTRIBUTE_FIELD_EXPONENT);
+            	}
+            	else if(field.getDistribution().equals(Distribution.NORMAL))
+            	{
+            		parameter = atts.getValue(ATTRIBUTE_FIELD_DEVIATION);
+            	}
+            	else if(field.getDistribution().equals(Distribution.EXPONENTIAL))
+            	{
+            		parameter = atts.getValue(ATTRIBUTE_FIELD_MEAN);
+            	}
+            	if(parameter!=null)
+            	{
+            		field.setDistributionParameter(Double.parseDouble(parameter));
+            	}
+            }
+            if(atts.getValue(ATTRIBUTE_FIELD_DIGITS)!=null)
+            {
+            	field.setDigits(Integer.parseInt(atts.getValue(ATTRIBUTE_FIELD_DIGITS)));
+            }
             if(atts.getValue(ATTRIBUTE_FIELD_LENGTH)!=null)
             {
             	field.setLength(Integer.parseInt(atts.getValue(ATTRIBUTE_FIELD_LENGTH)));
@@ -158,10 +298,18 @@ public class Parser extends DefaultHandler implements ContentHandler
             		field.setOutput(false);
             	}
             }
+            if(atts.getValue(ATTRIBUTE_FIELD_UNIQUE)!=null)
+            {
+            	if(atts.getValue(ATTRIBUTE_FIELD_UNIQUE).toLowerCase().equals("true"))
+            	{
+            		field.setUnique(true);
+            	}
+            }
             if(atts.getValue(ATTRIBUTE_FIELD_REFERENCE_ID)!=null)
             {
             	field.setReference(atts.getValue(ATTRIBUTE_FIELD_REFERENCE_ID));
             }
+            field.setColumn(atts.getValue(ATTRIBUTE_FIELD_COLUMN));
             if(referencesTagActive && atts.getValue(ATTRIBUTE_FIELD_ID)==null)
             {
             	throw new SAXException("id attribute must be specified for reference fields");
@@ -181,6 +329,28 @@ public class Parser extends DefaultHandler implements ContentHandler
 				cachedField.setOutput(field.getOutput());
 				cachedField.setReference(field.getReference());
 				cachedField.setCategory(field.getCategory());
+				cachedField.setUnique(field.isUnique());
+				cachedField.setSequenceStart(field.getSequenceStart());
+				cachedField.setSequenceStep(field.getSequenceStep());
+				cachedField.setDigits(field.getDigits());
+				cachedField.setDomain(field.getDomain());
+				cachedField.setKey(field.getKey());
+				cachedField.setParent(field.getParent());
+				cachedField.setMinimum(field.getMinimum());
+				cachedField.setMaximum(field.getMaximum());
+				cachedField.setScale(field.getScale());
+				cachedField.setDecimalSeparator(field.getDecimalSeparator());
+				cachedField.setThousandsSeparator(field.getThousandsSeparator());
+				cachedField.setDistribution(field.getDistribution());
+				cachedField.setSampling(field.getSampling());
+				cachedField.setCondition(field.getCondition());
+				cachedField.setCardinality(field.getCardinality());
+				cachedField.setDistributionParameter(field.getDistributionParameter());
+				cachedField.setTimeSeriesStart(field.getTimeSeriesStart());
+				cachedField.setInterval(field.getInterval());
+				cachedField.setArrival(field.getArrival());
+				cachedField.setJitter(field.getJitter());
+				cachedField.setSeasonality(field.getSeasonality());
 				// put the field into a hashmap
             	referencedFields.put(cachedField.getId(), cachedField);
             }
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * the state of a run at the end of a row: the number of rows written, the length of the
+ * output at that point and the state of the fields.<br />
+ * <br />
+ * the checkpoint is stored as a properties file. it is written to a temporary file first,
+ * which is forced to disk and then renamed, so that a run that is killed while writing the
+ * checkpoint leaves the previous checkpoint intact.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class Checkpoint
+{
+	public static final String FILE_EXTENSION	= ".checkpoint";
+
+	private static final String KEY_ROWS		= "rows";
+	private static final String KEY_OFFSET		= "offset";
+
+	private File file;
+	private Properties state = new Properties();
+
+	/**
+	 * constructor for a checkpoint stored in the given file
+	 */
+	public Checkpoint(File file)
+	{
+		this.file = file;
+	}
+
+	/**
+	 * returns if the checkpoint file exists
+	 */
+	public boolean exists()
+	{
+		return file.isFile();
+	}
+
+	/**
+	 * reads the checkpoint from its file
+	 */
+	public void load() throws Exception
+	{
+		FileInputStream in = new FileInputStream(file);
+		try
+		{
+			state.clear();
+			state.load(in);
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * writes the checkpoint to its file, replacing the previous checkpoint
+	 */
+	public void save() throws IOException
+	{
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		FileOutputStream out = new FileOutputStream(temporaryFile);
+		try
+		{
+			state.store(out, null);
+			out.getFD().sync();
+		}
+		finally
+		{
+			out.close();
+		}
+		Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * removes the checkpoint file
+	 */
+	public void delete()
+	{
+		file.delete();
+	}
+
+	/**
+	 * returns the number of rows written up to the checkpoint. zero if nothing
+	 * was stored.
+	 */
+	public long getRows() throws Exception
+	{
+		return state.getProperty(KEY_ROWS)!=null ? getLong(KEY_ROWS) : 0;
+	}
+
+	public void setRows(long rows)
+	{
+		setLong(KEY_ROWS, rows);
+	}
+
+	/**
+	 * returns the number of bytes written to the output up to the checkpoint. zero
+	 * if nothing was stored.
+	 */
+	public long getOffset() throws Exception
+	{
+		return state.getProperty(KEY_OFFSET)!=null ? getLong(KEY_OFFSET) : 0;
+	}
+
+	public void setOffset(long offset)
+	{
+		setLong(KEY_OFFSET, offset);
+	}
+
+	/**
+	 * returns the value stored under the given key or null if there is none
+	 */
+	public String get(String key)
+	{
+		return state.getProperty(key);
+	}
+
+	public void set(String key, String value)
+	{
+		state.setProperty(key, value);
+	}
+
+	/**
+	 * returns the number stored under the given key
+	 */
+	public long getLong(String key) throws Exception
+	{
+		String value = state.getProperty(key);
+		if(value==null)
+		{
+			throw new Exception("entry missing in checkpoint file: " + file + " - " + key);
+		}
+		try
+		{
+			return Long.parseLong(value);
+		}
+		catch(NumberFormatException nfe)
+		{
+			throw new Exception("invalid entry in checkpoint file: " + file + " - " + key + "=" + value);
+		}
+	}
+
+	public void setLong(String key, long value)
+	{
+		state.setProperty(key, Long.toString(value));
+	}
+
+	/**
+	 * returns the file of the checkpoint
+	 */
+	public File getFile()
+	{
+		return file;
+	}
+}
@@ -0,0 +1,554 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+import java.text.DateFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * formats date/time values using a pattern of the SimpleDateFormat class.<br />
+ * <br />
+ * the pattern is split into tokens once. the fields of the date are calculated directly
+ * from the milliseconds, without a Calendar object. the formatter remembers the value
+ * of each token of the last formatted date: when the next date is formatted, the text up
+ * to the first token whose value changed is kept and only the rest is rendered again.
+ * for ordered dates, such as a time series, mostly only the last digits change.<br />
+ * <br />
+ * the text of the tokens that only depend on the day - such as the year, month, day,
+ * weekday, quarter and half year - is kept in a cache of CACHE_SIZE entries, keyed by the
+ * day. when many dates fall on the same day, only the time of the day needs to be calculated
+ * and rendered. the hour is not part of the key: it only takes a division and two digits,
+ * while keying by the hour would need 24 times the entries for the same hit rate. the hits
+ * and misses of the cache are counted.<br />
+ * <br />
+ * the patterns q, Q, h and H - quarter and half year - are supported as in the Generator
+ * class. patterns with letters that are not supported, such as time zones or week numbers,
+ * and dates before the gregorian calendar was introduced are formatted by a SimpleDateFormat.<br />
+ * <br />
+ * an instance is not thread safe.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class CompiledDateFormat
+{
+	private static final int TOKEN_LITERAL        = 0;
+	private static final int TOKEN_YEAR           = 1;
+	private static final int TOKEN_MONTH          = 2;
+	private static final int TOKEN_DAY            = 3;
+	private static final int TOKEN_DAY_OF_YEAR    = 4;
+	private static final int TOKEN_DAY_OF_WEEK    = 5;
+	private static final int TOKEN_QUARTER        = 6;
+	private static final int TOKEN_HALF_YEAR      = 7;
+	private static final int TOKEN_AM_PM          = 8;
+	private static final int TOKEN_HOUR_OF_DAY    = 9;
+	private static final int TOKEN_HOUR           = 10;
+	private static final int TOKEN_MINUTE         = 11;
+	private static final int TOKEN_SECOND         = 12;
+	private static final int TOKEN_MILLISECOND    = 13;
+
+	private static final long MILLISECONDS_PER_DAY = 86400000L;
+
+	public static final int CACHE_SIZE            = 1024;
+
+	// first day of the gregorian calendar: 1582-10-15
+	private static final long GREGORIAN_CUTOVER   = -12219292800000L;
+
+	private String pattern;
+	private TimeZone timeZone = TimeZone.getDefault();
+	private boolean compiled = true;
+	// formats the dates of patterns that can not be compiled
+	private SimpleDateFormat fallback;
+	// formats the dates before the gregorian calendar was introduced
+	private SimpleDateFormat julianFormat;
+
+	private int numberOfTokens;
+	private int[] tokenTypes;
+	private int[] tokenCounts;
+	private String[] tokenLiterals;
+	private String prefix;
+
+	private String[] monthNames;
+	private String[] shortMonthNames;
+	private String[] weekdayNames;
+	private String[] shortWeekdayNames;
+	private String[] amPmNames;
+
+	// values of the tokens of the last formatted date and where the tokens start in the text
+	private int[] values;
+	private int[] lastValues;
+	private int[] tokenStarts;
+	private StringBuilder text = new StringBuilder();
+	private String lastText;
+
+	// cache of the values and texts of the day tokens
+	private boolean[] cachedTokens;
+	private long[] cacheKeys;
+	private int[][] cacheValues;
+	private String[][] cacheTexts;
+	private String[] currentTexts;
+	private long cacheHits;
+	private long cacheMisses;
+
+	/**
+	 * constructor compiling the given pattern
+	 */
+	public CompiledDateFormat(String pattern)
+	{
+		this.pattern = pattern;
+		DateFormatSymbols symbols = DateFormatSymbols.getInstance();
+		monthNames = symbols.getMonths();
+		shortMonthNames = symbols.getShortMonths();
+		weekdayNames = symbols.getWeekdays();
+		shortWeekdayNames = symbols.getShortWeekdays();
+		amPmNames = symbols.getAmPmStrings();
+
+		ArrayList <int[]> tokens = new ArrayList<int[]>();
+		ArrayList <String> literals = new ArrayList<String>();
+		if(pattern.equals("q") || pattern.equals("Q"))
+		{
+			tokens.add(new int[] {TOKEN_QUARTER, 1});
+			literals.add(null);
+			prefix = pattern.equals("Q") ? "q" : "";
+		}
+		else if(pattern.equals("h") || pattern.equals("H"))
+		{
+			tokens.add(new int[] {TOKEN_HALF_YEAR, 1});
+			literals.add(null);
+			prefix = pattern.equals("H") ? "h" : "";
+		}
+		else if(!parsePattern(tokens, literals))
+		{
+			compiled = false;
+			fallback = new SimpleDateFormat(pattern);
+		}
+
+		numberOfTokens = tokens.size();
+		tokenTypes = new int[numberOfTokens];
+		tokenCounts = new int[numberOfTokens];
+		tokenLiterals = literals.toArray(new String[numberOfTokens]);
+		for(int i=0;i<numberOfTokens;i++)
+		{
+			tokenTypes[i] = tokens.get(i)[0];
+			tokenCounts[i] = tokens.get(i)[1];
+		}
+		values = new int[numberOfTokens];
+		lastValues = new int[numberOfTokens];
+		tokenStarts = new int[numberOfTokens];
+
+		cachedTokens = new boolean[numberOfTokens];
+		boolean cacheUsed = false;
+		for(int i=0;i<numberOfTokens;i++)
+		{
+			int type = tokenTypes[i];
+			cachedTokens[i] = type!=TOKEN_LITERAL && type<TOKEN_AM_PM;
+			cacheUsed = cacheUsed || cachedTokens[i];
+		}
+		if(cacheUsed)
+		{
+			cacheKeys = new long[CACHE_SIZE];
+			Arrays.fill(cacheKeys, Long.MIN_VALUE);
+			cacheValues = new int[CACHE_SIZE][];
+			cacheTexts = new String[CACHE_SIZE][];
+		}
+	}
+
+	/**
+	 * returns the date/time value formatted according to the pattern
+	 */
+	public String format(long milliseconds)
+	{
+		if(!compiled)
+		{
+			return fallback.format(new Date(milliseconds));
+		}
+		if(milliseconds<GREGORIAN_CUTOVER)
+		{
+			if(julianFormat==null)
+			{
+				julianFormat = new SimpleDateFormat(pattern);
+			}
+			lastText = null;
+			return julianFormat.format(new Date(milliseconds));
+		}
+		long localMilliseconds = milliseconds + timeZone.getOffset(milliseconds);
+		if(cacheKeys!=null)
+		{
+			lookupCache(localMilliseconds);
+		}
+		else
+		{
+			calculateValues(localMilliseconds);
+		}
+
+		// find the first token that changed since the last date
+		int firstChanged = 0;
+		if(lastText!=null)
+		{
+			while(firstChanged<numberOfTokens && values[firstChanged]==lastValues[firstChanged])
+			{
+				firstChanged++;
+			}
+			if(firstChanged==numberOfTokens)
+			{
+				return lastText;
+			}
+			text.setLength(tokenStarts[firstChanged]);
+		}
+		else
+		{
+			text.setLength(0);
+			if(prefix!=null)
+			{
+				text.append(prefix);
+			}
+		}
+		for(int i=firstChanged;i<numberOfTokens;i++)
+		{
+			tokenStarts[i] = text.length();
+			if(cachedTokens[i])
+			{
+				text.append(currentTexts[i]);
+			}
+			else
+			{
+				appendToken(i, values[i]);
+			}
+			lastValues[i] = values[i];
+		}
+		lastText = text.toString();
+		return lastText;
+	}
+
+	/**
+	 * returns how often the text of the day was found in the cache
+	 */
+	public long getCacheHits()
+	{
+		return cacheHits;
+	}
+
+	/**
+	 * returns how often the text of the day had to be rendered
+	 */
+	public long getCacheMisses()
+	{
+		return cacheMisses;
+	}
+
+	/**
+	 * returns the percentage of the dates for which the text of the day was found
+	 * in the cache or -1 if no cache is used for the pattern
+	 */
+	public double getCacheHitRate()
+	{
+		long lookups = cacheHits + cacheMisses;
+		if(lookups==0)
+		{
+			return -1;
+		}
+		return 100.0 * cacheHits / lookups;
+	}
+
+	/**
+	 * returns if the pattern is formatted without the SimpleDateFormat class
+	 */
+	public boolean isCompiled()
+	{
+		return compiled;
+	}
+
+	public String getPattern()
+	{
+		return pattern;
+	}
+
+	/**
+	 * splits the pattern into tokens. returns false if the pattern contains
+	 * letters that are not supported.
+	 */
+	private boolean parsePattern(ArrayList <int[]> tokens, ArrayList <String> literals)
+	{
+		StringBuilder literal = new StringBuilder();
+		int position = 0;
+		while(position<pattern.length())
+		{
+			char character = pattern.charAt(position);
+			if(character=='\'')
+			{
+				// quoted text. two quotes stand for one quote
+				int end = position + 1;
+				if(end<pattern.length() && pattern.charAt(end)=='\'')
+				{
+					literal.append('\'');
+					position = end + 1;
+					continue;
+				}
+				while(end<pattern.length())
+				{
+					if(pattern.charAt(end)=='\'')
+					{
+						if(end+1<pattern.length() && pattern.charAt(end+1)=='\'')
+						{
+							literal.append('\'');
+							end += 2;
+							continue;
+						}
+						break;
+					}
+					literal.append(pattern.charAt(end));
+					end++;
+				}
+				position = end + 1;
+			}
+			else if((character>='a' && character<='z') || (character>='A' && character<='Z'))
+			{
+				int count = 1;
+				while(position+count<pattern.length() && pattern.charAt(position+count)==character)
+				{
+					count++;
+				}
+				int type = getTokenType(character);
+				if(type==-1)
+				{
+					return false;
+				}
+				if(literal.length()>0)
+				{
+					tokens.add(new int[] {TOKEN_LITERAL, 0});
+					literals.add(literal.toString());
+					literal.setLength(0);
+				}
+				tokens.add(new int[] {type, count});
+				literals.add(null);
+				position += count;
+			}
+			else
+			{
+				literal.append(character);
+				position++;
+			}
+		}
+		if(literal.length()>0)
+		{
+			tokens.add(new int[] {TOKEN_LITERAL, 0});
+			literals.add(literal.toString());
+		}
+		return true;
+	}
+
+	private static int getTokenType(char character)
+	{
+		switch(character)
+		{
+			case 'y': return TOKEN_YEAR;
+			case 'M': return TOKEN_MONTH;
+			case 'd': return TOKEN_DAY;
+			case 'D': return TOKEN_DAY_OF_YEAR;
+			case 'E': return TOKEN_DAY_OF_WEEK;
+			case 'a': return TOKEN_AM_PM;
+			case 'H': return TOKEN_HOUR_OF_DAY;
+			case 'h': return TOKEN_HOUR;
+			case 'm': return TOKEN_MINUTE;
+			case 's': return TOKEN_SECOND;
+			case 'S': return TOKEN_MILLISECOND;
+			default:  return -1;
+		}
+	}
+
+	/**
+	 * takes the values and texts of the day tokens from the cache. if the day
+	 * is not in the cache, the values are calculated and the texts rendered and
+	 * stored in the cache. the other tokens are calculated from the time of the day.
+	 */
+	private void lookupCache(long localMilliseconds)
+	{
+		long key = Math.floorDiv(localMilliseconds, MILLISECONDS_PER_DAY);
+		int slot = (int)Math.floorMod(key, CACHE_SIZE);
+		if(cacheKeys[slot]==key)
+		{
+			cacheHits++;
+			int[] cached = cacheValues[slot];
+			int millisecondOfDay = (int)Math.floorMod(localMilliseconds, MILLISECONDS_PER_DAY);
+			for(int i=0;i<numberOfTokens;i++)
+			{
+				if(cachedTokens[i])
+				{
+					values[i] = cached[i];
+				}
+				else
+				{
+					values[i] = getTimeValue(tokenTypes[i], millisecondOfDay);
+				}
+			}
+		}
+		else
+		{
+			cacheMisses++;
+			calculateValues(localMilliseconds);
+			if(cacheValues[slot]==null)
+			{
+				cacheValues[slot] = new int[numberOfTokens];
+				cacheTexts[slot] = new String[numberOfTokens];
+			}
+			int start = text.length();
+			for(int i=0;i<numberOfTokens;i++)
+			{
+				if(cachedTokens[i])
+				{
+					cacheValues[slot][i] = values[i];
+					appendToken(i, values[i]);
+					cacheTexts[slot][i] = text.substring(start);
+					text.setLength(start);
+				}
+			}
+			cacheKeys[slot] = key;
+		}
+		currentTexts = cacheTexts[slot];
+	}
+
+	private static int getTimeValue(int type, int millisecondOfDay)
+	{
+		switch(type)
+		{
+			case TOKEN_AM_PM:
+				return millisecondOfDay<43200000 ? 0 : 1;
+			case TOKEN_HOUR_OF_DAY:
+				return millisecondOfDay / 3600000;
+			case TOKEN_HOUR:
+				int hour = (millisecondOfDay / 3600000) % 12;
+				return hour==0 ? 12 : hour;
+			case TOKEN_MINUTE:
+				return (millisecondOfDay / 60000) % 60;
+			case TOKEN_SECOND:
+				return (millisecondOfDay / 1000) % 60;
+			case TOKEN_MILLISECOND:
+				return millisecondOfDay % 1000;
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * calculates the value of each token for the given local date
+	 */
+	private void calculateValues(long localMilliseconds)
+	{
+		long epochDay = Math.floorDiv(localMilliseconds, MILLISECONDS_PER_DAY);
+		int millisecondOfDay = (int)Math.floorMod(localMilliseconds, MILLISECONDS_PER_DAY);
+
+		// civil date from the number of days since 1970-01-01 (howard hinnant)
+		long days = epochDay + 719468;
+		long era = Math.floorDiv(days, 146097);
+		long dayOfEra = days - era * 146097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long dayOfYearFromMarch = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long monthFromMarch = (5 * dayOfYearFromMarch + 2) / 153;
+		int day = (int)(dayOfYearFromMarch - (153 * monthFromMarch + 2) / 5 + 1);
+		int month = (int)(monthFromMarch<10 ? monthFromMarch + 3 : monthFromMarch - 9);
+		int year = (int)(yearOfEra + era * 400 + (month<=2 ? 1 : 0));
+
+		for(int i=0;i<numberOfTokens;i++)
+		{
+			switch(tokenTypes[i])
+			{
+				case TOKEN_YEAR:
+					values[i] = year;
+					break;
+				case TOKEN_MONTH:
+					values[i] = month;
+					break;
+				case TOKEN_DAY:
+					values[i] = day;
+					break;
+				case TOKEN_DAY_OF_YEAR:
+					values[i] = getDayOfYear(year, month, day);
+					break;
+				case TOKEN_DAY_OF_WEEK:
+					// 1970-01-01 was a thursday. sunday is 1 as in the Calendar class
+					values[i] = (int)Math.floorMod(epochDay + 4, 7) + 1;
+					break;
+				case TOKEN_QUARTER:
+					values[i] = (month - 1) / 3 + 1;
+					break;
+				case TOKEN_HALF_YEAR:
+					values[i] = month<=6 ? 1 : 2;
+					break;
+				default:
+					values[i] = getTimeValue(tokenTypes[i], millisecondOfDay);
+			}
+		}
+	}
+
+	private static int getDayOfYear(int year, int month, int day)
+	{
+		final int[] daysBeforeMonth = {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334};
+		boolean leapYear = (year % 4==0 && year % 100!=0) || year % 400==0;
+		return daysBeforeMonth[month-1] + day + (leapYear && month>2 ? 1 : 0);
+	}
+
+	/**
+	 * appends the text of the token with the given value
+	 */
+	private void appendToken(int token, int value)
+	{
+		int count = tokenCounts[token];
+		switch(tokenTypes[token])
+		{
+			case TOKEN_LITERAL:
+				text.append(tokenLiterals[token]);
+				break;
+			case TOKEN_YEAR:
+				if(count==2)
+				{
+					Generator.appendNumber(text, value % 100, 2);
+				}
+				else
+				{
+					Generator.appendNumber(text, value, count);
+				}
+				break;
+			case TOKEN_MONTH:
+				if(count>=4)
+				{
+					text.append(monthNames[value-1]);
+				}
+				else if(count==3)
+				{
+					text.append(shortMonthNames[value-1]);
+				}
+				else
+				{
+					Generator.appendNumber(text, value, count);
+				}
+				break;
+			case TOKEN_DAY_OF_WEEK:
+				text.append(count>=4 ? weekdayNames[value] : shortWeekdayNames[value]);
+				break;
+			case TOKEN_AM_PM:
+				text.append(amPmNames[value]);
+				break;
+			default:
+				Generator.appendNumber(text, value, count);
+		}
+	}
+}
@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+/**
+ * picks numbers between zero and a given number of values minus one, following
+ * a uniform, zipf, normal or exponential distribution.<br />
+ * <br />
+ * for the zipf distribution, the number zero is the most frequent one, followed by one,
+ * two and so on. the numbers are sampled using rejection-inversion (hoermann and
+ * derflinger), which takes constant time for any number of values.<br />
+ * <br />
+ * the normal distribution is centered in the middle of the values and the exponential
+ * distribution starts at zero. both are cut off at the ends of the values. their inverse
+ * cumulative distribution is calculated once and kept in a table, so a number is picked
+ * by a table lookup and a linear interpolation.<br />
+ * <br />
+ * the parameter of the zipf distribution is the exponent. the parameters of the normal and
+ * exponential distribution - the standard deviation and the mean - are given as a fraction
+ * of the number of values.<br />
+ * <br />
+ * picking a number does not create any objects. an instance does not change after it was
+ * created, so it may be used by multiple threads with their own generators of random numbers.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class Distribution
+{
+	public static final String UNIFORM                  = "uniform";
+	public static final String ZIPF                     = "zipf";
+	public static final String NORMAL                   = "normal";
+	public static final String EXPONENTIAL              = "exponential";
+
+	public static final double DEFAULT_EXPONENT         = 1.0;
+	public static final double DEFAULT_DEVIATION        = 0.15;
+	public static final double DEFAULT_MEAN             = 0.1;
+
+	private static final int TABLE_SIZE                 = 4096;
+	private static final int INTEGRATION_STEPS          = 65536;
+
+	private String name;
+	private double parameter;
+	private long numberOfValues;
+
+	// values of the zipf distribution
+	private boolean zipf;
+	private double hIntegralX1;
+	private double hIntegralNumberOfValues;
+	private double s;
+
+	// inverse cumulative distribution of the normal and exponential distribution
+	private double[] quantiles;
+
+	/**
+	 * constructor specifying the name of the distribution, its parameter and
+	 * the number of values to pick from
+	 */
+	public Distribution(String name, double parameter, long numberOfValues)
+	{
+		if(!isValid(name))
+		{
+			throw new IllegalArgumentException("unknown distribution: " + name);
+		}
+		if(!(parameter>0))
+		{
+			throw new IllegalArgumentException("the parameter of the distribution must be greater than zero: " + parameter);
+		}
+		this.name = name;
+		this.parameter = parameter;
+		this.numberOfValues = Math.max(1, numberOfValues);
+		if(name.equals(ZIPF))
+		{
+			zipf = true;
+			hIntegralX1 = hIntegral(1.5) - 1;
+			hIntegralNumberOfValues = hIntegral(this.numberOfValues + 0.5);
+			s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+		}
+		else if(name.equals(NORMAL) || name.equals(EXPONENTIAL))
+		{
+			quantiles = calculateQuantiles();
+		}
+	}
+
+	/**
+	 * returns if the name is the name of a known distribution
+	 */
+	public static boolean isValid(String name)
+	{
+		return UNIFORM.equals(name) || ZIPF.equals(name) || NORMAL.equals(name) || EXPONENTIAL.equals(name);
+	}
+
+	/**
+	 * returns the parameter that is used if none is specified for the distribution
+	 */
+	public static double getDefaultParameter(String name)
+	{
+		if(ZIPF.equals(name))
+		{
+			return DEFAULT_EXPONENT;
+		}
+		else if(NORMAL.equals(name))
+		{
+			return DEFAULT_DEVIATION;
+		}
+		else if(EXPONENTIAL.equals(name))
+		{
+			return DEFAULT_MEAN;
+		}
+		return 1;
+	}
+
+	/**
+	 * returns a number between zero and the number of values minus one
+	 */
+	public long next(RandomSource random)
+	{
+		return next(random, numberOfValues, hIntegralNumberOfValues);
+	}
+
+	/**
+	 * returns a number between zero and the given number of values minus one, following
+	 * the same distribution. the table of the normal and exponential distribution does not
+	 * depend on the number of values and the zipf distribution only needs one logarithm
+	 * for it, so the number of values may change from call to call, e.g. with the size of
+	 * the group of a conditional category.
+	 */
+	public long next(RandomSource random, long numberOfValues)
+	{
+		if(numberOfValues==this.numberOfValues)
+		{
+			return next(random);
+		}
+		numberOfValues = Math.max(1, numberOfValues);
+		return next(random, numberOfValues, zipf ? hIntegral(numberOfValues + 0.5) : 0);
+	}
+
+	private long next(RandomSource random, long numberOfValues, double hIntegralNumberOfValues)
+	{
+		if(quantiles!=null)
+		{
+			double position = random.nextDouble() * TABLE_SIZE;
+			int index = (int)position;
+			double fraction = quantiles[index] + (position - index) * (quantiles[index+1] - quantiles[index]);
+			long number = (long)(fraction * numberOfValues);
+			return number<numberOfValues ? number : numberOfValues - 1;
+		}
+		else if(zipf)
+		{
+			return nextZipf(random, numberOfValues, hIntegralNumberOfValues);
+		}
+		return random.nextLong(numberOfValues);
+	}
+
+	/**
+	 * returns the number of values the distribution picks from
+	 */
+	public long getNumberOfValues()
+	{
+		return numberOfValues;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public double getParameter()
+	{
+		return parameter;
+	}
+
+	private long nextZipf(RandomSource random, long numberOfValues, double hIntegralNumberOfValues)
+	{
+		if(numberOfValues==1)
+		{
+			return 0;
+		}
+		while(true)
+		{
+			double u = hIntegralNumberOfValues + random.nextDouble() * (hIntegralX1 - hIntegralNumberOfValues);
+			double x = hIntegralInverse(u);
+			long k = (long)(x + 0.5);
+			if(k<1)
+			{
+				k = 1;
+			}
+			else if(k>numberOfValues)
+			{
+				k = numberOfValues;
+			}
+			if(k - x <= s || u >= hIntegral(k + 0.5) - h(k))
+			{
+				return k - 1;
+			}
+		}
+	}
+
+	/**
+	 * integral of h(x) = x to the power of minus the exponent
+	 */
+	private double hIntegral(double x)
+	{
+		double logX = Math.log(x);
+		return helper2((1 - parameter) * logX) * logX;
+	}
+
+	private double h(double x)
+	{
+		return Math.exp(-parameter * Math.log(x));
+	}
+
+	private double hIntegralInverse(double x)
+	{
+		double t = x * (1 - parameter);
+		if(t<-1)
+		{
+			// limit the value because of rounding errors
+			t = -1;
+		}
+		return Math.exp(helper1(t) * x);
+	}
+
+	/**
+	 * returns log(1+x)/x, also for values of x close to zero
+	 */
+	private static double helper1(double x)
+	{
+		if(Math.abs(x)>1e-8)
+		{
+			return Math.log1p(x) / x;
+		}
+		return 1 - x * (0.5 - x * (1.0/3.0 - 0.25 * x));
+	}
+
+	/**
+	 * returns (exp(x)-1)/x, also for values of x close to zero
+	 */
+	private static double helper2(double x)
+	{
+		if(Math.abs(x)>1e-8)
+		{
+			return Math.expm1(x) / x;
+		}
+		return 1 + x * 0.5 * (1 + x * 1.0/3.0 * (1 + 0.25 * x));
+	}
+
+	/**
+	 * returns the density of the distribution between zero and one, without
+	 * the constant factor
+	 */
+	private double density(double x)
+	{
+		if(name.equals(NORMAL))
+		{
+			double z = (x - 0.5) / parameter;
+			return Math.exp(-0.5 * z * z);
+		}
+		return Math.exp(-x / parameter);
+	}
+
+	/**
+	 * calculates the values between zero and one below which 0, 1/TABLE_SIZE, 2/TABLE_SIZE
+	 * ... of the distribution lie by numerically integrating the density
+	 */
+	private double[] calculateQuantiles()
+	{
+		double[] cumulative = new double[INTEGRATION_STEPS + 1];
+		double previous = density(0);
+		for(int i=1;i<=INTEGRATION_STEPS;i++)
+		{
+			double current = density((double)i / INTEGRATION_STEPS);
+			cumulative[i] = cumulative[i-1] + (previous + current) / 2;
+			previous = current;
+		}
+		double total = cumulative[INTEGRATION_STEPS];
+
+		double[] table = new double[TABLE_SIZE + 1];
+		int step = 0;
+		for(int i=1;i<TABLE_SIZE;i++)
+		{
+			double target = total * i / TABLE_SIZE;
+			while(cumulative[step+1]<target)
+			{
+				step++;
+			}
+			double width = cumulative[step+1] - cumulative[step];
+			double fraction = width>0 ? (target - cumulative[step]) / width : 0;
+			table[i] = (step + fraction) / INTEGRATION_STEPS;
+		}
+		table[TABLE_SIZE] = 1;
+		return table;
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+/**
+ * keyed permutation of the numbers from zero to the size of the domain minus one.<br />
+ * <br />
+ * each number is mapped to exactly one other number of the domain, so mapping the numbers
+ * 0, 1, 2, ... produces unique values in an order that looks random. no state is kept
+ * besides the key, so any thread can map any number at any time.<br />
+ * <br />
+ * the mapping is a balanced feistel network over the smallest even number of bits that
+ * covers the domain. results outside of the domain are mapped again until they fall
+ * into it (cycle walking). because the network covers less than four times the domain,
+ * this takes less than four rounds on average.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class FeistelPermutation
+{
+	private static final int NUMBER_OF_ROUNDS = 6;
+
+	private long domainSize;
+	private int halfBits;
+	private long halfMask;
+	private long[] roundKeys = new long[NUMBER_OF_ROUNDS];
+
+	/**
+	 * constructor specifying the number of values of the domain and the key.
+	 * different keys produce different permutations.
+	 */
+	public FeistelPermutation(long domainSize, long key)
+	{
+		if(domainSize<1)
+		{
+			throw new IllegalArgumentException("the size of the domain must be greater than zero: " + domainSize);
+		}
+		this.domainSize = domainSize;
+		int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(domainSize - 1));
+		halfBits = (bits + 1) / 2;
+		halfMask = halfBits==32 ? 0xffffffffL : (1L << halfBits) - 1;
+		long state = key;
+		for(int i=0;i<NUMBER_OF_ROUNDS;i++)
+		{
+			state += 0x9e3779b97f4a7c15L;
+			roundKeys[i] = RandomSource.mix(state);
+		}
+	}
+
+	/**
+	 * returns the value the given number is mapped to. the number must
+	 * be between zero and the size of the domain minus one.
+	 */
+	public long permute(long number)
+	{
+		long value = number;
+		do
+		{
+			value = encrypt(value);
+		} while(Long.compareUnsigned(value, domainSize)>=0);
+		return value;
+	}
+
+	/**
+	 * returns the number of values of the domain
+	 */
+	public long getDomainSize()
+	{
+		return domainSize;
+	}
+
+	private long encrypt(long value)
+	{
+		long left = (value >>> halfBits) & halfMask;
+		long right = value & halfMask;
+		for(int i=0;i<NUMBER_OF_ROUNDS;i++)
+		{
+			long newRight = left ^ (RandomSource.mix(right ^ roundKeys[i]) & halfMask);
+			left = right;
+			right = newRight;
+		}
+		return (left << halfBits) | right;
+	}
+
+}
@@ -116,7 +116,7 @@ public class Generator
 		}
 		else if(pattern.equals("h"))
 		{
-			if(cal.get(Calendar.MONTH)<=6)
+			if(cal.get(Calendar.MONTH)<=5)
 			{
 				return "1";
 			}
@@ -127,7 +127,7 @@ public class Generator
 		}
 		else if(pattern.equals("H"))
 		{
-			if(cal.get(Calendar.MONTH)<=6)
+			if(cal.get(Calendar.MONTH)<=5)
 			{
 				return "h1";
 			}
@@ -151,14 +151,65 @@ public class Generator
 	 */
 	public static String  generateRandomValue(String possibleCharacters, int length)
 	{
-		int possibilities = possibleCharacters.length();
-		StringBuffer generatedString = new StringBuffer();
-		for (int i=0;i<length;i++)
+		return new RandomStringGenerator(possibleCharacters).generate(length, new RandomSource());
+	}
+	
+	/**
+	 * appends the decimal digits of the value to the buffer without creating
+	 * intermediate objects. if the value has less than the minimum number of digits,
+	 * it is filled with leading zeros.
+	 */
+	public static void appendNumber(StringBuilder buffer, long value, int minimumDigits)
+	{
+		appendNumber(buffer, value, minimumDigits, 0, '.', (char)0);
+	}
+	
+	/**
+	 * appends the value to the buffer as a decimal number with the given number of digits
+	 * after the decimal separator - the value 12345 with scale 2 is appended as 123.45.
+	 * if the thousands separator is not zero, it is inserted between each group of three
+	 * digits before the decimal separator. no intermediate objects are created.
+	 */
+	public static void appendNumber(StringBuilder buffer, long value, int minimumDigits, int scale, char decimalSeparator, char thousandsSeparator)
+	{
+		// work with the negative value, so that the smallest long value can be handled as well
+		long negativeValue = value<0 ? value : -value;
+		if(value<0)
+		{
+			buffer.append('-');
+		}
+		int numberOfDigits = 1;
+		for(long remainder=negativeValue;remainder<=-10;remainder /= 10)
+		{
+			numberOfDigits++;
+		}
+		// at least one digit before the decimal separator
+		int digits = Math.max(Math.max(numberOfDigits, scale + 1), minimumDigits);
+		int integerDigits = digits - scale;
+		int width = digits;
+		if(scale>0)
 		{
-			Random rand = new Random();
-			int position = rand.nextInt(possibilities);
-			generatedString.append(possibleCharacters.substring(position,position+1));
+			width++;
+		}
+		if(thousandsSeparator!=0)
+		{
+			width += (integerDigits - 1) / 3;
+		}
+		int start = buffer.length();
+		buffer.setLength(start + width);
+		int position = start + width - 1;
+		for(int i=0;i<digits;i++)
+		{
+			if(scale>0 && i==scale)
+			{
+				buffer.setCharAt(position--, decimalSeparator);
+			}
+			else if(thousandsSeparator!=0 && i>scale && (i - scale) % 3==0)
+			{
+				buffer.setCharAt(position--, thousandsSeparator);
+			}
+			buffer.setCharAt(position--, (char)('0' - negativeValue % 10));
+			negativeValue /= 10;
 		}
-		return generatedString.toString();
 	}
 }
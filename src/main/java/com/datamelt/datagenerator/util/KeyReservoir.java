@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+/**
+ * keeps a uniform random sample of a fixed maximum number of the key values
+ * generated by a field of a parent layout.<br />
+ * <br />
+ * all values offered to the reservoir have the same chance of being part of the
+ * sample (reservoir sampling), so fields of a child layout can pick keys that really
+ * exist in the parent layout without all of them being stored.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class KeyReservoir
+{
+	public static final int DEFAULT_SIZE = 100000;
+
+	private String[] keys;
+	private int size;
+	private long numberOfOffers;
+
+	/**
+	 * constructor specifying the maximum number of keys kept in the reservoir
+	 */
+	public KeyReservoir(int maximumSize)
+	{
+		keys = new String[Math.max(1, maximumSize)];
+	}
+
+	/**
+	 * offers a key that has been generated by the parent layout. the key is
+	 * either added to the sample or ignored. the decision is drawn from the given
+	 * generator, so that the sample follows the seed.
+	 */
+	public void offer(String key, RandomSource random)
+	{
+		numberOfOffers++;
+		if(size<keys.length)
+		{
+			keys[size++] = key;
+		}
+		else
+		{
+			long position = random.nextLong(numberOfOffers);
+			if(position<keys.length)
+			{
+				keys[(int)position] = key;
+			}
+		}
+	}
+
+	/**
+	 * returns a key from the sample, picked using the given generator
+	 */
+	public String getRandomKey(RandomSource random)
+	{
+		return keys[random.nextInt(size)];
+	}
+
+	/**
+	 * returns the number of keys in the sample
+	 */
+	public int size()
+	{
+		return size;
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+import java.util.Arrays;
+
+/**
+ * counts durations in nanoseconds to calculate their percentiles.<br />
+ * <br />
+ * the durations are counted in buckets of a fixed array: each power of two is divided into 16
+ * buckets of equal width, so a percentile is exact to about 6 percent of its value. recording a
+ * duration only increments a counter and does not create any objects, the memory used does not
+ * depend on the number of durations.<br />
+ * <br />
+ * an instance is not thread safe.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS  = 4;
+	private static final int SUB_BUCKETS      = 1 << SUB_BUCKET_BITS;
+
+	private long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+	private long count;
+	private long maximum;
+	private long total;
+
+	/**
+	 * adds a duration in nanoseconds
+	 */
+	public void record(long nanoseconds)
+	{
+		long value = Math.max(0, nanoseconds);
+		counts[getBucket(value)]++;
+		count++;
+		total += value;
+		if(value>maximum)
+		{
+			maximum = value;
+		}
+	}
+
+	/**
+	 * returns the duration in nanoseconds below which the given percentage
+	 * of the durations lie. the percentage is a number between 0 and 100.
+	 */
+	public long getPercentile(double percentage)
+	{
+		if(count==0)
+		{
+			return 0;
+		}
+		long target = (long)Math.ceil(count * Math.min(100, Math.max(0, percentage)) / 100);
+		if(target<1)
+		{
+			target = 1;
+		}
+		long cumulative = 0;
+		for(int i=0;i<counts.length;i++)
+		{
+			cumulative += counts[i];
+			if(cumulative>=target)
+			{
+				return Math.min(getUpperBound(i), maximum);
+			}
+		}
+		return maximum;
+	}
+
+	/**
+	 * returns the number of durations recorded
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * returns the largest duration in nanoseconds
+	 */
+	public long getMaximum()
+	{
+		return maximum;
+	}
+
+	/**
+	 * returns the average duration in nanoseconds
+	 */
+	public double getMean()
+	{
+		return count>0 ? (double)total / count : 0;
+	}
+
+	/**
+	 * adds the durations of the other histogram to this one
+	 */
+	public void add(LatencyHistogram other)
+	{
+		for(int i=0;i<counts.length;i++)
+		{
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		total += other.total;
+		if(other.maximum>maximum)
+		{
+			maximum = other.maximum;
+		}
+	}
+
+	/**
+	 * removes all durations
+	 */
+	public void reset()
+	{
+		Arrays.fill(counts, 0);
+		count = 0;
+		maximum = 0;
+		total = 0;
+	}
+
+	/**
+	 * values below 16 have a bucket each. above, the position of the highest bit selects
+	 * the power of two and the next four bits the bucket within it.
+	 */
+	private static int getBucket(long value)
+	{
+		if(value<SUB_BUCKETS)
+		{
+			return (int)value;
+		}
+		int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+		return (shift + 1) * SUB_BUCKETS + (int)((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * returns the largest value counted in the given bucket
+	 */
+	private static long getUpperBound(int bucket)
+	{
+		if(bucket<SUB_BUCKETS)
+		{
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lower = ((long)(SUB_BUCKETS + bucket % SUB_BUCKETS)) << shift;
+		return lower + (1L << shift) - 1;
+	}
+}
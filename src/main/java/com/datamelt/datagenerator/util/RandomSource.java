@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * fast generator of random numbers (splitmix64).<br />
+ * <br />
+ * the complete state of the generator is a single long value. an instance is not
+ * thread safe: each field uses its own instance, so no synchronization is needed.<br />
+ * <br />
+ * bounded values are calculated using multiplication instead of division (lemire's
+ * method). a division is only needed in the rare case that a value has to be rejected
+ * to keep the distribution uniform.<br />
+ * <br />
+ * the generator can also be used counter based: with the state set to mix(key + counter) - e.g.
+ * the seed of a field and the number of a row - the numbers only depend on the key and the
+ * counter, not on the numbers generated before.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class RandomSource
+{
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private static final AtomicLong seedUniquifier = new AtomicLong(0x2545f4914f6cdd1dL);
+
+	private long state;
+
+	/**
+	 * constructor creating a generator with a seed that differs for
+	 * every instance
+	 */
+	public RandomSource()
+	{
+		this(mix(seedUniquifier.addAndGet(GOLDEN_GAMMA) ^ System.nanoTime()));
+	}
+
+	/**
+	 * constructor creating a generator with the given seed. generators
+	 * with the same seed produce the same numbers.
+	 */
+	public RandomSource(long seed)
+	{
+		this.state = seed;
+	}
+
+	/**
+	 * returns a random long value
+	 */
+	public long nextLong()
+	{
+		state += GOLDEN_GAMMA;
+		return mix(state);
+	}
+
+	/**
+	 * returns a random int value between zero (inclusive) and the bound (exclusive).
+	 * the bound must be greater than zero.
+	 */
+	public int nextInt(int bound)
+	{
+		long random = nextLong() >>> 32;
+		long product = random * bound;
+		long low = product & 0xffffffffL;
+		if(low<bound)
+		{
+			long threshold = (0x100000000L - bound) % bound;
+			while(low<threshold)
+			{
+				random = nextLong() >>> 32;
+				product = random * bound;
+				low = product & 0xffffffffL;
+			}
+		}
+		return (int)(product >>> 32);
+	}
+
+	/**
+	 * returns a random long value between zero (inclusive) and the bound (exclusive).
+	 * the bound must be greater than zero.
+	 */
+	public long nextLong(long bound)
+	{
+		if(bound<=Integer.MAX_VALUE)
+		{
+			return nextInt((int)bound);
+		}
+		// reject the values of the last incomplete multiple of the bound
+		long limit = Long.MAX_VALUE - (Long.MAX_VALUE % bound);
+		long random;
+		do
+		{
+			random = nextLong() >>> 1;
+		} while(random>=limit);
+		return random % bound;
+	}
+
+	/**
+	 * returns a random double value between zero (inclusive) and one (exclusive)
+	 */
+	public double nextDouble()
+	{
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * returns the state of the generator. a generator set to this state
+	 * produces the same numbers as this one.
+	 */
+	public long getState()
+	{
+		return state;
+	}
+
+	/**
+	 * sets the state of the generator
+	 */
+	public void setState(long state)
+	{
+		this.state = state;
+	}
+
+	/**
+	 * finalizer of the splitmix64 generator. it maps each long value
+	 * to another long value with good statistical properties.
+	 */
+	public static long mix(long value)
+	{
+		value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+		value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+		return value ^ (value >>> 31);
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+/**
+ * generates random strings from a fixed set of possible characters.<br />
+ * <br />
+ * the characters are kept in an array, so a random character is a simple array lookup.
+ * several random positions are extracted from each 64 bit random value: the value is
+ * repeatedly multiplied by the number of characters, the upper bits of each product being
+ * the position and the lower bits the remaining random value. to keep all characters equally
+ * likely, the positions are only discarded if the remaining random value falls below a threshold,
+ * which is rare. no division is needed to generate the characters.<br />
+ * <br />
+ * for 62 possible characters, 10 characters are taken from each random value. an instance is
+ * not thread safe.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class RandomStringGenerator
+{
+	private char[] characters;
+	private int numberOfCharacters;
+
+	// number of positions taken from one random value and the product of their bounds
+	private int positionsPerValue;
+	private long product;
+	private long threshold;
+
+	private int[] positions;
+
+	/**
+	 * constructor specifying the possible characters. characters specified
+	 * more than once are more likely to be used.
+	 */
+	public RandomStringGenerator(String possibleCharacters)
+	{
+		if(possibleCharacters==null || possibleCharacters.length()==0)
+		{
+			throw new IllegalArgumentException("no possible characters specified for generating random values");
+		}
+		characters = possibleCharacters.toCharArray();
+		numberOfCharacters = characters.length;
+
+		// as many positions as possible, as long as the product of the bounds fits into 64 bits
+		positionsPerValue = 1;
+		product = numberOfCharacters;
+		while(numberOfCharacters>1 && Long.compareUnsigned(product, Long.divideUnsigned(-1L, numberOfCharacters))<=0)
+		{
+			product *= numberOfCharacters;
+			positionsPerValue++;
+		}
+		threshold = Long.remainderUnsigned(-product, product);
+		positions = new int[positionsPerValue];
+	}
+
+	/**
+	 * returns a random string of the given length
+	 */
+	public String generate(int length, RandomSource random)
+	{
+		char[] value = new char[length];
+		fill(value, 0, length, random);
+		return new String(value);
+	}
+
+	/**
+	 * fills the target array with random characters, starting at the offset
+	 */
+	public void fill(char[] target, int offset, int length, RandomSource random)
+	{
+		int end = offset + length;
+		int position = offset;
+		while(position<end)
+		{
+			int count = nextPositions(random);
+			for(int i=0;i<count && position<end;i++)
+			{
+				target[position++] = characters[positions[i]];
+			}
+		}
+	}
+
+	/**
+	 * extracts the positions from one random value into the positions array
+	 * and returns how many there are
+	 */
+	private int nextPositions(RandomSource random)
+	{
+		if(numberOfCharacters==1)
+		{
+			positions[0] = 0;
+			return 1;
+		}
+		long remainder = extract(random.nextLong());
+		if(Long.compareUnsigned(remainder, product)<0)
+		{
+			while(Long.compareUnsigned(remainder, threshold)<0)
+			{
+				remainder = extract(random.nextLong());
+			}
+		}
+		return positionsPerValue;
+	}
+
+	private long extract(long value)
+	{
+		long bound = numberOfCharacters;
+		for(int i=0;i<positionsPerValue;i++)
+		{
+			// upper and lower 64 bits of the 128 bit product of the value and the bound
+			long lowProduct = (value & 0xffffffffL) * bound;
+			long highProduct = (value >>> 32) * bound + (lowProduct >>> 32);
+			positions[i] = (int)(highProduct >>> 32);
+			value = value * bound;
+		}
+		return value;
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * limits the number of rows per second that are released for output.<br />
+ * <br />
+ * rows are released in batches: the caller asks for permission to write a batch of rows and
+ * is blocked until the time at which the last row of the batch is due. the time is calculated
+ * from the total number of rows released since the start, so rounding errors and late wake ups
+ * do not add up over time. with a batch size of about one two-hundredth of the rate, the thread
+ * sleeps about 200 times per second, independent of the rate.<br />
+ * <br />
+ * optionally the rate is increased linearly from zero to the target rate over a ramp duration.<br />
+ * <br />
+ * if the caller falls behind the schedule by more than one second - because the rows can not be
+ * written fast enough - the schedule is moved forward, so that the rows that were not written in
+ * time are not sent in one burst later on. an instance is not thread safe.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class RateLimiter
+{
+	private static final long NANOSECONDS_PER_SECOND = 1000000000L;
+	private static final long MAXIMUM_DELAY          = NANOSECONDS_PER_SECOND;
+	private static final int BATCHES_PER_SECOND      = 200;
+	private static final int MAXIMUM_BATCH_SIZE      = 10000;
+
+	private double rowsPerSecond;
+	private double rampSeconds;
+	// number of rows released until the end of the ramp
+	private double rampRows;
+
+	private boolean started;
+	private long startTime;
+	private double releasedRows;
+	private long numberOfRows;
+
+	/**
+	 * constructor specifying the target number of rows per second and the number of
+	 * milliseconds over which the rate is increased from zero to the target rate.
+	 */
+	public RateLimiter(double rowsPerSecond, double rampMilliseconds)
+	{
+		if(!(rowsPerSecond>0) || Double.isInfinite(rowsPerSecond))
+		{
+			throw new IllegalArgumentException("the number of rows per second must be greater than zero: " + rowsPerSecond);
+		}
+		if(!(rampMilliseconds>=0))
+		{
+			throw new IllegalArgumentException("the ramp duration must not be negative: " + rampMilliseconds);
+		}
+		this.rowsPerSecond = rowsPerSecond;
+		this.rampSeconds = rampMilliseconds / 1000;
+		this.rampRows = rowsPerSecond * rampSeconds / 2;
+	}
+
+	/**
+	 * starts the schedule. called automatically by the first call to acquire.
+	 */
+	public void start()
+	{
+		started = true;
+		startTime = System.nanoTime();
+		releasedRows = 0;
+		numberOfRows = 0;
+	}
+
+	/**
+	 * blocks until the given number of rows may be written
+	 */
+	public void acquire(int rows)
+	{
+		if(!started)
+		{
+			start();
+		}
+		releasedRows += rows;
+		numberOfRows += rows;
+		long due = startTime + (long)(getSecondsForRows(releasedRows) * NANOSECONDS_PER_SECOND);
+		long now = System.nanoTime();
+		if(now - due > MAXIMUM_DELAY)
+		{
+			// forget the rows that could not be written in time
+			releasedRows = getRowsForSeconds((double)(now - startTime) / NANOSECONDS_PER_SECOND);
+			return;
+		}
+		long remaining;
+		while((remaining = due - System.nanoTime())>0)
+		{
+			LockSupport.parkNanos(remaining);
+		}
+	}
+
+	/**
+	 * returns the number of rows that should be written at once, so that the
+	 * thread is woken up about 200 times per second at the current rate
+	 */
+	public int getBatchSize()
+	{
+		double rate = getCurrentRate();
+		return (int)Math.max(1, Math.min(MAXIMUM_BATCH_SIZE, rate / BATCHES_PER_SECOND));
+	}
+
+	/**
+	 * returns the number of rows per second at this moment of the schedule
+	 */
+	public double getCurrentRate()
+	{
+		if(!started || rampSeconds==0)
+		{
+			return rowsPerSecond;
+		}
+		double seconds = (double)(System.nanoTime() - startTime) / NANOSECONDS_PER_SECOND;
+		if(seconds>=rampSeconds)
+		{
+			return rowsPerSecond;
+		}
+		// at least one row per second, so that the first rows are written without delay
+		return Math.max(1, rowsPerSecond * seconds / rampSeconds);
+	}
+
+	/**
+	 * returns the average number of rows per second that the schedule allowed since
+	 * the start. during the ramp this is lower than the target rate.
+	 */
+	public double getScheduledRate()
+	{
+		if(!started)
+		{
+			return rowsPerSecond;
+		}
+		double seconds = (double)(System.nanoTime() - startTime) / NANOSECONDS_PER_SECOND;
+		return seconds>0 ? getRowsForSeconds(seconds) / seconds : rowsPerSecond;
+	}
+
+	/**
+	 * returns the number of rows acquired since the start
+	 */
+	public long getNumberOfRows()
+	{
+		return numberOfRows;
+	}
+
+	/**
+	 * returns the number of nanoseconds since the start
+	 */
+	public long getElapsedNanoseconds()
+	{
+		return !started ? 0 : System.nanoTime() - startTime;
+	}
+
+	public double getRowsPerSecond()
+	{
+		return rowsPerSecond;
+	}
+
+	/**
+	 * returns the number of seconds after the start at which the given number of
+	 * rows is due. during the ramp the number of rows grows with the square of the time.
+	 */
+	private double getSecondsForRows(double rows)
+	{
+		if(rows<rampRows)
+		{
+			return Math.sqrt(2 * rampSeconds * rows / rowsPerSecond);
+		}
+		return rampSeconds + (rows - rampRows) / rowsPerSecond;
+	}
+
+	private double getRowsForSeconds(double seconds)
+	{
+		if(seconds<rampSeconds)
+		{
+			return rowsPerSecond * seconds * seconds / (2 * rampSeconds);
+		}
+		return rampRows + (seconds - rampSeconds) * rowsPerSecond;
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * hands out ranges of positions of a sequence.<br />
+ * <br />
+ * the allocator holds a single counter, which can be shared by all the threads
+ * generating values for the same sequence field. each thread claims a block of
+ * positions at once and then uses them without further synchronization. this way
+ * the values of the sequence are unique and - apart from the last block of each
+ * thread - without gaps.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class SequenceAllocator
+{
+	public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+	private AtomicLong counter;
+	private int blockSize;
+
+	/**
+	 * constructor using the default block size and starting at position zero
+	 */
+	public SequenceAllocator()
+	{
+		this(DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * constructor specifying the number of positions that are claimed at once
+	 */
+	public SequenceAllocator(int blockSize)
+	{
+		this.blockSize = Math.max(1, blockSize);
+		this.counter = new AtomicLong();
+	}
+
+	/**
+	 * claims the next block of positions and returns the first position of
+	 * the block. the block ends at the returned position plus the block size.
+	 */
+	public long claimBlock()
+	{
+		return counter.getAndAdd(blockSize);
+	}
+
+	/**
+	 * returns the number of positions that are claimed at once
+	 */
+	public int getBlockSize()
+	{
+		return blockSize;
+	}
+
+	/**
+	 * sets the position from which the next block will be claimed
+	 */
+	public void setPosition(long position)
+	{
+		counter.set(position);
+	}
+}
@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * describes the output file of one shard of a dataset that was generated by multiple
+ * runs - usually on multiple machines - each generating a range of the rows.<br />
+ * <br />
+ * the manifest holds the settings that must be the same for all shards - the seed, the
+ * checksum of the row layout file, the output format and the total number of rows - and
+ * the range of rows of the shard, the length and the checksum of its output file. it is
+ * stored as a properties file next to the output file, with the extension .manifest.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class ShardManifest
+{
+	public static final String FILE_EXTENSION		= ".manifest";
+
+	private static final String KEY_SEED			= "seed";
+	private static final String KEY_LAYOUT			= "layout";
+	private static final String KEY_LAYOUT_CHECKSUM	= "layoutchecksum";
+	private static final String KEY_FORMAT			= "format";
+	private static final String KEY_TOTAL_ROWS		= "totalrows";
+	private static final String KEY_SHARD			= "shard";
+	private static final String KEY_SHARDS			= "shards";
+	private static final String KEY_FIRST_ROW		= "firstrow";
+	private static final String KEY_ROWS			= "rows";
+	private static final String KEY_FILE			= "file";
+	private static final String KEY_LENGTH			= "length";
+	private static final String KEY_CHECKSUM		= "checksum";
+
+	private static final int BUFFER_SIZE			= 65536;
+
+	private long seed;
+	private String layout;
+	private long layoutChecksum;
+	private String format;
+	private long totalRows;
+	private int shard;
+	private int numberOfShards;
+	private long firstRow;
+	private long numberOfRows;
+	private String file;
+	private long length;
+	private long checksum;
+
+	/**
+	 * reads the manifest from the given file
+	 */
+	public static ShardManifest load(File manifestFile) throws Exception
+	{
+		Properties properties = new Properties();
+		FileInputStream in = new FileInputStream(manifestFile);
+		try
+		{
+			properties.load(in);
+		}
+		finally
+		{
+			in.close();
+		}
+		ShardManifest manifest = new ShardManifest();
+		manifest.seed = getLong(properties, KEY_SEED, manifestFile);
+		manifest.layout = getString(properties, KEY_LAYOUT, manifestFile);
+		manifest.layoutChecksum = getLong(properties, KEY_LAYOUT_CHECKSUM, manifestFile);
+		manifest.format = getString(properties, KEY_FORMAT, manifestFile);
+		manifest.totalRows = getLong(properties, KEY_TOTAL_ROWS, manifestFile);
+		manifest.shard = (int)getLong(properties, KEY_SHARD, manifestFile);
+		manifest.numberOfShards = (int)getLong(properties, KEY_SHARDS, manifestFile);
+		manifest.firstRow = getLong(properties, KEY_FIRST_ROW, manifestFile);
+		manifest.numberOfRows = getLong(properties, KEY_ROWS, manifestFile);
+		manifest.file = getString(properties, KEY_FILE, manifestFile);
+		manifest.length = getLong(properties, KEY_LENGTH, manifestFile);
+		manifest.checksum = getLong(properties, KEY_CHECKSUM, manifestFile);
+		return manifest;
+	}
+
+	private static String getString(Properties properties, String key, File manifestFile) throws Exception
+	{
+		String value = properties.getProperty(key);
+		if(value==null)
+		{
+			throw new Exception("entry missing in manifest file: " + manifestFile + " - " + key);
+		}
+		return value;
+	}
+
+	private static long getLong(Properties properties, String key, File manifestFile) throws Exception
+	{
+		String value = getString(properties, key, manifestFile);
+		try
+		{
+			return Long.parseLong(value);
+		}
+		catch(NumberFormatException nfe)
+		{
+			throw new Exception("invalid entry in manifest file: " + manifestFile + " - " + key + "=" + value);
+		}
+	}
+
+	/**
+	 * writes the manifest to the given file
+	 */
+	public void save(File manifestFile) throws IOException
+	{
+		Properties properties = new Properties();
+		properties.setProperty(KEY_SEED, Long.toString(seed));
+		properties.setProperty(KEY_LAYOUT, layout);
+		properties.setProperty(KEY_LAYOUT_CHECKSUM, Long.toString(layoutChecksum));
+		properties.setProperty(KEY_FORMAT, format);
+		properties.setProperty(KEY_TOTAL_ROWS, Long.toString(totalRows));
+		properties.setProperty(KEY_SHARD, Integer.toString(shard));
+		properties.setProperty(KEY_SHARDS, Integer.toString(numberOfShards));
+		properties.setProperty(KEY_FIRST_ROW, Long.toString(firstRow));
+		properties.setProperty(KEY_ROWS, Long.toString(numberOfRows));
+		properties.setProperty(KEY_FILE, file);
+		properties.setProperty(KEY_LENGTH, Long.toString(length));
+		properties.setProperty(KEY_CHECKSUM, Long.toString(checksum));
+		FileOutputStream out = new FileOutputStream(manifestFile);
+		try
+		{
+			properties.store(out, "shard " + shard + " of " + numberOfShards);
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	/**
+	 * returns the crc32 checksum of the content of the given file
+	 */
+	public static long getChecksum(File file) throws IOException
+	{
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		InputStream in = new FileInputStream(file);
+		try
+		{
+			int numberOfBytes;
+			while((numberOfBytes = in.read(buffer))>0)
+			{
+				crc.update(buffer, 0, numberOfBytes);
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+		return crc.getValue();
+	}
+
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	public void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	/**
+	 * returns the name of the row layout file
+	 */
+	public String getLayout()
+	{
+		return layout;
+	}
+
+	public void setLayout(String layout)
+	{
+		this.layout = layout;
+	}
+
+	/**
+	 * returns the checksum of the row layout file. shards generated from different
+	 * layouts can not be merged.
+	 */
+	public long getLayoutChecksum()
+	{
+		return layoutChecksum;
+	}
+
+	public void setLayoutChecksum(long layoutChecksum)
+	{
+		this.layoutChecksum = layoutChecksum;
+	}
+
+	public String getFormat()
+	{
+		return format;
+	}
+
+	public void setFormat(String format)
+	{
+		this.format = format;
+	}
+
+	/**
+	 * returns the number of rows of all shards together
+	 */
+	public long getTotalRows()
+	{
+		return totalRows;
+	}
+
+	public void setTotalRows(long totalRows)
+	{
+		this.totalRows = totalRows;
+	}
+
+	/**
+	 * returns the number of the shard, starting at one
+	 */
+	public int getShard()
+	{
+		return shard;
+	}
+
+	public void setShard(int shard)
+	{
+		this.shard = shard;
+	}
+
+	public int getNumberOfShards()
+	{
+		return numberOfShards;
+	}
+
+	public void setNumberOfShards(int numberOfShards)
+	{
+		this.numberOfShards = numberOfShards;
+	}
+
+	/**
+	 * returns the number of the first row of the shard, starting at zero
+	 */
+	public long getFirstRow()
+	{
+		return firstRow;
+	}
+
+	public void setFirstRow(long firstRow)
+	{
+		this.firstRow = firstRow;
+	}
+
+	public long getNumberOfRows()
+	{
+		return numberOfRows;
+	}
+
+	public void setNumberOfRows(long numberOfRows)
+	{
+		this.numberOfRows = numberOfRows;
+	}
+
+	/**
+	 * returns the name of the output file of the shard, which is in the same folder
+	 * as the manifest
+	 */
+	public String getFile()
+	{
+		return file;
+	}
+
+	public void setFile(String file)
+	{
+		this.file = file;
+	}
+
+	public long getLength()
+	{
+		return length;
+	}
+
+	public void setLength(long length)
+	{
+		this.length = length;
+	}
+
+	public long getChecksum()
+	{
+		return checksum;
+	}
+
+	public void setChecksum(long checksum)
+	{
+		this.checksum = checksum;
+	}
+}
@@ -0,0 +1,482 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * memory bounded set, used to make sure that the values generated for a field
+ * are unique.<br />
+ * <br />
+ * instead of the values themselves, a 64 bit hash of each value is stored in an open
+ * addressing hash table, which is allocated outside of the java heap. when the table holds
+ * the maximum number of entries, its content is sorted and written to a temporary file - a
+ * sorted run - and the table is cleared. a lookup checks the table first and then does a
+ * binary search in each of the sorted runs, which are memory mapped. if there are too many
+ * runs, they are merged into a single one.<br />
+ * <br />
+ * two different values with the same hash are treated as duplicates. this may cause an
+ * unnecessary retry when generating a value, but never a duplicate value in the output.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class UniqueValueSet
+{
+	public static final int DEFAULT_MAXIMUM_ENTRIES = 4 * 1024 * 1024;
+
+	// the table is at most half full, so the largest table still fits into one direct buffer
+	private static final int MAXIMUM_ENTRIES_LIMIT   = 1 << 26;
+	private static final int INITIAL_CAPACITY        = 1 << 16;
+	private static final int MAXIMUM_NUMBER_OF_RUNS  = 8;
+
+	private static final String RUN_FILE_PREFIX      = "datagenerator_unique_";
+	private static final String RUN_FILE_EXTENSION   = ".run";
+
+	private int maximumEntries;
+	private File folder;
+
+	private LongBuffer table;
+	private int capacity;
+	private int numberOfEntries;
+	private long size;
+
+	private ArrayList <SortedRun> runs = new ArrayList <SortedRun>();
+
+	/**
+	 * constructor using the default maximum number of entries in memory
+	 * and the default temporary folder for the sorted runs
+	 */
+	public UniqueValueSet()
+	{
+		this(DEFAULT_MAXIMUM_ENTRIES, null);
+	}
+
+	/**
+	 * constructor specifying the maximum number of hashes that are kept in memory
+	 * - each one taking up 16 bytes of memory outside of the heap - and the folder where
+	 * the sorted runs are written to. if the folder is null, the temporary folder of
+	 * the system is used.
+	 */
+	public UniqueValueSet(int maximumEntries, File folder)
+	{
+		this.maximumEntries = Math.max(1, Math.min(maximumEntries, MAXIMUM_ENTRIES_LIMIT));
+		this.folder = folder;
+		this.capacity = Math.min(INITIAL_CAPACITY, Integer.highestOneBit(this.maximumEntries) << 2);
+		this.table = allocate(capacity);
+	}
+
+	/**
+	 * adds the value to the set. returns true if the value was added and false
+	 * if it - or a value having the same hash - was already in the set.
+	 */
+	public boolean add(String value) throws IOException
+	{
+		long hash = hash(value);
+		if(containsInTable(hash) || containsInRuns(hash))
+		{
+			return false;
+		}
+		if(numberOfEntries>=maximumEntries)
+		{
+			spill();
+		}
+		else if(numberOfEntries>=capacity/2)
+		{
+			resize(capacity * 2);
+		}
+		insert(table, capacity, hash);
+		numberOfEntries++;
+		size++;
+		return true;
+	}
+
+	/**
+	 * returns the number of values that have been added to the set
+	 */
+	public long size()
+	{
+		return size;
+	}
+
+	/**
+	 * returns the number of sorted runs that have been written to disk
+	 */
+	public int getNumberOfRuns()
+	{
+		return runs.size();
+	}
+
+	/**
+	 * removes all sorted runs from disk. the set can not be used afterwards.
+	 */
+	public void close()
+	{
+		for(int i=0;i<runs.size();i++)
+		{
+			runs.get(i).delete();
+		}
+		runs.clear();
+		table = null;
+	}
+
+	/**
+	 * calculates a 64 bit hash of the given value (FNV-1a followed by
+	 * the finalizer of murmur3). zero is used to mark an empty slot in the
+	 * table, so it is never returned.
+	 */
+	public static long hash(String value)
+	{
+		long hash = 0xcbf29ce484222325L;
+		for(int i=0;i<value.length();i++)
+		{
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= value.length();
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash==0 ? 1 : hash;
+	}
+
+	private static LongBuffer allocate(int capacity)
+	{
+		return ByteBuffer.allocateDirect(capacity * 8).asLongBuffer();
+	}
+
+	private static void insert(LongBuffer table, int capacity, long hash)
+	{
+		int mask = capacity - 1;
+		int slot = (int)(hash ^ (hash >>> 32)) & mask;
+		while(table.get(slot)!=0)
+		{
+			slot = (slot + 1) & mask;
+		}
+		table.put(slot, hash);
+	}
+
+	private boolean containsInTable(long hash)
+	{
+		int mask = capacity - 1;
+		int slot = (int)(hash ^ (hash >>> 32)) & mask;
+		long entry;
+		while((entry = table.get(slot))!=0)
+		{
+			if(entry==hash)
+			{
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	private boolean containsInRuns(long hash)
+	{
+		for(int i=0;i<runs.size();i++)
+		{
+			if(runs.get(i).contains(hash))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void resize(int newCapacity)
+	{
+		LongBuffer newTable = allocate(newCapacity);
+		for(int i=0;i<capacity;i++)
+		{
+			long entry = table.get(i);
+			if(entry!=0)
+			{
+				insert(newTable, newCapacity, entry);
+			}
+		}
+		table = newTable;
+		capacity = newCapacity;
+	}
+
+	/**
+	 * sorts the hashes of the table and writes them to a new sorted run. afterwards
+	 * the table is cleared. if there are too many runs, they are merged into one.
+	 */
+	private void spill() throws IOException
+	{
+		// move all entries to the beginning of the table and sort them in place
+		int count=0;
+		for(int i=0;i<capacity;i++)
+		{
+			long entry = table.get(i);
+			if(entry!=0)
+			{
+				table.put(i, 0);
+				table.put(count++, entry);
+			}
+		}
+		heapSort(table, count);
+
+		File file = File.createTempFile(RUN_FILE_PREFIX, RUN_FILE_EXTENSION, folder);
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try
+		{
+			FileChannel channel = randomAccessFile.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+			for(int i=0;i<count;i++)
+			{
+				if(!buffer.hasRemaining())
+				{
+					writeFully(channel, buffer);
+				}
+				buffer.putLong(table.get(i));
+				table.put(i, 0);
+			}
+			writeFully(channel, buffer);
+		}
+		finally
+		{
+			randomAccessFile.close();
+		}
+		runs.add(new SortedRun(file, count));
+		numberOfEntries = 0;
+
+		if(runs.size()>MAXIMUM_NUMBER_OF_RUNS)
+		{
+			mergeRuns();
+		}
+	}
+
+	/**
+	 * merges all sorted runs into a single new one
+	 */
+	private void mergeRuns() throws IOException
+	{
+		File file = File.createTempFile(RUN_FILE_PREFIX, RUN_FILE_EXTENSION, folder);
+		long[] positions = new long[runs.size()];
+		long count = 0;
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try
+		{
+			FileChannel channel = randomAccessFile.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+			while(true)
+			{
+				int smallest = -1;
+				long smallestValue = 0;
+				for(int i=0;i<runs.size();i++)
+				{
+					SortedRun run = runs.get(i);
+					if(positions[i]<run.length)
+					{
+						long value = run.get(positions[i]);
+						if(smallest==-1 || value<smallestValue)
+						{
+							smallest = i;
+							smallestValue = value;
+						}
+					}
+				}
+				if(smallest==-1)
+				{
+					break;
+				}
+				positions[smallest]++;
+				if(!buffer.hasRemaining())
+				{
+					writeFully(channel, buffer);
+				}
+				buffer.putLong(smallestValue);
+				count++;
+			}
+			writeFully(channel, buffer);
+		}
+		finally
+		{
+			randomAccessFile.close();
+		}
+		for(int i=0;i<runs.size();i++)
+		{
+			runs.get(i).delete();
+		}
+		runs.clear();
+		runs.add(new SortedRun(file, count));
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+	{
+		buffer.flip();
+		while(buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * sorts the first count values of the buffer in place. heapsort is used because
+	 * it needs neither recursion nor additional memory.
+	 */
+	private static void heapSort(LongBuffer buffer, int count)
+	{
+		for(int i=count/2-1;i>=0;i--)
+		{
+			siftDown(buffer, i, count);
+		}
+		for(int end=count-1;end>0;end--)
+		{
+			long first = buffer.get(0);
+			buffer.put(0, buffer.get(end));
+			buffer.put(end, first);
+			siftDown(buffer, 0, end);
+		}
+	}
+
+	private static void siftDown(LongBuffer buffer, int position, int count)
+	{
+		long value = buffer.get(position);
+		int child;
+		while((child = 2 * position + 1)<count)
+		{
+			if(child+1<count && buffer.get(child+1)>buffer.get(child))
+			{
+				child++;
+			}
+			if(buffer.get(child)<=value)
+			{
+				break;
+			}
+			buffer.put(position, buffer.get(child));
+			position = child;
+		}
+		buffer.put(position, value);
+	}
+
+	/**
+	 * a file of sorted hashes, which is memory mapped in segments. every n-th value
+	 * is kept on the heap, so that a lookup only touches a small part of the file.
+	 */
+	private static class SortedRun
+	{
+		private static final int SEGMENT_BITS    = 27;
+		private static final long SEGMENT_MASK   = (1L << SEGMENT_BITS) - 1;
+		private static final int FENCE_INTERVAL  = 512;
+
+		private File file;
+		private long length;
+		private LongBuffer[] segments;
+		private long[] fences;
+
+		private SortedRun(File file, long length) throws IOException
+		{
+			this.file = file;
+			this.length = length;
+			int numberOfSegments = (int)((length + SEGMENT_MASK) >>> SEGMENT_BITS);
+			segments = new LongBuffer[numberOfSegments];
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+			try
+			{
+				FileChannel channel = randomAccessFile.getChannel();
+				for(int i=0;i<numberOfSegments;i++)
+				{
+					long start = (long)i << SEGMENT_BITS;
+					long segmentLength = Math.min(length - start, SEGMENT_MASK + 1);
+					segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start * 8, segmentLength * 8).asLongBuffer();
+				}
+			}
+			finally
+			{
+				randomAccessFile.close();
+			}
+			fences = new long[(int)((length + FENCE_INTERVAL - 1) / FENCE_INTERVAL)];
+			for(int i=0;i<fences.length;i++)
+			{
+				fences[i] = get((long)i * FENCE_INTERVAL);
+			}
+		}
+
+		private long get(long index)
+		{
+			return segments[(int)(index >>> SEGMENT_BITS)].get((int)(index & SEGMENT_MASK));
+		}
+
+		private boolean contains(long hash)
+		{
+			if(length==0 || hash<fences[0])
+			{
+				return false;
+			}
+			// find the last fence that is smaller or equal to the hash
+			int low = 0;
+			int high = fences.length - 1;
+			while(low<high)
+			{
+				int middle = (low + high + 1) >>> 1;
+				if(fences[middle]<=hash)
+				{
+					low = middle;
+				}
+				else
+				{
+					high = middle - 1;
+				}
+			}
+			// search the block of values following the fence
+			long blockLow = (long)low * FENCE_INTERVAL;
+			long blockHigh = Math.min(blockLow + FENCE_INTERVAL, length) - 1;
+			while(blockLow<=blockHigh)
+			{
+				long middle = (blockLow + blockHigh) >>> 1;
+				long value = get(middle);
+				if(value==hash)
+				{
+					return true;
+				}
+				else if(value<hash)
+				{
+					blockLow = middle + 1;
+				}
+				else
+				{
+					blockHigh = middle - 1;
+				}
+			}
+			return false;
+		}
+
+		private void delete()
+		{
+			segments = null;
+			fences = null;
+			// mapped files can not be deleted on some systems while the mapping is alive
+			if(!file.delete())
+			{
+				file.deleteOnExit();
+			}
+		}
+	}
+}
@@ -18,6 +18,8 @@
  */ 
 package com.datamelt.datagenerator.util;
 
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.Calendar;
 
 public class Utility
@@ -46,6 +48,8 @@ public class Utility
 		calMax.set(Calendar.HOUR_OF_DAY, DEFAULT_MAXDATE_HOUR);
 		calMax.set(Calendar.MINUTE, DEFAULT_MAXDATE_MINUTE);
 		calMax.set(Calendar.SECOND, DEFAULT_MAXDATE_SECOND);
+		// the range of dates must not depend on the time the program was started
+		calMax.set(Calendar.MILLISECOND, 0);
 		// get the milliseconds value for the max date
 		return calMax.getTimeInMillis();
 	}
@@ -60,7 +64,83 @@ public class Utility
 		calMin.set(Calendar.HOUR_OF_DAY, DEFAULT_MINDATE_HOUR);
 		calMin.set(Calendar.MINUTE, DEFAULT_MINDATE_MINUTE);
 		calMin.set(Calendar.SECOND, DEFAULT_MINDATE_SECOND);
+		// the range of dates must not depend on the time the program was started
+		calMin.set(Calendar.MILLISECOND, 0);
 		// get the milliseconds value for the max date
 		return calMin.getTimeInMillis();
 	}
+	
+	/**
+	 * returns the milliseconds of a duration such as 250ms, 5s, 10m, 2h or 1d.
+	 * a number without a unit is a number of milliseconds. decimals are allowed: 1.5s
+	 */
+	public static double parseDuration(String duration) throws Exception
+	{
+		String value = duration.trim().toLowerCase();
+		double factor = 1;
+		if(value.endsWith("ms"))
+		{
+			value = value.substring(0, value.length()-2);
+		}
+		else if(value.endsWith("s"))
+		{
+			factor = 1000;
+			value = value.substring(0, value.length()-1);
+		}
+		else if(value.endsWith("m"))
+		{
+			factor = 60000;
+			value = value.substring(0, value.length()-1);
+		}
+		else if(value.endsWith("h"))
+		{
+			factor = 3600000;
+			value = value.substring(0, value.length()-1);
+		}
+		else if(value.endsWith("d"))
+		{
+			factor = 86400000;
+			value = value.substring(0, value.length()-1);
+		}
+		try
+		{
+			double milliseconds = Double.parseDouble(value.trim()) * factor;
+			if(milliseconds<0 || Double.isNaN(milliseconds) || Double.isInfinite(milliseconds))
+			{
+				throw new Exception("invalid duration: " + duration);
+			}
+			return milliseconds;
+		}
+		catch(NumberFormatException nfe)
+		{
+			throw new Exception("invalid duration: " + duration + ". use a number followed by ms, s, m, h or d");
+		}
+	}
+	
+	/**
+	 * returns the milliseconds of a date in the format yyyy-MM-dd, optionally followed
+	 * by the time in the format HH:mm, HH:mm:ss or HH:mm:ss.SSS
+	 */
+	public static long parseDateTime(String dateTime) throws Exception
+	{
+		final String[] patterns = {"yyyy-MM-dd HH:mm:ss.SSS", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm", "yyyy-MM-dd"};
+		String value = dateTime.trim().replace('T', ' ');
+		for(int i=0;i<patterns.length;i++)
+		{
+			if(value.length()==patterns[i].length())
+			{
+				SimpleDateFormat format = new SimpleDateFormat(patterns[i]);
+				format.setLenient(false);
+				try
+				{
+					return format.parse(value).getTime();
+				}
+				catch(ParseException pe)
+				{
+					// reported below
+				}
+			}
+		}
+		throw new Exception("invalid date: " + dateTime + ". use the format yyyy-MM-dd HH:mm:ss");
+	}
 }
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * jmh benchmark comparing the generation of rows in the interpreted mode with the compiled
+ * mode, in which the fields of a row are generated by a method handle composed for the layout.
+ * one layout has fields of all generators, the other only fields that are fast to generate.<br />
+ * <br />
+ * the benchmark is not run by the tests. it is run from the folder of the project with:<br />
+ * <br />
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt<br />
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) org.openjdk.jmh.Main DataCreatorBenchmark<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DataCreatorBenchmark
+{
+	@Param({DataCreatorCompiledTest.BENCHMARK_LAYOUT, "src/test/resources/benchmark_numbers_rowlayout.xml"})
+	private String layout;
+
+	@Param({"false", "true"})
+	private boolean compiled;
+
+	private DataCreator creator;
+
+	@Setup
+	public void prepareLayout() throws Exception
+	{
+		creator = DataCreatorCompiledTest.createDataCreator(layout, compiled);
+	}
+
+	/**
+	 * generates one row
+	 */
+	@Benchmark
+	public String generateRow() throws Exception
+	{
+		return creator.generateRow();
+	}
+}
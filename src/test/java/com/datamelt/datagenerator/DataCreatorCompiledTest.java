@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * tests that the compiled mode generates the same rows as the interpreted mode
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class DataCreatorCompiledTest
+{
+	public static final String CATEGORIES 			= "src/main/resources/categories/english";
+	public static final String BENCHMARK_LAYOUT 	= "src/test/resources/benchmark_rowlayout.xml";
+
+	private static final int NUMBER_OF_ROWS 		= 5000;
+
+	@Test
+	public void generatesTheRowsOfTheBenchmarkLayout() throws Exception
+	{
+		assertSameRows(BENCHMARK_LAYOUT);
+	}
+
+	@Test
+	public void generatesTheRowsOfTheExampleLayouts() throws Exception
+	{
+		assertSameRows("src/main/resources/rowlayout.xml");
+		assertSameRows("src/main/resources/rowlayout_flights.xml");
+	}
+
+	@Test
+	public void generatesTheRowWithAGivenNumber() throws Exception
+	{
+		DataCreator interpreted = createDataCreator(BENCHMARK_LAYOUT, false);
+		DataCreator compiled = createDataCreator(BENCHMARK_LAYOUT, true);
+		assertEquals(interpreted.generateRow(1234), compiled.generateRow(1234));
+		assertEquals(interpreted.generateRow(), compiled.generateRow());
+	}
+
+	private static void assertSameRows(String layout) throws Exception
+	{
+		DataCreator interpreted = createDataCreator(layout, false);
+		DataCreator compiled = createDataCreator(layout, true);
+		for(int i=0;i<NUMBER_OF_ROWS;i++)
+		{
+			assertEquals("row " + i + " of " + layout, interpreted.generateRow(), compiled.generateRow());
+		}
+	}
+
+	static DataCreator createDataCreator(String layout, boolean compiled) throws Exception
+	{
+		DataCreator creator = new DataCreatorBuilder().categories(CATEGORIES).layout(layout).rows(NUMBER_OF_ROWS).seed(42).compiled(compiled).build();
+		creator.parseRowLayoutFile();
+		return creator;
+	}
+}
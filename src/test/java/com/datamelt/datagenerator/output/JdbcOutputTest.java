@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datamelt.datagenerator.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * tests the jdbc output against an embedded H2 database in memory.<br />
+ * <br />
+ * the database is kept open by a connection of the test, so that the rows inserted by
+ * the connections of the output can be counted while and after they are inserted.<br />
+ *
+ * @author uwe geercken - uwe.geercken@web.de
+ */
+public class JdbcOutputTest
+{
+	private static final String TABLE = "rows";
+
+	private static int databaseNumber;
+
+	private String url;
+	private Connection connection;
+
+	@Before
+	public void createTable() throws Exception
+	{
+		// every test gets its own database. counting the rows must not make an insert wait for a lock too long
+		url = "jdbc:h2:mem:jdbcoutput" + (databaseNumber++) + ";LOCK_TIMEOUT=10000";
+		connection = DriverManager.getConnection(url);
+		Statement statement = connection.createStatement();
+		statement.execute("create table " + TABLE + " (id bigint primary key, name varchar(20), amount decimal(10,2))");
+		statement.close();
+	}
+
+	@After
+	public void closeDatabase() throws Exception
+	{
+		connection.close();
+	}
+
+	@Test
+	public void insertsAllRowsInBatches() throws Exception
+	{
+		JdbcOutput output = new JdbcOutput(url, null, null, 10, 0, 1);
+		output.open(TABLE, null, 3);
+		writeRows(output, 0, 25);
+		output.close();
+
+		assertEquals(25, countRows());
+		assertEquals(25, output.getNumberOfRows());
+		// two full batches and the remaining five rows
+		assertEquals(3, output.getLatencies().getCount());
+		assertEquals(new BigDecimal("6.50"), queryAmount(13));
+	}
+
+	@Test
+	public void insertsIntoTheGivenColumns() throws Exception
+	{
+		JdbcOutput output = new JdbcOutput(url, null, null, 10, 0, 1);
+		output.open(TABLE, new String[] {"name", "id"}, 2);
+		output.write(new Object[] {"first", 1L});
+		output.close();
+
+		ResultSet result = connection.createStatement().executeQuery("select name from " + TABLE + " where id=1");
+		assertTrue(result.next());
+		assertEquals("first", result.getString(1));
+	}
+
+	@Test
+	public void commitsAfterTheCommitInterval() throws Exception
+	{
+		JdbcOutput output = new JdbcOutput(url, null, null, 10, 20, 1);
+		output.open(TABLE, null, 3);
+		writeRows(output, 0, 30);
+		// the third batch is handed to the connection, but not committed before the output is closed
+		if(!waitForRows(20))
+		{
+			// reports the error of the connection, if there is one
+			output.close();
+		}
+		Thread.sleep(200);
+		assertEquals(20, countRows());
+		output.close();
+
+		assertEquals(30, countRows());
+	}
+
+	@Test
+	public void commitsWhenClosedWithoutCommitInterval() throws Exception
+	{
+		JdbcOutput output = new JdbcOutput(url, null, null, 10, 0, 1);
+		output.open(TABLE, null, 3);
+		writeRows(output, 0, 50);
+		Thread.sleep(200);
+		assertEquals(0, countRows());
+		output.close();
+
+		assertEquals(50, countRows());
+	}
+
+	@Test
+	public void insertsOverMultipleConnections() throws Exception
+	{
+		JdbcOutput output = new JdbcOutput(url, null, null, 7, 50, 4);
+		output.open(TABLE, null, 3);
+		writeRows(output, 0, 1000);
+		output.close();
+
+		assertEquals(1000, countRows());
+		ResultSet result = connection.createStatement().executeQuery("select count(distinct id), min(id), max(id) from " + TABLE);
+		assertTrue(result.next());
+		assertEquals(1000, result.getLong(1));
+		assertEquals(0, result.getLong(2));
+		assertEquals(999, result.getLong(3));
+		// 142 full batches and one with the remaining six rows
+		assertEquals(143, output.getLatencies().getCount());
+	}
+
+	@Test
+	public void closeReportsTheErrorOfAFailingBatch() throws Exception
+	{
+		JdbcOutput output = new JdbcOutput(url, null, null, 10, 0, 2);
+		output.open(TABLE, null, 3);
+		writeRows(output, 0, 10);
+		// the same keys again violate the primary key
+		writeRows(output, 0, 5);
+		try
+		{
+			output.close();
+			fail("closing the output must report the failing batch");
+		}
+		catch(Exception e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().startsWith("error inserting rows into the database"));
+		}
+	}
+
+	@Test
+	public void writeReportsTheErrorOfAFailingBatch() throws Exception
+	{
+		JdbcOutput output = new JdbcOutput(url, null, null, 5, 0, 1);
+		output.open(TABLE, null, 3);
+		writeRows(output, 0, 5);
+		writeRows(output, 0, 5);
+		try
+		{
+			// the next batches are only accepted until the error of the connection is known
+			for(int i=0;i<100;i++)
+			{
+				writeRows(output, 100 + i * 5, 5);
+				Thread.sleep(10);
+			}
+			fail("writing to the output must report the failing batch");
+		}
+		catch(Exception e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().startsWith("error inserting rows into the database"));
+		}
+		try
+		{
+			output.close();
+			fail("closing the output must report the failing batch again");
+		}
+		catch(Exception e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().startsWith("error inserting rows into the database"));
+		}
+		// nothing was committed
+		assertEquals(0, countRows());
+	}
+
+	@Test
+	public void openReportsAnUnknownTable() throws Exception
+	{
+		JdbcOutput output = new JdbcOutput(url, null, null, 10, 0, 2);
+		try
+		{
+			output.open("missing", null, 3);
+			fail("opening the output must report the unknown table");
+		}
+		catch(Exception e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().startsWith("error opening database connection"));
+		}
+	}
+
+	private static void writeRows(JdbcOutput output, long firstId, int numberOfRows) throws Exception
+	{
+		for(long id=firstId;id<firstId+numberOfRows;id++)
+		{
+			output.write(new Object[] {id, "name" + id, new BigDecimal(id).divide(new BigDecimal(2)).setScale(2)});
+		}
+	}
+
+	private long countRows() throws Exception
+	{
+		ResultSet result = connection.createStatement().executeQuery("select count(*) from " + TABLE);
+		result.next();
+		return result.getLong(1);
+	}
+
+	private BigDecimal queryAmount(long id) throws Exception
+	{
+		ResultSet result = connection.createStatement().executeQuery("select amount from " + TABLE + " where id=" + id);
+		result.next();
+		return result.getBigDecimal(1);
+	}
+
+	/**
+	 * waits up to ten seconds until the table has at least the given number of rows
+	 */
+	private boolean waitForRows(long numberOfRows) throws Exception
+	{
+		long end = System.currentTimeMillis() + 10000;
+		while(countRows()<numberOfRows && System.currentTimeMillis()<end)
+		{
+			Thread.sleep(10);
+		}
+		return countRows()>=numberOfRows;
+	}
+}